@@ -0,0 +1,155 @@
+package com.example.rpc.benchmark;
+
+import com.alibaba.fastjson2.JSON;
+import com.example.rpc.client.impl.VertxRpcClient;
+import com.example.rpc.compress.Compressor;
+import com.example.rpc.compress.CompressorFactory;
+import com.example.rpc.config.RpcProperties;
+import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.model.RpcMessage;
+import com.example.rpc.model.RpcMessageHeader;
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.model.RpcResponse;
+import com.example.rpc.protocol.RpcMessageCodec;
+import com.example.rpc.registry.RegistryFactory;
+import com.example.rpc.registry.ServiceRegistry;
+import com.example.rpc.serializer.SerializerFactory;
+import com.example.rpc.server.VertxRpcServer;
+import io.vertx.core.buffer.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 消息体压缩基准测试
+ * 用约120KB的商品列表JSON衡量各压缩器的编码、解码耗时，以及本机回环地址上大响应的完整调用耗时，
+ * 启动时打印压缩后的帧大小，对比CPU开销和传输数据量
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class CompressionBenchmark {
+    
+    private static final String HOST = "127.0.0.1";
+    private static final int PORT = 18889;
+    private static final long CALL_TIMEOUT_MS = 5000;
+    
+    @Param({RpcConstant.COMPRESSOR_NONE, RpcConstant.COMPRESSOR_DEFLATE, RpcConstant.COMPRESSOR_ZSTD})
+    private String compressorName;
+    
+    private Compressor compressor;
+    private RpcMessage<RpcResponse<?>> message;
+    private Buffer encoded;
+    private RpcMessageHeader encodedHeader;
+    
+    private ServiceRegistry registry;
+    private VertxRpcServer server;
+    private VertxRpcClient client;
+    private RpcRequest request;
+    
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        String productPage = JSON.toJSONString(productPage(600));
+        compressor = CompressorFactory.getCompressor(compressorName);
+        RpcMessageHeader header = RpcMessageCodec.buildHeader(RpcConstant.MESSAGE_TYPE_RESPONSE,
+                SerializerFactory.getSerializer(RpcConstant.SERIALIZER_JSON).getType(), RpcConstant.MESSAGE_STATUS_OK, 1L);
+        message = RpcMessageCodec.buildMessage(header, RpcResponse.success("1", productPage));
+        encoded = encode();
+        encodedHeader = RpcMessageCodec.decodeHeader(encoded);
+        System.out.printf("%n[%s] payload: %d chars, frame size: %d bytes%n",
+                compressorName, productPage.length(), encoded.length());
+        
+        Map<String, Object> serviceMap = new ConcurrentHashMap<>();
+        serviceMap.put(EchoService.class.getName() + ":" + RpcConstant.DEFAULT_GROUP + ":" + RpcConstant.DEFAULT_VERSION,
+                new EchoServiceImpl());
+        RpcProperties serverProperties = new RpcProperties();
+        serverProperties.setServerPort(PORT);
+        registry = RegistryFactory.createRegistry(RpcConstant.REGISTRY_TYPE_LOCAL, null);
+        server = new VertxRpcServer(serverProperties, registry, serviceMap);
+        server.start();
+        
+        RpcProperties properties = new RpcProperties();
+        properties.setCompressor(compressorName);
+        client = new VertxRpcClient(properties, registry);
+        client.init();
+        request = RpcRequest.builder()
+                .serviceName(EchoService.class.getName())
+                .methodName("echo")
+                .parameterTypes(new Class[]{String.class})
+                .parameters(new Object[]{productPage})
+                .version(RpcConstant.DEFAULT_VERSION)
+                .group(RpcConstant.DEFAULT_GROUP)
+                .build();
+        
+        // 预先建立连接，避免首次调用的建连耗时计入结果
+        call();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        server.shutdown();
+        registry.close();
+    }
+    
+    /**
+     * 编码（序列化加压缩）一个大响应
+     */
+    @Benchmark
+    public Buffer encode() throws Exception {
+        return RpcMessageCodec.encode(message, compressor, RpcConstant.DEFAULT_COMPRESSION_THRESHOLD);
+    }
+    
+    /**
+     * 解码（边解压边反序列化）一个大响应
+     */
+    @Benchmark
+    public RpcResponse<?> decode() throws Exception {
+        return RpcMessageCodec.decodeResponse(encodedHeader,
+                encoded.slice(RpcConstant.HEADER_LENGTH, encoded.length()), String.class);
+    }
+    
+    /**
+     * 请求和响应都是大消息体的完整回环调用
+     */
+    @Benchmark
+    public RpcResponse<?> call() throws Exception {
+        return client.sendRequest(HOST, PORT, request).get(CALL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+    
+    private static List<Map<String, Object>> productPage(int size) {
+        List<Map<String, Object>> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> product = new LinkedHashMap<>();
+            product.put("id", 100000 + i);
+            product.put("name", "Product " + i);
+            product.put("category", "category-" + (i % 12));
+            product.put("price", 19.99 + i % 50);
+            product.put("stock", i * 7 % 500);
+            product.put("description", "A durable everyday item, available in several colours and sizes. Item #" + i);
+            product.put("tags", new String[]{"new", "sale", "tag-" + (i % 9)});
+            products.add(product);
+        }
+        return products;
+    }
+}
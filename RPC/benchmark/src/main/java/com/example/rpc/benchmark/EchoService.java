@@ -0,0 +1,9 @@
+package com.example.rpc.benchmark;
+
+/**
+ * 基准测试使用的服务接口
+ */
+public interface EchoService {
+    
+    String echo(String message);
+}
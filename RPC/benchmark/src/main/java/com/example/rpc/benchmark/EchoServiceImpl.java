@@ -0,0 +1,12 @@
+package com.example.rpc.benchmark;
+
+/**
+ * 基准测试使用的服务实现，不做任何额外计算，只衡量框架本身的开销
+ */
+public class EchoServiceImpl implements EchoService {
+    
+    @Override
+    public String echo(String message) {
+        return message;
+    }
+}
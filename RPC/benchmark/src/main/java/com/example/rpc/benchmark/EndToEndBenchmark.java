@@ -0,0 +1,151 @@
+package com.example.rpc.benchmark;
+
+import com.example.rpc.client.impl.VertxRpcClient;
+import com.example.rpc.config.RpcProperties;
+import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.model.RpcResponse;
+import com.example.rpc.model.ServiceRegistryInfo;
+import com.example.rpc.registry.RegistryFactory;
+import com.example.rpc.registry.ServiceRegistry;
+import com.example.rpc.server.VertxRpcServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端基准测试
+ * 在本机回环地址上启动VertxRpcServer，通过VertxRpcClient发起完整的一次调用，
+ * 包括编码、网络传输、服务端调用和响应解码，并对比工作线程池和事件循环两种分发模式
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class EndToEndBenchmark {
+    
+    private static final String HOST = "127.0.0.1";
+    private static final int PORT = 18888;
+    private static final long CALL_TIMEOUT_MS = 5000;
+    
+    @Param({RpcConstant.SERIALIZER_JSON, RpcConstant.SERIALIZER_KRYO})
+    private String serializerName;
+    
+    @Param({RpcConstant.DISPATCH_MODE_WORKER_POOL, RpcConstant.DISPATCH_MODE_EVENT_LOOP})
+    private String dispatchMode;
+    
+    /**
+     * 写合并的最大字节数，0表示关闭写合并
+     */
+    @Param({"0", "65536"})
+    private int batchMaxBytes;
+    
+    private ServiceRegistry registry;
+    private VertxRpcServer server;
+    private VertxRpcClient client;
+    private RpcRequest request;
+    
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Map<String, Object> serviceMap = new ConcurrentHashMap<>();
+        serviceMap.put(EchoService.class.getName() + ":" + RpcConstant.DEFAULT_GROUP + ":" + RpcConstant.DEFAULT_VERSION,
+                new EchoServiceImpl());
+        RpcProperties serverProperties = new RpcProperties();
+        serverProperties.setServerPort(PORT);
+        serverProperties.setDispatchMode(dispatchMode);
+        serverProperties.setBatchMaxBytes(batchMaxBytes);
+        registry = RegistryFactory.createRegistry(RpcConstant.REGISTRY_TYPE_LOCAL, null);
+        server = new VertxRpcServer(serverProperties, registry, serviceMap);
+        server.start();
+        waitForServer();
+        registry.register(ServiceRegistryInfo.builder()
+                .serviceName(EchoService.class.getName())
+                .group(RpcConstant.DEFAULT_GROUP)
+                .version(RpcConstant.DEFAULT_VERSION)
+                .host(HOST)
+                .port(PORT)
+                .weight(100)
+                .healthy(true)
+                .build()).join();
+        
+        RpcProperties properties = new RpcProperties();
+        properties.setSerializer(serializerName);
+        properties.setBatchMaxBytes(batchMaxBytes);
+        client = new VertxRpcClient(properties, registry);
+        client.init();
+        
+        request = RpcRequest.builder()
+                .requestId("1024")
+                .serviceName(EchoService.class.getName())
+                .methodName("echo")
+                .parameterTypes(new Class[]{String.class})
+                .parameters(new Object[]{"hello benchmark"})
+                .version(RpcConstant.DEFAULT_VERSION)
+                .group(RpcConstant.DEFAULT_GROUP)
+                .build();
+        
+        // 预先建立连接，避免首次调用的建连耗时计入结果
+        call();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        server.shutdown();
+        registry.close();
+    }
+    
+    /**
+     * 单线程同步调用的往返延迟
+     */
+    @Benchmark
+    public RpcResponse<?> call() throws Exception {
+        return client.sendRequest(HOST, PORT, request).get(CALL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * 多线程共享同一个客户端时的吞吐量
+     */
+    @Benchmark
+    @Threads(8)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public RpcResponse<?> callConcurrent() throws Exception {
+        return call();
+    }
+    
+    /**
+     * 经过本地注册中心发现和负载均衡的完整调用路径
+     */
+    @Benchmark
+    public RpcResponse<?> callDiscovered() throws Exception {
+        return client.sendRequest(request).get(CALL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+    
+    private void waitForServer() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + CALL_TIMEOUT_MS;
+        while (!server.isRunning()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("RPC server did not start on port " + PORT);
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.rpc.benchmark;
+
+import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.loadbalance.LoadBalancer;
+import com.example.rpc.loadbalance.LoadBalancerFactory;
+import com.example.rpc.model.ServiceRegistryInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 负载均衡器基准测试
+ * 负载均衡器在所有调用线程间共享，selectContended衡量多线程同时选择时的竞争开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class LoadBalancerBenchmark {
+    
+    private static final int REQUEST_ID_COUNT = 1024;
+    
+    @Param({RpcConstant.LOAD_BALANCER_ROUND_ROBIN, RpcConstant.LOAD_BALANCER_RANDOM,
+            RpcConstant.LOAD_BALANCER_CONSISTENT_HASH})
+    private String loadBalancerName;
+    
+    @Param({"3", "32"})
+    private int instanceCount;
+    
+    private LoadBalancer loadBalancer;
+    private List<ServiceRegistryInfo> services;
+    private String[] requestIds;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        loadBalancer = LoadBalancerFactory.getLoadBalancer(loadBalancerName);
+        services = new ArrayList<>(instanceCount);
+        for (int i = 0; i < instanceCount; i++) {
+            services.add(ServiceRegistryInfo.builder()
+                    .serviceName(EchoService.class.getName())
+                    .version(RpcConstant.DEFAULT_VERSION)
+                    .group(RpcConstant.DEFAULT_GROUP)
+                    .host("10.0.0." + (i + 1))
+                    .port(RpcConstant.DEFAULT_PORT)
+                    .weight(100)
+                    .healthy(true)
+                    .build());
+        }
+        requestIds = new String[REQUEST_ID_COUNT];
+        for (int i = 0; i < REQUEST_ID_COUNT; i++) {
+            requestIds[i] = "request-" + i;
+        }
+    }
+    
+    @Benchmark
+    public ServiceRegistryInfo select() {
+        return loadBalancer.select(services, nextRequestId());
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public ServiceRegistryInfo selectContended() {
+        return loadBalancer.select(services, nextRequestId());
+    }
+    
+    private String nextRequestId() {
+        return requestIds[ThreadLocalRandom.current().nextInt(REQUEST_ID_COUNT)];
+    }
+}
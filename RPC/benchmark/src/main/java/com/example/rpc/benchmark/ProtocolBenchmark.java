@@ -0,0 +1,84 @@
+package com.example.rpc.benchmark;
+
+import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.model.RpcMessage;
+import com.example.rpc.model.RpcMessageHeader;
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.protocol.RpcFrameParser;
+import com.example.rpc.protocol.RpcMessageCodec;
+import com.example.rpc.serializer.SerializerFactory;
+import io.vertx.core.buffer.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 协议编解码基准测试
+ * 分别衡量整帧编码、帧解析（只解析协议头）和帧解析加消息体反序列化的耗时
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class ProtocolBenchmark {
+    
+    @Param({RpcConstant.SERIALIZER_JSON, RpcConstant.SERIALIZER_KRYO})
+    private String serializerName;
+    
+    private RpcMessage<RpcRequest> message;
+    private Buffer encoded;
+    private RpcFrameParser parser;
+    private RpcMessage<Buffer> lastFrame;
+    
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        RpcRequest request = RpcRequest.builder()
+                .requestId("1024")
+                .serviceName(EchoService.class.getName())
+                .methodName("echo")
+                .parameterTypes(new Class[]{String.class})
+                .parameters(new Object[]{"hello benchmark"})
+                .version(RpcConstant.DEFAULT_VERSION)
+                .group(RpcConstant.DEFAULT_GROUP)
+                .build();
+        byte serializerType = SerializerFactory.getSerializer(serializerName).getType();
+        RpcMessageHeader header = RpcMessageCodec.buildHeader(RpcConstant.MESSAGE_TYPE_REQUEST,
+                serializerType, RpcConstant.MESSAGE_STATUS_OK, 1L);
+        message = RpcMessageCodec.buildMessage(header, request);
+        encoded = RpcMessageCodec.encode(message);
+        parser = new RpcFrameParser(frame -> lastFrame = frame, ex -> {
+            throw new IllegalStateException(ex);
+        });
+    }
+    
+    @Benchmark
+    public Buffer encode() throws IOException {
+        return RpcMessageCodec.encode(message);
+    }
+    
+    @Benchmark
+    public RpcMessage<Buffer> parseFrame() {
+        parser.handle(encoded);
+        return lastFrame;
+    }
+    
+    @Benchmark
+    public RpcRequest parseAndDecode() throws IOException {
+        parser.handle(encoded);
+        return RpcMessageCodec.decodeBody(lastFrame.getHeader(), lastFrame.getBody(), RpcRequest.class);
+    }
+}
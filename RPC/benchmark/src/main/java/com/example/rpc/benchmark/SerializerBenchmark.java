@@ -0,0 +1,83 @@
+package com.example.rpc.benchmark;
+
+import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.model.RpcResponse;
+import com.example.rpc.serializer.Serializer;
+import com.example.rpc.serializer.SerializerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 序列化器基准测试
+ * 对比各序列化器编解码请求和响应的耗时，启动时打印各自的序列化后大小
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class SerializerBenchmark {
+    
+    @Param({RpcConstant.SERIALIZER_JSON, RpcConstant.SERIALIZER_KRYO, RpcConstant.SERIALIZER_HESSIAN})
+    private String serializerName;
+    
+    private Serializer serializer;
+    private RpcRequest request;
+    private RpcResponse<Object> response;
+    private byte[] requestBytes;
+    private byte[] responseBytes;
+    
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        serializer = SerializerFactory.getSerializer(serializerName);
+        request = RpcRequest.builder()
+                .requestId("1024")
+                .serviceName("com.example.rpc.benchmark.EchoService")
+                .methodName("echo")
+                .parameterTypes(new Class[]{String.class, Integer.class, Long.class})
+                .parameters(new Object[]{"hello benchmark", 42, 1699999999999L})
+                .version("1.0")
+                .group("default")
+                .build();
+        response = RpcResponse.success("1024", "hello benchmark");
+        requestBytes = serializer.serialize(request);
+        responseBytes = serializer.serialize(response);
+        System.out.printf("%n[%s] request size: %d bytes, response size: %d bytes%n",
+                serializerName, requestBytes.length, responseBytes.length);
+    }
+    
+    @Benchmark
+    public byte[] serializeRequest() throws IOException {
+        return serializer.serialize(request);
+    }
+    
+    @Benchmark
+    public RpcRequest deserializeRequest() throws IOException {
+        return serializer.deserialize(requestBytes, RpcRequest.class);
+    }
+    
+    @Benchmark
+    public byte[] serializeResponse() throws IOException {
+        return serializer.serialize(response);
+    }
+    
+    @Benchmark
+    public RpcResponse<?> deserializeResponse() throws IOException {
+        return serializer.deserialize(responseBytes, RpcResponse.class);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.rpc.benchmark;
+
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.protocol.MethodSignature;
+import com.example.rpc.server.ServiceInvoker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务端方法分发基准测试
+ * 对比每次反射查找方法再调用，与预编译调用器按方法ID或方法签名查找后直接调用
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ServiceInvokerBenchmark {
+    
+    private Object service;
+    private ServiceInvoker invoker;
+    private RpcRequest idRequest;
+    private RpcRequest signatureRequest;
+    
+    @Setup(Level.Trial)
+    public void setup() throws NoSuchMethodException {
+        service = new EchoServiceImpl();
+        invoker = ServiceInvoker.compile(EchoService.class, service);
+        
+        Method echo = EchoService.class.getMethod("echo", String.class);
+        Object[] parameters = {"hello benchmark"};
+        idRequest = RpcRequest.builder()
+                .methodName("echo")
+                .methodId(MethodSignature.assignIds(EchoService.class.getMethods()).get(echo))
+                .parameters(parameters)
+                .build();
+        signatureRequest = RpcRequest.builder()
+                .methodName("echo")
+                .parameterTypes(new Class[]{String.class})
+                .parameters(parameters)
+                .build();
+    }
+    
+    @Benchmark
+    public Object reflection() throws Exception {
+        Method method = service.getClass().getMethod(signatureRequest.getMethodName(), signatureRequest.getParameterTypes());
+        return method.invoke(service, signatureRequest.getParameters());
+    }
+    
+    @Benchmark
+    public Object invokerByMethodId() throws Throwable {
+        return invoker.find(idRequest).invoke(idRequest.getParameters());
+    }
+    
+    @Benchmark
+    public Object invokerBySignature() throws Throwable {
+        return invoker.find(signatureRequest).invoke(signatureRequest.getParameters());
+    }
+}
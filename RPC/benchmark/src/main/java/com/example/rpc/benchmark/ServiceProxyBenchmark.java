@@ -0,0 +1,97 @@
+package com.example.rpc.benchmark;
+
+import com.example.rpc.client.RpcClient;
+import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.model.RpcResponse;
+import com.example.rpc.proxy.ServiceProxyFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务代理基准测试
+ * 客户端直接返回已完成的响应，只衡量代理本身构建请求、等待结果和解析响应的开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ServiceProxyBenchmark {
+    
+    private EchoService direct;
+    private EchoService proxy;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        direct = new EchoServiceImpl();
+        proxy = new ServiceProxyFactory(new LocalRpcClient())
+                .createProxy(EchoService.class, RpcConstant.DEFAULT_VERSION, RpcConstant.DEFAULT_GROUP);
+    }
+    
+    @Benchmark
+    public String directCall() {
+        return direct.echo("hello benchmark");
+    }
+    
+    @Benchmark
+    public String proxyCall() {
+        return proxy.echo("hello benchmark");
+    }
+    
+    /**
+     * 不经过网络，直接在调用线程上返回结果的客户端
+     */
+    private static class LocalRpcClient implements RpcClient {
+        
+        private final EchoService service = new EchoServiceImpl();
+        private long timeout = RpcConstant.DEFAULT_TIMEOUT;
+        
+        @Override
+        public void init() {
+        }
+        
+        @Override
+        public CompletableFuture<RpcResponse> sendRequest(RpcRequest request) {
+            String result = service.echo((String) request.getParameters()[0]);
+            return CompletableFuture.completedFuture(RpcResponse.success(request.getRequestId(), result));
+        }
+        
+        @Override
+        public CompletableFuture<RpcResponse> sendRequest(String host, int port, RpcRequest request) {
+            return sendRequest(request);
+        }
+        
+        @Override
+        public void close() {
+        }
+        
+        @Override
+        public void setTimeout(long timeout) {
+            this.timeout = timeout;
+        }
+        
+        @Override
+        public long getTimeout() {
+            return timeout;
+        }
+        
+        @Override
+        public boolean isInitialized() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.rpc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记服务方法不会阻塞（不访问数据库、不做远程调用、不等待锁）
+ * 标记的方法在解码请求的线程上直接执行，省去一次线程切换；标在类或接口上表示所有方法都不阻塞
+ * 服务端所有服务的方法都不阻塞时，请求直接在Vert.x事件循环线程上解码和执行
+ * 在事件循环上阻塞会拖慢同一线程上的所有连接，不确定时不要使用
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface NonBlocking {
+}
@@ -0,0 +1,28 @@
+package com.example.rpc.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * RPC方法级配置，在@RpcReference的methods中使用
+ */
+@Target({})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RpcMethod {
+    
+    /**
+     * 方法名，同名的重载方法使用相同配置
+     */
+    String name();
+    
+    /**
+     * 调用超时时间（毫秒），为0时使用引用级别的超时时间
+     */
+    long timeout() default 0;
+    
+    /**
+     * 一致性哈希负载均衡使用的参数下标，参数相同的调用路由到同一实例，为-1时按方法路由
+     */
+    int hashArgument() default 0;
+}
@@ -51,4 +51,14 @@ public @interface RpcReference {
      * 最大重试次数
      */
     int maxRetryCount() default 2;
+    
+    /**
+     * 调用超时时间（毫秒），为0时使用客户端的默认超时时间
+     */
+    long timeout() default 0;
+    
+    /**
+     * 方法级配置，优先于引用级别的配置
+     */
+    RpcMethod[] methods() default {};
 }
\ No newline at end of file
@@ -31,4 +31,9 @@ public @interface RpcService {
      * 服务权重
      */
     int weight() default 100;
+    
+    /**
+     * 请求分发模式：eventLoop、virtualThread、workerPool，为空时使用服务器默认配置
+     */
+    String dispatchMode() default "";
 }
\ No newline at end of file
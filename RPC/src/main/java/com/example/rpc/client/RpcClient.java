@@ -22,6 +22,15 @@ public interface RpcClient {
      */
     CompletableFuture<RpcResponse> sendRequest(RpcRequest request);
     
+    /**
+     * 向指定地址发送RPC请求
+     * @param host 服务主机
+     * @param port 服务端口
+     * @param request RPC请求对象
+     * @return RPC响应对象的CompletableFuture
+     */
+    CompletableFuture<RpcResponse> sendRequest(String host, int port, RpcRequest request);
+    
     /**
      * 关闭客户端
      */
@@ -1,5 +1,10 @@
 package com.example.rpc.client;
 
+import com.example.rpc.client.impl.VertxRpcClient;
+import com.example.rpc.config.RpcProperties;
+import com.example.rpc.registry.RegistryFactory;
+import com.example.rpc.registry.ServiceRegistry;
+
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -31,15 +36,26 @@ public class RpcClientFactory {
      * @return RPC客户端实例
      */
     public RpcClient createClient(String clientType) {
+        return createClient(clientType, new RpcProperties(), RegistryFactory.getRegistry());
+    }
+    
+    /**
+     * 按配置创建RPC客户端
+     * @param clientType 客户端类型
+     * @param properties RPC配置
+     * @param registry 服务注册中心
+     * @return RPC客户端实例
+     */
+    public RpcClient createClient(String clientType, RpcProperties properties, ServiceRegistry registry) {
         return clientCache.computeIfAbsent(clientType, type -> {
             RpcClient client;
             switch (type.toLowerCase()) {
                 case "vertx":
-                    client = new VertxRpcClient();
+                    client = new VertxRpcClient(properties, registry);
                     break;
                 default:
                     // 默认使用Vertx客户端
-                    client = new VertxRpcClient();
+                    client = new VertxRpcClient(properties, registry);
                     break;
             }
             client.init();
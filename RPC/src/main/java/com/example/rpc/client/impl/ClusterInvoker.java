@@ -0,0 +1,261 @@
+package com.example.rpc.client.impl;
+
+import com.example.rpc.config.RpcProperties;
+import com.example.rpc.exception.RpcException;
+import com.example.rpc.exception.ServerOverloadedException;
+import com.example.rpc.fault.retry.RetryBudget;
+import com.example.rpc.fault.retry.RetryStrategy;
+import com.example.rpc.fault.retry.RetryStrategyFactory;
+import com.example.rpc.fault.tolerance.ToleranceStrategy;
+import com.example.rpc.fault.tolerance.ToleranceStrategyFactory;
+import com.example.rpc.loadbalance.LoadBalancer;
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.model.RpcResponse;
+import com.example.rpc.model.ServiceRegistryInfo;
+import com.example.rpc.registry.ServiceRegistry;
+import io.netty.util.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * 集群调用器
+ * 按 服务发现 → 负载均衡 → 发送 → 重试/容错 的顺序完成一次调用：
+ * 调用失败时由容错策略决定是否换到其他实例重试，重试次数和等待时间由重试策略决定，
+ * 所有尝试都失败后交给容错策略生成最终结果。整个过程是异步的，重试等待使用时间轮，不占用线程
+ *
+ * 所有尝试共享调用的超时时间，每次尝试只使用剩余的时间，等待后会超出预算时不再重试；
+ * 每个服务有一个重试令牌桶，服务大面积失败时停止重试，避免重试放大故障
+ *
+ * 服务端因过载拒绝的请求没有执行过，无论容错策略如何都立即换到其他实例重试
+ */
+@Slf4j
+public class ClusterInvoker {
+    
+    private final ServiceRegistry registry;
+    private final LoadBalancer loadBalancer;
+    private final RetryStrategy retryStrategy;
+    private final ToleranceStrategy toleranceStrategy;
+    private final int maxRetryCount;
+    private final long retryInterval;
+    private final int retryBudgetMaxTokens;
+    private final double retryBudgetTokenRatio;
+    private final Timer timer;
+    private final Transport transport;
+    
+    /**
+     * 服务键到重试令牌桶的映射
+     */
+    private final Map<String, RetryBudget> retryBudgets = new ConcurrentHashMap<>();
+    
+    public ClusterInvoker(RpcProperties properties, ServiceRegistry registry, LoadBalancer loadBalancer,
+                          Timer timer, Transport transport) {
+        this.registry = registry;
+        this.loadBalancer = loadBalancer;
+        this.retryStrategy = RetryStrategyFactory.getRetryStrategy(properties.getRetryStrategy());
+        this.toleranceStrategy = ToleranceStrategyFactory.getToleranceStrategy(properties.getToleranceStrategy());
+        this.maxRetryCount = Math.max(0, properties.getMaxRetryCount());
+        this.retryInterval = properties.getRetryInterval();
+        this.retryBudgetMaxTokens = properties.getRetryBudgetMaxTokens();
+        this.retryBudgetTokenRatio = properties.getRetryBudgetTokenRatio();
+        this.timer = timer;
+        this.transport = transport;
+    }
+    
+    /**
+     * 发起一次集群调用
+     * @param timeoutMs 所有尝试共享的超时时间（毫秒）
+     */
+    public CompletableFuture<RpcResponse> invoke(RpcRequest request, long timeoutMs) {
+        CompletableFuture<RpcResponse> result = new CompletableFuture<>();
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        attempt(request, deadlineNanos, 0, new HashSet<>(), result);
+        return result;
+    }
+    
+    private void attempt(RpcRequest request, long deadlineNanos, int retries, Set<String> tried,
+                         CompletableFuture<RpcResponse> result) {
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        if (remainingMs <= 0) {
+            tolerate(request, new TimeoutException("Request timeout before attempt " + (retries + 1)), result);
+            return;
+        }
+        RetryBudget budget = getRetryBudget(request);
+        registry.discover(request.getServiceName(), request.getGroup(), request.getVersion())
+                .whenComplete((services, discoverError) -> {
+                    if (discoverError != null) {
+                        tolerate(request, unwrap(discoverError), result);
+                        return;
+                    }
+                    Selection selection = select(services, request, tried);
+                    if (selection == null) {
+                        // 没有可用实例时重试也无济于事，直接交给容错策略
+                        tolerate(request, new RpcException((services.isEmpty() ? "Service not found: "
+                                : "No available instance for service: ") + request.getServiceName()
+                                + ", version: " + request.getVersion() + ", group: " + request.getGroup()), result);
+                        return;
+                    }
+                    String address = selection.serviceInfo.getAddress();
+                    tried.add(address);
+                    long startNanos = System.nanoTime();
+                    send(request, selection.serviceInfo, remainingMs).whenComplete((response, error) -> {
+                        toleranceStrategy.onResult(address, selection.permit, System.nanoTime() - startNanos, error);
+                        if (error == null) {
+                            budget.onSuccess();
+                            result.complete(response);
+                            return;
+                        }
+                        budget.onFailure();
+                        Throwable cause = unwrap(error);
+                        if (retries < maxRetryCount && budget.canRetry() && (cause instanceof ServerOverloadedException
+                                || toleranceStrategy.shouldFailOver(request, cause))) {
+                            retry(request, deadlineNanos, retries + 1, hasUntried(services, tried), tried, result, cause);
+                        } else {
+                            tolerate(request, cause, result);
+                        }
+                    });
+                });
+    }
+    
+    private CompletableFuture<RpcResponse> send(RpcRequest request, ServiceRegistryInfo serviceInfo, long timeoutMs) {
+        try {
+            return transport.send(request, serviceInfo, timeoutMs);
+        } catch (Exception e) {
+            CompletableFuture<RpcResponse> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally(e);
+            return failedFuture;
+        }
+    }
+    
+    /**
+     * 重新发起调用，还有未尝试过的实例时立即切换，否则按重试策略等待后再试，等待后会超出时间预算时不再重试
+     */
+    private void retry(RpcRequest request, long deadlineNanos, int retries, boolean hasUntried, Set<String> tried,
+                       CompletableFuture<RpcResponse> result, Throwable cause) {
+        long delay = hasUntried ? 0 : retryStrategy.getRetryDelay(retries, retryInterval);
+        if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay) >= deadlineNanos) {
+            tolerate(request, cause, result);
+            return;
+        }
+        log.warn("Call to {}.{} failed, retry {}/{} after {}ms: {}", request.getServiceName(),
+                request.getMethodName(), retries, maxRetryCount, delay, cause.getMessage());
+        if (delay <= 0) {
+            attempt(request, deadlineNanos, retries, tried, result);
+        } else {
+            timer.newTimeout(t -> attempt(request, deadlineNanos, retries, tried, result),
+                    delay, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * 所有尝试都失败后由容错策略生成结果，容错策略返回null时以原异常结束
+     */
+    private void tolerate(RpcRequest request, Throwable cause, CompletableFuture<RpcResponse> result) {
+        RpcResponse response;
+        try {
+            response = toleranceStrategy.doTolerance(request, cause);
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        if (response != null) {
+            result.complete(response);
+        } else {
+            result.completeExceptionally(cause);
+        }
+    }
+    
+    /**
+     * 选择实例并获取发送许可，没有可用实例时返回null
+     * 选中的地址没有拿到许可（如探测机会被其他调用抢先）时跳过该地址重新选择
+     */
+    private Selection select(List<ServiceRegistryInfo> services, RpcRequest request, Set<String> tried) {
+        Set<String> rejected = Collections.emptySet();
+        while (true) {
+            ServiceRegistryInfo serviceInfo = select(services, request, tried, rejected);
+            if (serviceInfo == null) {
+                return null;
+            }
+            long permit = toleranceStrategy.acquire(serviceInfo.getAddress());
+            if (permit != ToleranceStrategy.NO_PERMIT) {
+                return new Selection(serviceInfo, permit);
+            }
+            if (rejected.isEmpty()) {
+                rejected = new HashSet<>();
+            }
+            rejected.add(serviceInfo.getAddress());
+        }
+    }
+    
+    /**
+     * 选择实例，跳过容错策略认为不可用的实例（如熔断器打开的地址）和没有拿到许可的地址，
+     * 优先选择本次调用还没有尝试过的实例，都尝试过时不再排除。
+     * 负载均衡器始终拿到注册中心的完整列表，按列表构建的路由结构不会因排除而重建
+     */
+    private ServiceRegistryInfo select(List<ServiceRegistryInfo> services, RpcRequest request, Set<String> tried,
+                                       Set<String> rejected) {
+        Predicate<ServiceRegistryInfo> unavailable = service -> rejected.contains(service.getAddress())
+                || !toleranceStrategy.isAvailable(service.getAddress());
+        if (tried.isEmpty()) {
+            return loadBalancer.select(services, request, unavailable);
+        }
+        ServiceRegistryInfo selected = loadBalancer.select(services, request,
+                unavailable.or(service -> tried.contains(service.getAddress())));
+        return selected != null ? selected : loadBalancer.select(services, request, unavailable);
+    }
+    
+    private RetryBudget getRetryBudget(RpcRequest request) {
+        String serviceKey = request.getServiceName() + ":" + request.getGroup() + ":" + request.getVersion();
+        RetryBudget budget = retryBudgets.get(serviceKey);
+        return budget != null ? budget : retryBudgets.computeIfAbsent(serviceKey,
+                k -> new RetryBudget(retryBudgetMaxTokens, retryBudgetTokenRatio));
+    }
+    
+    private boolean hasUntried(List<ServiceRegistryInfo> services, Set<String> tried) {
+        for (ServiceRegistryInfo service : services) {
+            if (!tried.contains(service.getAddress()) && toleranceStrategy.isAvailable(service.getAddress())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+    
+    /**
+     * 选中的实例和容错策略发放的许可
+     */
+    private static final class Selection {
+        final ServiceRegistryInfo serviceInfo;
+        final long permit;
+        
+        Selection(ServiceRegistryInfo serviceInfo, long permit) {
+            this.serviceInfo = serviceInfo;
+            this.permit = permit;
+        }
+    }
+    
+    /**
+     * 向选定的实例发送请求
+     */
+    @FunctionalInterface
+    public interface Transport {
+        
+        /**
+         * @param timeoutMs 本次尝试的超时时间（毫秒）
+         */
+        CompletableFuture<RpcResponse> send(RpcRequest request, ServiceRegistryInfo serviceInfo, long timeoutMs);
+    }
+}
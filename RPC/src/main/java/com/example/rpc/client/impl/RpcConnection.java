@@ -0,0 +1,95 @@
+package com.example.rpc.client.impl;
+
+import com.example.rpc.protocol.RpcWriteBatcher;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetSocket;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 客户端长连接
+ * 一个连接上可以同时存在多个未完成的请求，响应通过请求ID关联
+ */
+public class RpcConnection {
+    
+    private final String address;
+    private final NetSocket socket;
+    private final RpcWriteBatcher writer;
+    
+    /**
+     * 在该连接上发出但尚未收到响应的请求ID
+     */
+    private final Set<Long> pendingRequests = ConcurrentHashMap.newKeySet();
+    
+    private volatile long lastActiveTime = System.currentTimeMillis();
+    private volatile boolean closed = false;
+    
+    public RpcConnection(String address, NetSocket socket, RpcWriteBatcher writer) {
+        this.address = address;
+        this.socket = socket;
+        this.writer = writer;
+    }
+    
+    /**
+     * 在连接上发送一个请求，同一时间窗口内的请求会合并为一次写出
+     * @return 连接已关闭时返回false，请求没有写出
+     */
+    public boolean write(long requestId, Buffer buffer) {
+        // 先登记再检查关闭标记，连接关闭时要么在这里被发现，要么由关闭回调让该请求失败
+        pendingRequests.add(requestId);
+        if (closed) {
+            pendingRequests.remove(requestId);
+            return false;
+        }
+        lastActiveTime = System.currentTimeMillis();
+        writer.write(buffer);
+        return true;
+    }
+    
+    /**
+     * 请求结束（收到响应、超时或失败）
+     */
+    public void complete(long requestId) {
+        pendingRequests.remove(requestId);
+        lastActiveTime = System.currentTimeMillis();
+    }
+    
+    /**
+     * 连接是否空闲超时
+     */
+    public boolean isIdle(long now, long idleTimeout) {
+        return pendingRequests.isEmpty() && now - lastActiveTime >= idleTimeout;
+    }
+    
+    public boolean isActive() {
+        return !closed;
+    }
+    
+    void markClosed() {
+        closed = true;
+    }
+    
+    public void close() {
+        if (!closed) {
+            closed = true;
+            socket.close();
+        }
+    }
+    
+    public String getAddress() {
+        return address;
+    }
+    
+    public NetSocket getSocket() {
+        return socket;
+    }
+    
+    public RpcWriteBatcher getWriter() {
+        return writer;
+    }
+    
+    public Set<Long> getPendingRequests() {
+        return pendingRequests;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.rpc.client.impl;
+
+import com.example.rpc.model.RpcMessage;
+import com.example.rpc.protocol.RpcFrameParser;
+import com.example.rpc.protocol.RpcWriteBatcher;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetClient;
+import io.vertx.core.net.NetSocket;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 客户端连接池
+ * 每个服务地址维护固定数量的长连接，请求在这些连接上轮流复用，空闲连接定期回收
+ */
+@Slf4j
+public class RpcConnectionPool {
+    
+    private final Vertx vertx;
+    private final NetClient netClient;
+    private final int maxConnectionsPerHost;
+    private final long idleTimeout;
+    private final int batchMaxBytes;
+    private final long batchDelayMs;
+    private final ConnectionListener listener;
+    
+    /**
+     * 地址到连接组的映射
+     */
+    private final Map<String, ConnectionGroup> groups = new ConcurrentHashMap<>();
+    
+    private long idleCheckTimerId = -1;
+    
+    public RpcConnectionPool(Vertx vertx, NetClient netClient, int maxConnectionsPerHost, long idleTimeout,
+                             int batchMaxBytes, long batchDelayMs, ConnectionListener listener) {
+        this.vertx = vertx;
+        this.netClient = netClient;
+        this.maxConnectionsPerHost = Math.max(1, maxConnectionsPerHost);
+        this.idleTimeout = idleTimeout;
+        this.batchMaxBytes = batchMaxBytes;
+        this.batchDelayMs = batchDelayMs;
+        this.listener = listener;
+        
+        if (idleTimeout > 0) {
+            this.idleCheckTimerId = vertx.setPeriodic(Math.max(1000, idleTimeout / 2), id -> evictIdleConnections());
+        }
+    }
+    
+    /**
+     * 获取到指定地址的连接，连接不存在或已关闭时新建
+     */
+    public CompletableFuture<RpcConnection> acquire(String host, int port) {
+        String address = host + ":" + port;
+        ConnectionGroup group = groups.computeIfAbsent(address, k -> new ConnectionGroup(host, port));
+        return group.acquire();
+    }
+    
+    /**
+     * 关闭所有连接
+     */
+    public void close() {
+        if (idleCheckTimerId != -1) {
+            vertx.cancelTimer(idleCheckTimerId);
+        }
+        for (ConnectionGroup group : groups.values()) {
+            group.closeAll();
+        }
+        groups.clear();
+    }
+    
+    /**
+     * 回收空闲连接
+     */
+    private void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        for (ConnectionGroup group : groups.values()) {
+            group.evictIdle(now);
+        }
+    }
+    
+    /**
+     * 同一地址下的一组连接
+     */
+    private class ConnectionGroup {
+        private final String host;
+        private final int port;
+        private final String address;
+        private final AtomicReferenceArray<CompletableFuture<RpcConnection>> slots;
+        private final AtomicInteger next = new AtomicInteger();
+        
+        ConnectionGroup(String host, int port) {
+            this.host = host;
+            this.port = port;
+            this.address = host + ":" + port;
+            this.slots = new AtomicReferenceArray<>(maxConnectionsPerHost);
+        }
+        
+        CompletableFuture<RpcConnection> acquire() {
+            int index = (next.getAndIncrement() & Integer.MAX_VALUE) % slots.length();
+            while (true) {
+                CompletableFuture<RpcConnection> current = slots.get(index);
+                if (current != null && !isBroken(current)) {
+                    return current;
+                }
+                CompletableFuture<RpcConnection> created = new CompletableFuture<>();
+                if (slots.compareAndSet(index, current, created)) {
+                    connect(index, created);
+                    return created;
+                }
+            }
+        }
+        
+        private boolean isBroken(CompletableFuture<RpcConnection> future) {
+            if (!future.isDone()) {
+                return false;
+            }
+            if (future.isCompletedExceptionally()) {
+                return true;
+            }
+            return !future.join().isActive();
+        }
+        
+        private void connect(int index, CompletableFuture<RpcConnection> future) {
+            netClient.connect(port, host, result -> {
+                if (result.failed()) {
+                    log.error("Failed to connect to server: {}", address, result.cause());
+                    // 清空槽位，下次请求重新建立连接
+                    slots.compareAndSet(index, future, null);
+                    future.completeExceptionally(new RuntimeException("Failed to connect to server: " +
+                            address + ", " + result.cause().getMessage(), result.cause()));
+                    return;
+                }
+                
+                NetSocket socket = result.result();
+                // 连接回调运行在该连接所属的事件循环上
+                RpcWriteBatcher writer = new RpcWriteBatcher(vertx.getOrCreateContext(), socket,
+                        batchMaxBytes, batchDelayMs);
+                RpcConnection connection = new RpcConnection(address, socket, writer);
+                
+                socket.handler(new RpcFrameParser(frame -> listener.onFrame(connection, frame), ex -> {
+                    log.error("Invalid response frame from {}, closing connection", address, ex);
+                    connection.close();
+                }));
+                
+                socket.exceptionHandler(ex -> log.error("Connection error: {}", address, ex));
+                
+                socket.closeHandler(v -> {
+                    connection.markClosed();
+                    slots.compareAndSet(index, future, null);
+                    log.debug("Connection closed: {}", address);
+                    listener.onClose(connection);
+                });
+                
+                log.debug("Connection established: {}", address);
+                future.complete(connection);
+            });
+        }
+        
+        void evictIdle(long now) {
+            for (int i = 0; i < slots.length(); i++) {
+                CompletableFuture<RpcConnection> future = slots.get(i);
+                if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+                    continue;
+                }
+                RpcConnection connection = future.join();
+                if (connection.isIdle(now, idleTimeout) && slots.compareAndSet(i, future, null)) {
+                    log.debug("Closing idle connection: {}", address);
+                    connection.close();
+                }
+            }
+        }
+        
+        void closeAll() {
+            for (int i = 0; i < slots.length(); i++) {
+                CompletableFuture<RpcConnection> future = slots.getAndSet(i, null);
+                if (future != null && future.isDone() && !future.isCompletedExceptionally()) {
+                    future.join().close();
+                }
+            }
+        }
+    }
+    
+    /**
+     * 连接事件监听器
+     */
+    public interface ConnectionListener {
+        
+        /**
+         * 收到一帧完整的响应
+         */
+        void onFrame(RpcConnection connection, RpcMessage<Buffer> frame);
+        
+        /**
+         * 连接关闭
+         */
+        void onClose(RpcConnection connection);
+    }
+}
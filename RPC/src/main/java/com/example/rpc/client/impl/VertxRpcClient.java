@@ -1,46 +1,98 @@
 package com.example.rpc.client.impl;
 
 import com.example.rpc.client.RpcClient;
+import com.example.rpc.compress.Compressor;
+import com.example.rpc.compress.CompressorFactory;
+import com.example.rpc.config.RpcProperties;
 import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.exception.RpcException;
+import com.example.rpc.exception.ServerOverloadedException;
+import com.example.rpc.loadbalance.InvocationStats;
+import com.example.rpc.loadbalance.LoadBalancer;
+import com.example.rpc.loadbalance.LoadBalancerFactory;
+import com.example.rpc.model.RpcMessage;
+import com.example.rpc.model.RpcMessageHeader;
 import com.example.rpc.model.RpcRequest;
 import com.example.rpc.model.RpcResponse;
+import com.example.rpc.protocol.RpcMessageCodec;
 import com.example.rpc.registry.RegistryFactory;
 import com.example.rpc.registry.ServiceRegistry;
-import com.example.rpc.registry.ServiceRegistryInfo;
 import com.example.rpc.serializer.Serializer;
 import com.example.rpc.serializer.SerializerFactory;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.net.NetClient;
-import io.vertx.core.net.NetSocket;
 import lombok.extern.slf4j.Slf4j;
 
+import java.lang.reflect.Type;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 基于Vertx的RPC客户端实现
+ * 每个服务地址复用连接池中的长连接，同一连接上的多个请求通过协议头中的请求ID区分响应
  */
 @Slf4j
 public class VertxRpcClient implements RpcClient {
     
+    /**
+     * 超时时间轮的刻度（毫秒）和槽数，一圈覆盖约5秒，更长的超时会多转几圈
+     */
+    private static final long TIMER_TICK_MS = 10;
+    private static final int TIMER_WHEEL_SIZE = 512;
+    
     private Vertx vertx;
     private NetClient netClient;
+    private RpcConnectionPool connectionPool;
+    
+    /**
+     * 所有请求共用的超时时间轮，添加和取消超时任务都是O(1)
+     */
+    private HashedWheelTimer timeoutTimer;
+    
+    /**
+     * 集群调用器，负责服务发现、负载均衡、重试和容错
+     */
+    private ClusterInvoker clusterInvoker;
     private final Serializer serializer;
+    
+    /**
+     * 请求压缩器，为null时不压缩，也不接收压缩的响应
+     */
+    private final Compressor compressor;
+    private final int compressionThreshold;
     private final ServiceRegistry registry;
+    private final LoadBalancer loadBalancer;
+    private final RpcProperties properties;
     
-    private long timeout = RpcConstant.DEFAULT_TIMEOUT; // 默认超时时间
+    private long timeout; // 超时时间
     private boolean initialized = false;
     
     // 用于存储请求和对应的CompletableFuture
-    private final Map<String, CompletableFuture<RpcResponse>> requestMap = new ConcurrentHashMap<>();
+    private final Map<Long, ResponseFuture> requestMap = new ConcurrentHashMap<>();
+    
+    // 请求ID生成器
+    private final AtomicLong requestIdGenerator = new AtomicLong();
     
     public VertxRpcClient() {
-        this.serializer = SerializerFactory.getDefaultSerializer();
-        this.registry = RegistryFactory.getRegistry();
+        this(new RpcProperties(), RegistryFactory.getRegistry());
+    }
+    
+    public VertxRpcClient(RpcProperties properties, ServiceRegistry registry) {
+        this.properties = properties;
+        this.serializer = SerializerFactory.getSerializer(properties.getSerializer());
+        this.compressor = CompressorFactory.getCompressor(properties.getCompressor());
+        this.compressionThreshold = properties.getCompressionThreshold();
+        this.registry = registry;
+        this.loadBalancer = LoadBalancerFactory.getLoadBalancer(properties.getLoadBalancer());
+        this.timeout = properties.getTimeout();
     }
     
     @Override
@@ -52,6 +104,25 @@ public class VertxRpcClient implements RpcClient {
         try {
             this.vertx = Vertx.vertx();
             this.netClient = vertx.createNetClient();
+            this.timeoutTimer = new HashedWheelTimer(new DefaultThreadFactory("rpc-timeout-timer", true),
+                    TIMER_TICK_MS, TimeUnit.MILLISECONDS, TIMER_WHEEL_SIZE);
+            this.clusterInvoker = new ClusterInvoker(properties, registry, loadBalancer, timeoutTimer,
+                    (request, serviceInfo, attemptTimeout) ->
+                            sendRequestToAddress(request, serviceInfo.getAddress(), attemptTimeout));
+            this.connectionPool = new RpcConnectionPool(vertx, netClient,
+                    properties.getMaxConnectionsPerHost(), properties.getConnectionIdleTimeout(),
+                    properties.getBatchMaxBytes(), properties.getBatchDelayMs(),
+                    new RpcConnectionPool.ConnectionListener() {
+                        @Override
+                        public void onFrame(RpcConnection connection, RpcMessage<Buffer> frame) {
+                            handleResponse(connection, frame);
+                        }
+                        
+                        @Override
+                        public void onClose(RpcConnection connection) {
+                            handleConnectionClosed(connection);
+                        }
+                    });
             this.initialized = true;
             log.info("Vertx RPC client initialized successfully");
         } catch (Exception e) {
@@ -62,190 +133,157 @@ public class VertxRpcClient implements RpcClient {
     
     @Override
     public CompletableFuture<RpcResponse> sendRequest(RpcRequest request) {
-        // 从注册中心获取服务地址
-        ServiceRegistryInfo serviceInfo = registry.discover(
-                request.getServiceName(), request.getVersion(), request.getGroup());
-        
-        if (serviceInfo == null) {
-            CompletableFuture<RpcResponse> failedFuture = new CompletableFuture<>();
-            failedFuture.completeExceptionally(
-                    new RuntimeException("Service not found: " + request.getServiceName() + 
-                            ", version: " + request.getVersion() + 
-                            ", group: " + request.getGroup()));
-            return failedFuture;
-        }
-        
-        String address = serviceInfo.getAddress();
-        return sendRequestToAddress(request, address);
+        // 从注册中心获取服务地址，由负载均衡器选择实例，失败时按重试和容错策略处理
+        return clusterInvoker.invoke(request, request.getTimeout() > 0 ? request.getTimeout() : timeout);
     }
     
-    private CompletableFuture<RpcResponse> sendRequestToAddress(RpcRequest request, String address) {
-        CompletableFuture<RpcResponse> future = new CompletableFuture<>();
-        String requestId = request.getRequestId();
+    @Override
+    public CompletableFuture<RpcResponse> sendRequest(String host, int port, RpcRequest request) {
+        return sendRequest(host, port, request, request.getTimeout() > 0 ? request.getTimeout() : timeout);
+    }
+    
+    private CompletableFuture<RpcResponse> sendRequest(String host, int port, RpcRequest request, long requestTimeout) {
+        ResponseFuture future = new ResponseFuture(request.getReturnType());
+        
+        // 协议头中的请求ID，用于在连接上关联响应
+        long requestId = requestIdGenerator.incrementAndGet();
+        if (request.getRequestId() == null) {
+            request.setRequestId(String.valueOf(requestId));
+        }
         
         // 存储请求
         requestMap.put(requestId, future);
         
+        // 设置超时处理，请求先结束时取消超时任务
+        Timeout timeoutTask = timeoutTimer.newTimeout(t -> completeExceptionally(requestId,
+                new TimeoutException("Request timeout after " + requestTimeout + "ms")),
+                requestTimeout, TimeUnit.MILLISECONDS);
+        future.whenComplete((response, error) -> timeoutTask.cancel());
+        
+        Buffer buffer;
+        try {
+            RpcMessageHeader header = RpcMessageCodec.buildHeader(RpcConstant.MESSAGE_TYPE_REQUEST,
+                    serializer.getType(), RpcConstant.MESSAGE_STATUS_OK, requestId);
+            buffer = RpcMessageCodec.encode(RpcMessageCodec.buildMessage(header, request),
+                    compressor, compressionThreshold);
+        } catch (Exception e) {
+            log.error("Failed to encode request: {}", requestId, e);
+            completeExceptionally(requestId, e);
+            return future;
+        }
+        
+        // 从连接池获取连接并发送请求
+        writeRequest(host, port, requestId, buffer, future, true);
+        return future;
+    }
+    
+    /**
+     * 在连接池的连接上写出请求
+     * 连接在获取之后、写出之前被关闭时重新获取一次，仍然失败则立即让请求失败，而不是等到超时
+     */
+    private void writeRequest(String host, int port, long requestId, Buffer buffer, ResponseFuture future,
+                              boolean reacquire) {
+        connectionPool.acquire(host, port).whenComplete((connection, ex) -> {
+            if (ex != null) {
+                completeExceptionally(requestId, ex);
+                return;
+            }
+            if (future.isDone()) {
+                return;
+            }
+            
+            if (!connection.write(requestId, buffer)) {
+                if (reacquire) {
+                    writeRequest(host, port, requestId, buffer, future, false);
+                } else {
+                    completeExceptionally(requestId,
+                            new RpcException("Connection closed before sending request: " + connection.getAddress()));
+                }
+                return;
+            }
+            // 请求结束后从连接的未完成列表中移除
+            future.whenComplete((response, error) -> connection.complete(requestId));
+        });
+    }
+    
+    private CompletableFuture<RpcResponse> sendRequestToAddress(RpcRequest request, String address, long requestTimeout) {
         // 解析地址
         String[] parts = address.split(":");
         if (parts.length != 2) {
+            CompletableFuture<RpcResponse> future = new CompletableFuture<>();
             future.completeExceptionally(new IllegalArgumentException("Invalid address format: " + address));
-            requestMap.remove(requestId);
             return future;
         }
         
-        String host = parts[0];
-        int port = Integer.parseInt(parts[1]);
-        
-        try {
-            // 连接服务端并发送请求
-            netClient.connect(port, host, connect -> {
-                if (connect.failed()) {
-                    log.error("Failed to connect to server: {}:{}", host, port, connect.cause());
-                    future.completeExceptionally(new RuntimeException("Failed to connect to server: " + 
-                            connect.cause().getMessage()));
-                    requestMap.remove(requestId);
-                    return;
-                }
-                
-                NetSocket socket = connect.result();
-                
-                // 处理响应
-                socket.handler(buffer -> {
-                    try {
-                        handleResponse(buffer, requestId);
-                    } catch (Exception e) {
-                        log.error("Failed to handle response for request: {}", requestId, e);
-                        future.completeExceptionally(e);
-                        requestMap.remove(requestId);
-                    } finally {
-                        socket.close();
-                    }
-                });
-                
-                // 处理连接关闭
-                socket.closeHandler(v -> {
-                    // 连接关闭但没有收到响应，标记为失败
-                    CompletableFuture<RpcResponse> pendingFuture = requestMap.remove(requestId);
-                    if (pendingFuture != null && !pendingFuture.isDone()) {
-                        pendingFuture.completeExceptionally(
-                                new RuntimeException("Connection closed before receiving response"));
-                    }
-                });
-                
-                // 序列化并发送请求
-                try {
-                    byte[] requestBytes = serializer.serialize(request);
-                    Buffer buffer = Buffer.buffer();
-                    // 添加魔术数字
-                    buffer.appendByte(RpcConstant.MAGIC_NUMBER);
-                    // 添加版本号
-                    buffer.appendByte(RpcConstant.VERSION);
-                    // 添加消息类型
-                    buffer.appendByte(RpcConstant.MESSAGE_TYPE_REQUEST);
-                    // 添加请求体长度
-                    buffer.appendInt(requestBytes.length);
-                    // 添加请求体
-                    buffer.appendBytes(requestBytes);
-                    
-                    socket.write(buffer);
-                    
-                    // 设置超时处理
-                    vertx.setTimer(timeout, timerId -> {
-                        CompletableFuture<RpcResponse> timeoutFuture = requestMap.remove(requestId);
-                        if (timeoutFuture != null && !timeoutFuture.isDone()) {
-                            timeoutFuture.completeExceptionally(
-                                    new TimeoutException("Request timeout after " + timeout + "ms"));
-                        }
-                        socket.close();
-                    });
-                    
-                } catch (Exception e) {
-                    log.error("Failed to send request: {}", requestId, e);
-                    future.completeExceptionally(e);
-                    requestMap.remove(requestId);
-                    socket.close();
-                }
-            });
-        } catch (Exception e) {
-            log.error("Error sending request: {}", requestId, e);
-            future.completeExceptionally(e);
-            requestMap.remove(requestId);
-        }
-        
+        // 记录该地址的未完成请求数和响应时间，供负载均衡器参考
+        InvocationStats stats = InvocationStats.of(address);
+        long startNanos = stats.begin();
+        CompletableFuture<RpcResponse> future = sendRequest(parts[0], Integer.parseInt(parts[1]), request, requestTimeout);
+        future.whenComplete((response, error) -> stats.end(startNanos, error == null));
         return future;
     }
     
-    private void handleResponse(Buffer buffer, String requestId) {
-        // 检查头部信息
-        if (buffer.length() < RpcConstant.HEADER_LENGTH) {
-            log.error("Invalid response header length: {}", buffer.length());
-            completeWithError(requestId, "Invalid response header");
+    /**
+     * 处理连接上收到的一帧响应，通过协议头中的请求ID找到对应的请求
+     */
+    private void handleResponse(RpcConnection connection, RpcMessage<Buffer> frame) {
+        RpcMessageHeader header = frame.getHeader();
+        
+        // 版本不匹配时无法确定后续帧的边界，关闭连接，连接上未完成的请求随之失败
+        if (header.getVersion() != RpcConstant.VERSION) {
+            log.error("Unsupported protocol version from {}: expected {}, got {}, closing connection",
+                    connection.getAddress(), RpcConstant.VERSION, header.getVersion());
+            connection.close();
             return;
         }
         
-        // 验证魔术数字
-        byte magicNumber = buffer.getByte(0);
-        if (magicNumber != RpcConstant.MAGIC_NUMBER) {
-            log.error("Invalid magic number: {}", magicNumber);
-            completeWithError(requestId, "Invalid magic number");
+        // 验证消息类型
+        if (header.getMessageType() != RpcConstant.MESSAGE_TYPE_RESPONSE) {
+            log.error("Invalid message type: {}", header.getMessageType());
             return;
         }
         
-        // 检查版本号
-        byte version = buffer.getByte(1);
-        if (version != RpcConstant.VERSION) {
-            log.warn("Version mismatch: expected {}, got {}", RpcConstant.VERSION, version);
+        // 已超时或未知的请求直接丢弃，不需要反序列化消息体
+        long requestId = header.getRequestId();
+        ResponseFuture future = requestMap.remove(requestId);
+        if (future == null) {
+            log.debug("Received response for unknown or expired request: {}", requestId);
+            return;
         }
         
-        // 验证消息类型
-        byte messageType = buffer.getByte(2);
-        if (messageType != RpcConstant.MESSAGE_TYPE_RESPONSE) {
-            log.error("Invalid message type: {}", messageType);
-            completeWithError(requestId, "Invalid message type");
+        if (header.getStatusCode() == RpcConstant.MESSAGE_STATUS_OVERLOADED) {
+            future.completeExceptionally(new ServerOverloadedException("Server overloaded, request rejected: " + requestId));
             return;
         }
-        
-        // 读取响应体长度
-        int bodyLength = buffer.getInt(4);
-        
-        // 检查完整响应
-        if (buffer.length() < RpcConstant.HEADER_LENGTH + bodyLength) {
-            log.error("Incomplete response: received {}, expected {}", 
-                    buffer.length(), RpcConstant.HEADER_LENGTH + bodyLength);
-            completeWithError(requestId, "Incomplete response");
+        if (header.getStatusCode() != RpcConstant.MESSAGE_STATUS_OK) {
+            future.completeExceptionally(new RpcException(
+                    "Server returned status " + header.getStatusCode() + " for request: " + requestId));
             return;
         }
         
-        // 提取响应体
-        byte[] responseBytes = buffer.getBytes(RpcConstant.HEADER_LENGTH, 
-                RpcConstant.HEADER_LENGTH + bodyLength);
-        
         try {
             // 反序列化响应
-            RpcResponse response = serializer.deserialize(responseBytes, RpcResponse.class);
-            response.setRequestId(requestId);
-            
-            // 完成请求
-            CompletableFuture<RpcResponse> future = requestMap.remove(requestId);
-            if (future != null) {
-                future.complete(response);
-            }
+            future.complete(RpcMessageCodec.decodeResponse(header, frame.getBody(), future.returnType));
         } catch (Exception e) {
             log.error("Failed to deserialize response for request: {}", requestId, e);
-            completeWithError(requestId, "Failed to deserialize response: " + e.getMessage());
+            future.completeExceptionally(e);
         }
     }
     
-    private void completeWithError(String requestId, String errorMessage) {
-        CompletableFuture<RpcResponse> future = requestMap.remove(requestId);
+    /**
+     * 连接关闭，该连接上所有未完成的请求都标记为失败
+     */
+    private void handleConnectionClosed(RpcConnection connection) {
+        for (Long requestId : connection.getPendingRequests()) {
+            completeExceptionally(requestId,
+                    new RpcException("Connection closed before receiving response: " + connection.getAddress()));
+        }
+    }
+    
+    private void completeExceptionally(long requestId, Throwable cause) {
+        ResponseFuture future = requestMap.remove(requestId);
         if (future != null && !future.isDone()) {
-            RpcResponse errorResponse = RpcResponse.builder()
-                    .requestId(requestId)
-                    .status(RpcConstant.RESPONSE_STATUS_ERROR)
-                    .message(errorMessage)
-                    .build();
-            future.complete(errorResponse);
+            future.completeExceptionally(cause);
         }
     }
     
@@ -257,7 +295,7 @@ public class VertxRpcClient implements RpcClient {
         
         try {
             // 取消所有未完成的请求
-            for (Map.Entry<String, CompletableFuture<RpcResponse>> entry : requestMap.entrySet()) {
+            for (Map.Entry<Long, ResponseFuture> entry : requestMap.entrySet()) {
                 CompletableFuture<RpcResponse> future = entry.getValue();
                 if (!future.isDone()) {
                     future.cancel(true);
@@ -265,6 +303,16 @@ public class VertxRpcClient implements RpcClient {
             }
             requestMap.clear();
             
+            // 关闭连接池中的所有连接
+            if (connectionPool != null) {
+                connectionPool.close();
+            }
+            
+            // 停止超时时间轮
+            if (timeoutTimer != null) {
+                timeoutTimer.stop();
+            }
+            
             // 关闭网络客户端
             if (netClient != null) {
                 netClient.close();
@@ -296,4 +344,16 @@ public class VertxRpcClient implements RpcClient {
     public boolean isInitialized() {
         return initialized;
     }
-}
\ No newline at end of file
+    
+    /**
+     * 等待响应的请求，记录返回值的声明类型，收到响应时按该类型反序列化响应数据
+     */
+    private static class ResponseFuture extends CompletableFuture<RpcResponse> {
+        
+        private final Type returnType;
+        
+        ResponseFuture(Type returnType) {
+            this.returnType = returnType;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.rpc.compress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 消息体压缩器接口
+ * 压缩和解压都以流的方式进行，解压流直接交给序列化器读取，不需要先解压到完整的字节数组
+ */
+public interface Compressor {
+    
+    /**
+     * 包装输出流，写入的数据压缩后写到目标流，关闭返回的流时写出剩余数据并关闭目标流
+     */
+    OutputStream compress(OutputStream out) throws IOException;
+    
+    /**
+     * 包装输入流，从返回的流中读取解压后的数据
+     */
+    InputStream decompress(InputStream in) throws IOException;
+    
+    /**
+     * 获取压缩器类型，写在协议头中，取值1~127
+     */
+    byte getType();
+    
+    /**
+     * 获取压缩器名称
+     */
+    String getName();
+}
@@ -0,0 +1,70 @@
+package com.example.rpc.compress;
+
+import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.spi.SpiLoader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 压缩器工厂
+ */
+@Slf4j
+public class CompressorFactory {
+    
+    /**
+     * 压缩器映射缓存
+     */
+    private static final Map<String, Compressor> COMPRESSOR_MAP = new ConcurrentHashMap<>();
+    
+    /**
+     * 类型到压缩器的映射
+     */
+    private static final Map<Byte, Compressor> TYPE_TO_COMPRESSOR_MAP = new ConcurrentHashMap<>();
+    
+    static {
+        // 通过SPI加载所有压缩器实现
+        loadCompressors();
+    }
+    
+    /**
+     * 加载压缩器实现
+     */
+    private static void loadCompressors() {
+        try {
+            SpiLoader<Compressor> loader = SpiLoader.getInstance(Compressor.class);
+            for (String key : loader.getAllKeys()) {
+                Compressor compressor = loader.getInstance(key);
+                COMPRESSOR_MAP.put(key, compressor);
+                TYPE_TO_COMPRESSOR_MAP.put(compressor.getType(), compressor);
+                log.info("Loaded compressor: {}", key);
+            }
+        } catch (Exception e) {
+            log.error("Failed to load compressors", e);
+        }
+    }
+    
+    /**
+     * 获取压缩器
+     * @return 压缩器，名称为none或为空时返回null，表示不压缩
+     */
+    public static Compressor getCompressor(String name) {
+        if (name == null || name.isEmpty() || RpcConstant.COMPRESSOR_NONE.equals(name)) {
+            return null;
+        }
+        Compressor compressor = COMPRESSOR_MAP.get(name);
+        if (compressor == null) {
+            throw new IllegalArgumentException("Unknown compressor: " + name);
+        }
+        return compressor;
+    }
+    
+    /**
+     * 根据类型获取压缩器
+     * @return 压缩器，类型未知时返回null
+     */
+    public static Compressor getCompressorByType(byte type) {
+        return TYPE_TO_COMPRESSOR_MAP.get(type);
+    }
+}
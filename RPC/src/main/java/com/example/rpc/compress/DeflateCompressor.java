@@ -0,0 +1,61 @@
+package com.example.rpc.compress;
+
+import com.example.rpc.constant.RpcConstant;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Deflate压缩器实现
+ * 使用JDK自带的zlib，以最快速度级别压缩，不依赖本地库，适合对CPU敏感的场景
+ */
+public class DeflateCompressor implements Compressor {
+    
+    private static final int BUFFER_SIZE = 8192;
+    
+    @Override
+    public OutputStream compress(OutputStream out) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        return new DeflaterOutputStream(out, deflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    // 自定义的Deflater不会被流关闭，需要手动释放本地内存
+                    deflater.end();
+                }
+            }
+        };
+    }
+    
+    @Override
+    public InputStream decompress(InputStream in) {
+        Inflater inflater = new Inflater(true);
+        return new InflaterInputStream(in, inflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+    
+    @Override
+    public byte getType() {
+        return 0x01; // Deflate压缩器类型标识
+    }
+    
+    @Override
+    public String getName() {
+        return RpcConstant.COMPRESSOR_DEFLATE;
+    }
+}
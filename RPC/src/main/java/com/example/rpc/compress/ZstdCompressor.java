@@ -0,0 +1,41 @@
+package com.example.rpc.compress;
+
+import com.example.rpc.constant.RpcConstant;
+import com.github.luben.zstd.ZstdInputStreamNoFinalizer;
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Zstandard压缩器实现
+ * 压缩率明显高于Deflate，速度接近，适合大的JSON响应；使用zstd-jni本地库
+ */
+public class ZstdCompressor implements Compressor {
+    
+    /**
+     * 压缩级别，1~3在速度和压缩率之间比较均衡
+     */
+    private static final int LEVEL = 1;
+    
+    @Override
+    public OutputStream compress(OutputStream out) throws IOException {
+        return new ZstdOutputStreamNoFinalizer(out, LEVEL);
+    }
+    
+    @Override
+    public InputStream decompress(InputStream in) throws IOException {
+        return new ZstdInputStreamNoFinalizer(in);
+    }
+    
+    @Override
+    public byte getType() {
+        return 0x02; // Zstd压缩器类型标识
+    }
+    
+    @Override
+    public String getName() {
+        return RpcConstant.COMPRESSOR_ZSTD;
+    }
+}
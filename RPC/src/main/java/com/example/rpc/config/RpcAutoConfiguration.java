@@ -2,6 +2,9 @@ package com.example.rpc.config;
 
 import com.example.rpc.annotation.RpcReference;
 import com.example.rpc.annotation.RpcService;
+import com.example.rpc.client.RpcClient;
+import com.example.rpc.client.RpcClientFactory;
+import com.example.rpc.proxy.ReferenceConfig;
 import com.example.rpc.proxy.ServiceProxyFactory;
 import com.example.rpc.registry.RegistryFactory;
 import com.example.rpc.registry.ServiceRegistry;
@@ -38,48 +41,44 @@ public class RpcAutoConfiguration {
      */
     private final Map<String, Object> serviceMap = new ConcurrentHashMap<>();
     
+    /**
+     * 创建RPC客户端
+     */
+    @Bean
+    public RpcClient rpcClient(@Autowired ServiceRegistry registry) {
+        return RpcClientFactory.getInstance().createClient("vertx", properties, registry);
+    }
+    
     /**
      * 创建服务代理工厂
      */
     @Bean
-    public ServiceProxyFactory serviceProxyFactory() {
-        return new ServiceProxyFactory();
+    public ServiceProxyFactory serviceProxyFactory(@Autowired RpcClient rpcClient) {
+        return new ServiceProxyFactory(rpcClient);
     }
     
     /**
      * 创建注册中心实例
+     * 应用关闭时由Spring调用close，依赖注册中心的RPC服务器先于注册中心关闭
      */
-    @Bean
+    @Bean(destroyMethod = "close")
     public ServiceRegistry serviceRegistry() {
-        ServiceRegistry registry = RegistryFactory.createRegistry(
+        return RegistryFactory.createRegistry(
                 properties.getRegistryType(),
                 properties.getRegistryAddress());
-        
-        // 注册JVM关闭钩子，在应用关闭时注销服务
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            log.info("Shutting down RPC registry...");
-            registry.close();
-        }));
-        
-        return registry;
     }
     
     /**
      * 创建RPC服务器
+     * 应用关闭时由Spring调用shutdown：先注销服务、排空进行中的请求，之后注册中心才关闭
      */
-    @Bean
+    @Bean(destroyMethod = "shutdown")
     public RpcServer rpcServer(@Autowired ServiceRegistry registry) {
-        RpcServer server = new RpcServerImpl(properties.getServerPort(), registry, serviceMap);
+        RpcServer server = new RpcServerImpl(properties, registry, serviceMap);
         
         // 启动服务器
         server.start();
         
-        // 注册JVM关闭钩子，在应用关闭时停止服务器
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            log.info("Shutting down RPC server...");
-            server.shutdown();
-        }));
-        
         return server;
     }
     
@@ -104,12 +103,12 @@ public class RpcAutoConfiguration {
             public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
                 // 处理@RpcReference注解的字段
                 Class<?> beanClass = bean.getClass();
-                for (Field field : ReflectionUtils.getAllDeclaredFields(beanClass)) {
+                ReflectionUtils.doWithFields(beanClass, field -> {
                     RpcReference rpcReference = AnnotationUtils.getAnnotation(field, RpcReference.class);
                     if (rpcReference != null) {
                         injectReference(bean, field, rpcReference);
                     }
-                }
+                });
                 return bean;
             }
             
@@ -148,8 +147,7 @@ public class RpcAutoConfiguration {
                     }
                     
                     // 创建代理对象
-                    Object proxy = proxyFactory.createProxy(interfaceClass, 
-                            rpcReference.version(), rpcReference.group());
+                    Object proxy = proxyFactory.createProxy(interfaceClass, ReferenceConfig.from(rpcReference));
                     
                     // 设置字段可访问并注入代理
                     field.setAccessible(true);
@@ -61,6 +61,16 @@ public class RpcProperties {
      */
     private long retryInterval = RpcConstant.DEFAULT_RETRY_INTERVAL;
     
+    /**
+     * 重试令牌桶容量，每次失败消耗一个令牌，令牌数不超过容量的一半时停止重试
+     */
+    private int retryBudgetMaxTokens = RpcConstant.DEFAULT_RETRY_BUDGET_MAX_TOKENS;
+    
+    /**
+     * 每次成功调用归还的重试令牌数
+     */
+    private double retryBudgetTokenRatio = RpcConstant.DEFAULT_RETRY_BUDGET_TOKEN_RATIO;
+    
     /**
      * 心跳间隔（毫秒）
      */
@@ -71,6 +81,81 @@ public class RpcProperties {
      */
     private long leaseTtl = RpcConstant.DEFAULT_LEASE_TTL;
     
+    /**
+     * 请求超时时间（毫秒）
+     */
+    private long timeout = RpcConstant.DEFAULT_TIMEOUT;
+    
+    /**
+     * 客户端到每个服务地址的最大连接数
+     */
+    private int maxConnectionsPerHost = RpcConstant.DEFAULT_MAX_CONNECTIONS_PER_HOST;
+    
+    /**
+     * 客户端连接空闲超时时间（毫秒），超时后关闭连接
+     */
+    private long connectionIdleTimeout = RpcConstant.DEFAULT_CONNECTION_IDLE_TIMEOUT;
+    
+    /**
+     * 写合并的最大字节数，同一连接上积攒的请求或响应达到该大小时立即写出，0表示不合并
+     */
+    private int batchMaxBytes = RpcConstant.DEFAULT_BATCH_MAX_BYTES;
+    
+    /**
+     * 写合并的等待时间（毫秒），0表示在事件循环的下一轮写出
+     */
+    private long batchDelayMs = RpcConstant.DEFAULT_BATCH_DELAY_MS;
+    
+    /**
+     * 消息体压缩器：none、deflate、zstd，客户端压缩超过阈值的请求，服务端按请求协商的压缩器压缩响应
+     */
+    private String compressor = RpcConstant.DEFAULT_COMPRESSOR;
+    
+    /**
+     * 压缩阈值（字节），消息体超过该大小才压缩
+     */
+    private int compressionThreshold = RpcConstant.DEFAULT_COMPRESSION_THRESHOLD;
+    
+    /**
+     * 服务端默认请求分发模式：eventLoop、virtualThread、workerPool
+     */
+    private String dispatchMode = RpcConstant.DEFAULT_DISPATCH_MODE;
+    
+    /**
+     * 服务端工作线程数
+     */
+    private int workerThreads = RpcConstant.DEFAULT_WORKER_THREADS;
+    
+    /**
+     * 服务端工作线程池队列容量，队列满时拒绝请求
+     */
+    private int workerQueueCapacity = RpcConstant.DEFAULT_WORKER_QUEUE_CAPACITY;
+    
+    /**
+     * 服务端并发上限算法：fixed、gradient，gradient根据请求耗时在maxInFlightRequests以内自适应调整上限
+     */
+    private String admissionLimit = RpcConstant.DEFAULT_ADMISSION_LIMIT;
+    
+    /**
+     * 服务端最大并发请求数，超过时直接返回过载状态，0表示不限制
+     */
+    private int maxInFlightRequests = RpcConstant.DEFAULT_MAX_IN_FLIGHT_REQUESTS;
+    
+    /**
+     * 每个连接的最大未完成请求数，达到后暂停读取该连接，0表示不限制
+     */
+    private int maxInFlightPerConnection = RpcConstant.DEFAULT_MAX_IN_FLIGHT_PER_CONNECTION;
+    
+    /**
+     * 关闭服务器时从注册中心注销后等待的时间（毫秒），让客户端在停止接收请求前感知到实例下线
+     */
+    private long shutdownDeregisterDelay = RpcConstant.DEFAULT_SHUTDOWN_DEREGISTER_DELAY;
+    
+    /**
+     * 关闭服务器时等待进行中请求完成的最长时间（毫秒）
+     */
+    private long shutdownTimeout = RpcConstant.DEFAULT_SHUTDOWN_TIMEOUT;
+    
     /**
      * 是否启用服务发现
      */
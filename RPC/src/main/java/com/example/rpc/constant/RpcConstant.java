@@ -12,7 +12,22 @@ public class RpcConstant {
     /**
      * 协议版本号
      */
-    public static final byte VERSION = 1;
+    public static final byte VERSION = 2;
+    
+    /**
+     * 协议头长度（魔数4 + 版本1 + 消息类型1 + 序列化类型1 + 状态1 + 压缩1 + 请求ID8 + 数据长度4）
+     */
+    public static final int HEADER_LENGTH = 21;
+    
+    /**
+     * 数据长度字段在协议头中的偏移量
+     */
+    public static final int BODY_LENGTH_OFFSET = 17;
+    
+    /**
+     * 单个消息体的最大长度（字节），超出视为非法帧
+     */
+    public static final int MAX_BODY_LENGTH = 16 * 1024 * 1024;
     
     /**
      * 默认主机名
@@ -24,6 +39,16 @@ public class RpcConstant {
      */
     public static final int DEFAULT_PORT = 8888;
     
+    /**
+     * 默认服务版本号
+     */
+    public static final String DEFAULT_VERSION = "1.0";
+    
+    /**
+     * 默认服务分组
+     */
+    public static final String DEFAULT_GROUP = "default";
+    
     /**
      * 默认序列化器类型
      */
@@ -64,6 +89,11 @@ public class RpcConstant {
      */
     public static final String REGISTRY_TYPE_NACOS = "nacos";
     
+    /**
+     * 注册中心类型 - 进程内存
+     */
+    public static final String REGISTRY_TYPE_LOCAL = "local";
+    
     /**
      * 服务注册前缀
      */
@@ -94,6 +124,16 @@ public class RpcConstant {
      */
     public static final int DEFAULT_MAX_RETRY_COUNT = 2;
     
+    /**
+     * 默认重试令牌桶容量，令牌数不超过容量的一半时停止重试
+     */
+    public static final int DEFAULT_RETRY_BUDGET_MAX_TOKENS = 10;
+    
+    /**
+     * 默认每次成功调用归还的重试令牌数，约等于允许的重试比例
+     */
+    public static final double DEFAULT_RETRY_BUDGET_TOKEN_RATIO = 0.1;
+    
     /**
      * 消息类型：请求
      */
@@ -109,6 +149,26 @@ public class RpcConstant {
      */
     public static final byte MESSAGE_TYPE_HEARTBEAT = 3;
     
+    /**
+     * 协议状态：正常
+     */
+    public static final byte MESSAGE_STATUS_OK = 0;
+    
+    /**
+     * 协议状态：请求无法解析
+     */
+    public static final byte MESSAGE_STATUS_BAD_REQUEST = 1;
+    
+    /**
+     * 协议状态：服务端处理异常
+     */
+    public static final byte MESSAGE_STATUS_SERVER_ERROR = 2;
+    
+    /**
+     * 协议状态：服务端过载，请求未被处理
+     */
+    public static final byte MESSAGE_STATUS_OVERLOADED = 3;
+    
     /**
      * JSON序列化器
      */
@@ -124,6 +184,21 @@ public class RpcConstant {
      */
     public static final String SERIALIZER_HESSIAN = "hessian";
     
+    /**
+     * 不压缩
+     */
+    public static final String COMPRESSOR_NONE = "none";
+    
+    /**
+     * Deflate压缩器
+     */
+    public static final String COMPRESSOR_DEFLATE = "deflate";
+    
+    /**
+     * Zstd压缩器
+     */
+    public static final String COMPRESSOR_ZSTD = "zstd";
+    
     /**
      * 轮询负载均衡器
      */
@@ -139,6 +214,11 @@ public class RpcConstant {
      */
     public static final String LOAD_BALANCER_CONSISTENT_HASH = "consistentHash";
     
+    /**
+     * 按未完成请求数和响应时间选择的P2C负载均衡器
+     */
+    public static final String LOAD_BALANCER_P2C = "p2c";
+    
     /**
      * 固定间隔重试策略
      */
@@ -159,11 +239,111 @@ public class RpcConstant {
      */
     public static final String TOLERANCE_STRATEGY_FAIL_FAST = "failFast";
     
+    /**
+     * 熔断容错策略
+     */
+    public static final String TOLERANCE_STRATEGY_CIRCUIT_BREAKER = "circuitBreaker";
+    
+    /**
+     * 请求分发模式：直接在事件循环线程上执行
+     */
+    public static final String DISPATCH_MODE_EVENT_LOOP = "eventLoop";
+    
+    /**
+     * 请求分发模式：每个请求一个虚拟线程（需要Java 21）
+     */
+    public static final String DISPATCH_MODE_VIRTUAL_THREAD = "virtualThread";
+    
+    /**
+     * 请求分发模式：有界工作线程池
+     */
+    public static final String DISPATCH_MODE_WORKER_POOL = "workerPool";
+    
+    /**
+     * 默认请求分发模式
+     */
+    public static final String DEFAULT_DISPATCH_MODE = DISPATCH_MODE_WORKER_POOL;
+    
+    /**
+     * 默认工作线程数
+     */
+    public static final int DEFAULT_WORKER_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+    
+    /**
+     * 默认工作线程池队列容量
+     */
+    public static final int DEFAULT_WORKER_QUEUE_CAPACITY = 1024;
+    
+    /**
+     * 服务端并发上限算法：固定上限
+     */
+    public static final String ADMISSION_LIMIT_FIXED = "fixed";
+    
+    /**
+     * 服务端并发上限算法：根据请求耗时自适应调整
+     */
+    public static final String ADMISSION_LIMIT_GRADIENT = "gradient";
+    
+    /**
+     * 默认服务端并发上限算法
+     */
+    public static final String DEFAULT_ADMISSION_LIMIT = ADMISSION_LIMIT_FIXED;
+    
+    /**
+     * 默认服务端最大并发请求数
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT_REQUESTS = 4096;
+    
+    /**
+     * 默认每个连接的最大未完成请求数，达到后暂停读取该连接
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT_PER_CONNECTION = 512;
+    
+    /**
+     * 默认关闭服务器时从注册中心注销后等待客户端感知的时间（毫秒）
+     */
+    public static final long DEFAULT_SHUTDOWN_DEREGISTER_DELAY = 2000;
+    
+    /**
+     * 默认关闭服务器时等待进行中请求完成的最长时间（毫秒）
+     */
+    public static final long DEFAULT_SHUTDOWN_TIMEOUT = 10000;
+    
     /**
      * 默认超时时间（毫秒）
      */
     public static final long DEFAULT_TIMEOUT = 5000;
     
+    /**
+     * 默认每个服务地址的最大连接数
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 2;
+    
+    /**
+     * 默认连接空闲超时时间（毫秒）
+     */
+    public static final long DEFAULT_CONNECTION_IDLE_TIMEOUT = 60000;
+    
+    /**
+     * 默认写合并的最大字节数，积攒的数据达到该大小时立即写出，0表示不合并
+     */
+    public static final int DEFAULT_BATCH_MAX_BYTES = 64 * 1024;
+    
+    /**
+     * 默认写合并的等待时间（毫秒），0表示在事件循环的下一轮写出
+     */
+    public static final long DEFAULT_BATCH_DELAY_MS = 0;
+    
+    /**
+     * 默认压缩器，默认不压缩
+     */
+    public static final String DEFAULT_COMPRESSOR = COMPRESSOR_NONE;
+    
+    /**
+     * 默认压缩阈值（字节），消息体超过该大小才压缩
+     */
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 16 * 1024;
+    
     /**
      * 默认虚拟节点数量
      */
@@ -188,4 +368,19 @@ public class RpcConstant {
      * 服务不可用响应码
      */
     public static final int RESPONSE_SERVICE_UNAVAILABLE = 503;
+    
+    /**
+     * 响应状态：成功
+     */
+    public static final int RESPONSE_STATUS_SUCCESS = RESPONSE_SUCCESS;
+    
+    /**
+     * 响应状态：服务端执行出错
+     */
+    public static final int RESPONSE_STATUS_ERROR = RESPONSE_ERROR;
+    
+    /**
+     * 响应状态：调用失败（容错处理后仍未成功）
+     */
+    public static final int RESPONSE_STATUS_FAILURE = RESPONSE_SERVICE_UNAVAILABLE;
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.example.rpc.exception;
+
+/**
+ * 服务端过载异常，请求被服务端拒绝且没有执行，可以安全地换到其他实例重试
+ */
+public class ServerOverloadedException extends RpcException {
+    public ServerOverloadedException(String message) {
+        super(message);
+    }
+}
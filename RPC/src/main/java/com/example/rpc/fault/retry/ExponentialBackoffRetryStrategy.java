@@ -1,15 +1,10 @@
 package com.example.rpc.fault.retry;
 
 import com.example.rpc.constant.RpcConstant;
-import lombok.extern.slf4j.Slf4j;
-
-import java.util.concurrent.Callable;
-import java.util.concurrent.TimeUnit;
 
 /**
  * 指数退避重试策略实现
  */
-@Slf4j
 public class ExponentialBackoffRetryStrategy implements RetryStrategy {
     
     private final int maxRetryCount;
@@ -28,37 +23,23 @@ public class ExponentialBackoffRetryStrategy implements RetryStrategy {
         this.maxIntervalMs = maxIntervalMs;
     }
     
+    /**
+     * 以配置的重试间隔为初始间隔按指数退避，再在[退避时间/2, 退避时间]之间随机取值
+     */
     @Override
-    public <T> T doRetry(Callable<T> callable) throws Exception {
-        Exception lastException = null;
-        
-        for (int i = 0; i <= maxRetryCount; i++) {
-            try {
-                if (i > 0) {
-                    log.info("Retrying call, attempt {}/{}", i, maxRetryCount);
-                    // 计算指数退避时间
-                    long sleepTime = calculateSleepTime(i);
-                    TimeUnit.MILLISECONDS.sleep(sleepTime);
-                }
-                
-                return callable.call();
-            } catch (Exception e) {
-                lastException = e;
-                long nextSleepTime = calculateSleepTime(i + 1);
-                log.warn("Call failed, will retry after {}ms: {}", nextSleepTime, e.getMessage());
-            }
-        }
-        
-        log.error("Max retries exceeded: {}", maxRetryCount);
-        throw lastException;
+    public long getRetryDelay(int attempt, long intervalMs) {
+        long delay = (long) (intervalMs * Math.pow(multiplier, attempt - 1));
+        return RetryStrategy.jitter(Math.min(delay, maxIntervalMs));
     }
     
-    /**
-     * 计算退避时间
-     */
-    private long calculateSleepTime(int attempt) {
-        long sleepTime = (long) (initialIntervalMs * Math.pow(multiplier, attempt - 1));
-        return Math.min(sleepTime, maxIntervalMs);
+    @Override
+    public int getMaxRetryCount() {
+        return maxRetryCount;
+    }
+    
+    @Override
+    public long getRetryInterval() {
+        return initialIntervalMs;
     }
     
     @Override
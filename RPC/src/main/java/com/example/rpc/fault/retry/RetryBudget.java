@@ -0,0 +1,78 @@
+package com.example.rpc.fault.retry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 重试令牌桶
+ * 每次失败消耗一个令牌，每次成功归还tokenRatio个令牌，令牌数不超过容量的一半时停止重试。
+ * 服务大面积故障时所有调用都失败，令牌很快耗尽，重试不会把故障放大成数倍的流量；
+ * 服务恢复后随着成功调用逐步恢复重试能力
+ */
+public class RetryBudget {
+    
+    /**
+     * 令牌以千分之一为单位保存，避免浮点运算
+     */
+    private static final int SCALE = 1000;
+    
+    private final int maxTokens;
+    private final int threshold;
+    private final int tokenRatio;
+    private final AtomicInteger tokens;
+    
+    /**
+     * @param maxTokens 令牌桶容量
+     * @param tokenRatio 每次成功归还的令牌数
+     */
+    public RetryBudget(int maxTokens, double tokenRatio) {
+        if (maxTokens <= 0 || tokenRatio < 0) {
+            throw new IllegalArgumentException("Invalid retry budget: maxTokens=" + maxTokens
+                    + ", tokenRatio=" + tokenRatio);
+        }
+        this.maxTokens = maxTokens * SCALE;
+        this.threshold = this.maxTokens / 2;
+        this.tokenRatio = (int) (tokenRatio * SCALE);
+        this.tokens = new AtomicInteger(this.maxTokens);
+    }
+    
+    /**
+     * 调用成功，归还令牌
+     */
+    public void onSuccess() {
+        int current;
+        do {
+            current = tokens.get();
+            // 令牌桶已满是常态，直接返回，不产生写竞争
+            if (current >= maxTokens) {
+                return;
+            }
+        } while (!tokens.compareAndSet(current, Math.min(maxTokens, current + tokenRatio)));
+    }
+    
+    /**
+     * 调用失败，消耗一个令牌
+     */
+    public void onFailure() {
+        int current;
+        do {
+            current = tokens.get();
+            if (current <= 0) {
+                return;
+            }
+        } while (!tokens.compareAndSet(current, Math.max(0, current - SCALE)));
+    }
+    
+    /**
+     * 是否还允许重试
+     */
+    public boolean canRetry() {
+        return tokens.get() > threshold;
+    }
+    
+    /**
+     * 获取当前令牌数
+     */
+    public double getTokens() {
+        return (double) tokens.get() / SCALE;
+    }
+}
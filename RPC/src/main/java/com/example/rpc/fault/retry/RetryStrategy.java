@@ -1,19 +1,46 @@
 package com.example.rpc.fault.retry;
 
-import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 重试策略接口
+ * 策略只决定重试次数和每次重试前的等待时间，重试由ClusterInvoker在时间轮上异步调度，不占用线程
  */
 public interface RetryStrategy {
     
     /**
-     * 执行带重试的操作
+     * 计算异步重试前的等待时间，用于客户端的集群调用，实现应加入随机抖动，避免大量调用方同时重试
+     * @param attempt 第几次重试，从1开始
+     * @param intervalMs 配置的重试间隔（毫秒）
+     * @return 等待时间（毫秒）
      */
-    <T> T doRetry(Callable<T> callable) throws Exception;
+    default long getRetryDelay(int attempt, long intervalMs) {
+        return jitter(intervalMs);
+    }
+    
+    /**
+     * 获取最大重试次数
+     */
+    int getMaxRetryCount();
+    
+    /**
+     * 获取重试间隔（毫秒）
+     */
+    long getRetryInterval();
     
     /**
      * 获取重试策略名称
      */
     String getName();
-}
\ No newline at end of file
+    
+    /**
+     * 在[delay/2, delay]之间随机取值，既保留退避的量级，又打散同时失败的调用方
+     */
+    static long jitter(long delayMs) {
+        if (delayMs <= 1) {
+            return delayMs;
+        }
+        long half = delayMs / 2;
+        return half + ThreadLocalRandom.current().nextLong(delayMs - half + 1);
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.rpc.fault.tolerance;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 单个服务地址的熔断器
+ * 用环形的时间桶统计最近一段时间的调用数、失败数和慢调用数，失败率或慢调用率超过阈值时打开熔断器；
+ * 打开一段时间后进入半开状态放行一个探测请求，探测成功则关闭，失败则重新打开。
+ * 统计和状态切换都只使用原子变量，不加锁
+ *
+ * 选择实例时用无副作用的isOpen过滤，只有最终选中的地址在发送前通过acquirePermit获取许可，
+ * 探测机会不会被没有选中的候选实例消耗。每次状态切换都会递增代数，许可携带获取时的代数，
+ * 结果回来时代数已经变化（如打开前发出的慢请求、超时后被新探测取代的旧探测）则不再计入
+ */
+public class CircuitBreaker {
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final long bucketNanos;
+    private final Bucket[] buckets;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+
+    /**
+     * 不允许发送请求时acquirePermit的返回值
+     */
+    public static final long NO_PERMIT = -1;
+
+    private final AtomicReference<Status> status = new AtomicReference<>(new Status(State.CLOSED, 0, 0));
+
+    /**
+     * @param windowMs 统计窗口长度（毫秒）
+     * @param bucketCount 窗口划分的桶数
+     * @param minimumCalls 窗口内调用数达到该值后才计算失败率
+     * @param failureRateThreshold 失败率阈值（百分比）
+     * @param slowCallRateThreshold 慢调用率阈值（百分比）
+     * @param slowCallMs 慢调用的响应时间阈值（毫秒）
+     * @param openMs 熔断器打开后等待多久进入半开状态（毫秒）
+     */
+    public CircuitBreaker(long windowMs, int bucketCount, int minimumCalls, int failureRateThreshold,
+                          int slowCallRateThreshold, long slowCallMs, long openMs) {
+        this.bucketNanos = TimeUnit.MILLISECONDS.toNanos(windowMs) / bucketCount;
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket();
+        }
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+    }
+
+    /**
+     * 熔断器当前是否拒绝请求，不改变状态，用于选择实例前的过滤
+     * 打开状态到期后（或半开状态的探测请求迟迟没有结果时）返回false，该地址可以被选中去探测
+     */
+    public boolean isOpen() {
+        Status current = status.get();
+        return current.state != State.CLOSED && System.nanoTime() - current.sinceNanos < openNanos;
+    }
+
+    /**
+     * 为即将发送的请求获取许可，只对最终选中的地址调用
+     * 关闭状态直接放行；打开状态到期后切换为半开状态并放行一个探测请求
+     * @return 许可的代数，结果回来时传给record；不允许发送时返回NO_PERMIT
+     */
+    public long acquirePermit() {
+        Status current = status.get();
+        if (current.state == State.CLOSED) {
+            return current.generation;
+        }
+        long now = System.nanoTime();
+        if (now - current.sinceNanos < openNanos) {
+            return NO_PERMIT;
+        }
+        // 只有切换成功的调用方成为探测请求
+        Status probe = new Status(State.HALF_OPEN, current.generation + 1, now);
+        return status.compareAndSet(current, probe) ? probe.generation : NO_PERMIT;
+    }
+
+    /**
+     * 记录一次调用结果，许可的代数与当前状态不一致时忽略
+     * @param permit acquirePermit返回的许可
+     * @param latencyNanos 调用耗时（纳秒）
+     * @param success 调用是否成功
+     */
+    public void record(long permit, long latencyNanos, boolean success) {
+        Status current = status.get();
+        if (current.generation != permit) {
+            return;
+        }
+        if (current.state == State.HALF_OPEN) {
+            if (success && latencyNanos < slowCallNanos) {
+                if (status.compareAndSet(current, new Status(State.CLOSED, permit + 1, System.nanoTime()))) {
+                    reset();
+                }
+            } else {
+                open(current);
+            }
+            return;
+        }
+        if (current.state == State.OPEN) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        Bucket bucket = currentBucket(now);
+        bucket.calls.incrementAndGet();
+        if (!success) {
+            bucket.failures.incrementAndGet();
+        }
+        if (latencyNanos >= slowCallNanos) {
+            bucket.slowCalls.incrementAndGet();
+        }
+
+        // 汇总窗口内未过期的桶
+        long epoch = now / bucketNanos;
+        long calls = 0;
+        long failures = 0;
+        long slowCalls = 0;
+        for (Bucket b : buckets) {
+            if (b.epoch.get() > epoch - buckets.length) {
+                calls += b.calls.get();
+                failures += b.failures.get();
+                slowCalls += b.slowCalls.get();
+            }
+        }
+        if (calls >= minimumCalls && (failures * 100 >= calls * failureRateThreshold
+                || slowCalls * 100 >= calls * slowCallRateThreshold)) {
+            open(current);
+        }
+    }
+
+    public State getState() {
+        return status.get().state;
+    }
+
+    private void open(Status from) {
+        status.compareAndSet(from, new Status(State.OPEN, from.generation + 1, System.nanoTime()));
+    }
+
+    private void reset() {
+        for (Bucket bucket : buckets) {
+            bucket.epoch.set(Long.MIN_VALUE);
+            bucket.clear();
+        }
+    }
+
+    /**
+     * 获取当前时间所在的桶，桶属于已经过去的一轮时重置后复用
+     */
+    private Bucket currentBucket(long now) {
+        long epoch = now / bucketNanos;
+        Bucket bucket = buckets[(int) Math.floorMod(epoch, (long) buckets.length)];
+        long bucketEpoch = bucket.epoch.get();
+        if (bucketEpoch != epoch && bucket.epoch.compareAndSet(bucketEpoch, epoch)) {
+            // 重置与并发写入之间可能丢失少量计数，对失败率的统计没有实质影响
+            bucket.clear();
+        }
+        return bucket;
+    }
+
+    /**
+     * 状态、代数和进入该状态（打开或放行探测请求）的时间，整体替换
+     */
+    private static final class Status {
+        final State state;
+        final long generation;
+        final long sinceNanos;
+
+        Status(State state, long generation, long sinceNanos) {
+            this.state = state;
+            this.generation = generation;
+            this.sinceNanos = sinceNanos;
+        }
+    }
+
+    /**
+     * 一个时间桶内的计数
+     */
+    private static final class Bucket {
+        final AtomicLong epoch = new AtomicLong(Long.MIN_VALUE);
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicInteger slowCalls = new AtomicInteger();
+
+        void clear() {
+            calls.set(0);
+            failures.set(0);
+            slowCalls.set(0);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.rpc.fault.tolerance;
+
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.model.RpcResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 熔断容错策略实现
+ * 为每个服务地址维护一个熔断器，失败率或慢调用率过高的地址在选择实例时被跳过，
+ * 调用失败时像故障转移一样切换到其他实例，熔断器到期后放行探测请求，恢复后重新参与负载均衡
+ */
+@Slf4j
+public class CircuitBreakerToleranceStrategy implements ToleranceStrategy {
+    
+    private final long windowMs;
+    private final int bucketCount;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallMs;
+    private final long openMs;
+    
+    /**
+     * 服务地址到熔断器的映射
+     */
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    
+    public CircuitBreakerToleranceStrategy() {
+        this(10000, 10, 20, 50, 80, 1000, 5000);
+    }
+    
+    public CircuitBreakerToleranceStrategy(long windowMs, int bucketCount, int minimumCalls, int failureRateThreshold,
+                                           int slowCallRateThreshold, long slowCallMs, long openMs) {
+        this.windowMs = windowMs;
+        this.bucketCount = bucketCount;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallMs = slowCallMs;
+        this.openMs = openMs;
+    }
+    
+    @Override
+    public boolean isAvailable(String address) {
+        CircuitBreaker breaker = breakers.get(address);
+        return breaker == null || !breaker.isOpen();
+    }
+    
+    @Override
+    public long acquire(String address) {
+        long permit = getBreaker(address).acquirePermit();
+        return permit != CircuitBreaker.NO_PERMIT ? permit : NO_PERMIT;
+    }
+    
+    @Override
+    public void onResult(String address, long permit, long latencyNanos, Throwable error) {
+        CircuitBreaker breaker = getBreaker(address);
+        CircuitBreaker.State before = breaker.getState();
+        breaker.record(permit, latencyNanos, error == null);
+        CircuitBreaker.State after = breaker.getState();
+        if (before != after) {
+            log.warn("Circuit breaker for {} changed from {} to {}", address, before, after);
+        }
+    }
+    
+    @Override
+    public boolean shouldFailOver(RpcRequest request, Throwable e) {
+        return true;
+    }
+    
+    @Override
+    public RpcResponse doTolerance(RpcRequest request, Throwable e) {
+        log.error("CircuitBreaker strategy triggered for request: {}.{} - {}",
+                request.getServiceName(), request.getMethodName(), e.getMessage());
+        return RpcResponse.failure(request.getRequestId(),
+                "Service call failed: " + e.getMessage());
+    }
+    
+    /**
+     * 获取地址对应的熔断器，不存在时创建
+     */
+    public CircuitBreaker getBreaker(String address) {
+        CircuitBreaker breaker = breakers.get(address);
+        return breaker != null ? breaker : breakers.computeIfAbsent(address, k -> new CircuitBreaker(windowMs,
+                bucketCount, minimumCalls, failureRateThreshold, slowCallRateThreshold, slowCallMs, openMs));
+    }
+    
+    @Override
+    public String getName() {
+        return "circuitBreaker";
+    }
+}
@@ -6,17 +6,22 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * 故障转移容错策略实现
+ * 调用失败时由集群调用器切换到其他实例重试，重试次数用完后返回失败响应
  */
 @Slf4j
 public class FailOverToleranceStrategy implements ToleranceStrategy {
     
+    @Override
+    public boolean shouldFailOver(RpcRequest request, Throwable e) {
+        return true;
+    }
+    
     @Override
     public RpcResponse doTolerance(RpcRequest request, Throwable e) {
         log.error("FailOver strategy triggered for request: {}.{} - {}", 
                 request.getServiceName(), request.getMethodName(), e.getMessage());
         
-        // 在实际实现中，这里应该尝试切换到其他服务实例
-        // 但由于我们没有服务实例列表，这里返回失败响应
+        // 所有实例都已尝试过，返回失败响应
         return RpcResponse.failure(request.getRequestId(), 
                 "Service call failed after failover: " + e.getMessage());
     }
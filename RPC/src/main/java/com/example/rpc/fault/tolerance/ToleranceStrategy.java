@@ -13,6 +13,43 @@ public interface ToleranceStrategy {
      */
     RpcResponse doTolerance(RpcRequest request, Throwable e);
     
+    /**
+     * 调用失败后是否换到其他实例重试，返回false时直接调用doTolerance
+     */
+    default boolean shouldFailOver(RpcRequest request, Throwable e) {
+        return false;
+    }
+    
+    /**
+     * 不允许向服务地址发送请求时acquire的返回值
+     */
+    long NO_PERMIT = -1;
+    
+    /**
+     * 服务地址当前是否可用，不可用的地址在负载均衡时被跳过
+     * 选择实例时会对多个候选地址调用，实现不能改变状态
+     */
+    default boolean isAvailable(String address) {
+        return true;
+    }
+    
+    /**
+     * 向选中的服务地址发送请求前获取许可
+     * @return 许可，请求结束后传给onResult；不允许发送时返回NO_PERMIT
+     */
+    default long acquire(String address) {
+        return 0;
+    }
+    
+    /**
+     * 每次向服务地址发送请求结束后回调
+     * @param permit acquire返回的许可
+     * @param latencyNanos 调用耗时（纳秒）
+     * @param error 调用失败的原因，成功时为null
+     */
+    default void onResult(String address, long permit, long latencyNanos, Throwable error) {
+    }
+    
     /**
      * 获取容错策略名称
      */
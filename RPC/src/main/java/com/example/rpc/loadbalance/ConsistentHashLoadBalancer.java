@@ -1,23 +1,40 @@
 package com.example.rpc.loadbalance;
 
+import cn.hutool.core.lang.hash.MurmurHash;
+import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.model.RpcRequest;
 import com.example.rpc.model.ServiceRegistryInfo;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.SortedMap;
-import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 /**
  * 一致性Hash负载均衡器实现
+ * 每个服务只保留一个哈希环，服务列表变化（注册中心推送新的实例列表）时才重建，
+ * 哈希环以排序的int数组保存，查找时二分搜索，哈希函数使用MurmurHash3。
+ * 熔断或已经尝试过的实例不会触发重建，查找时沿环顺时针跳过，其余键的路由保持不变
  */
 @Slf4j
 public class ConsistentHashLoadBalancer implements LoadBalancer {
     
-    private final int virtualNodes = 100; // 每个真实节点对应的虚拟节点数量
+    private final int virtualNodes;
+    
+    /**
+     * 服务键到哈希环的映射，同一服务的新列表会替换旧的哈希环
+     */
     private final ConcurrentHashMap<String, ConsistentHashRing> ringMap = new ConcurrentHashMap<>();
     
+    public ConsistentHashLoadBalancer() {
+        this(RpcConstant.DEFAULT_VIRTUAL_NODE_COUNT);
+    }
+    
+    public ConsistentHashLoadBalancer(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+    
     @Override
     public ServiceRegistryInfo select(List<ServiceRegistryInfo> services, String requestId) {
         if (services == null || services.isEmpty()) {
@@ -29,75 +46,142 @@ public class ConsistentHashLoadBalancer implements LoadBalancer {
             return services.get(0);
         }
         
-        // 生成服务列表的唯一标识
-        String serviceKey = generateServiceKey(services);
-        
-        // 获取或创建一致性哈希环
-        ConsistentHashRing ring = ringMap.computeIfAbsent(serviceKey, k -> new ConsistentHashRing(services));
-        
-        // 使用请求ID作为哈希键
-        ServiceRegistryInfo selected = ring.get(requestId);
+        ServiceRegistryInfo selected = getRing(services).get(requestId != null ? requestId : "", null);
         
         log.debug("ConsistentHash selected service: {} at {}", selected.getServiceName(), selected.getAddress());
         return selected;
     }
     
+    /**
+     * 使用请求的哈希键选择实例，没有哈希键时按方法路由
+     */
+    @Override
+    public ServiceRegistryInfo select(List<ServiceRegistryInfo> services, RpcRequest request) {
+        String hashKey = request.getHashKey();
+        return select(services, hashKey != null ? hashKey : request.getServiceName() + "#" + request.getMethodName());
+    }
+    
+    /**
+     * 使用完整服务列表的哈希环选择，命中被排除的实例时沿环顺时针取下一个未被排除的实例
+     */
+    @Override
+    public ServiceRegistryInfo select(List<ServiceRegistryInfo> services, RpcRequest request,
+                                      Predicate<ServiceRegistryInfo> excluded) {
+        if (services == null || services.isEmpty()) {
+            return null;
+        }
+        if (services.size() == 1) {
+            return excluded.test(services.get(0)) ? null : services.get(0);
+        }
+        String hashKey = request.getHashKey();
+        return getRing(services).get(hashKey != null ? hashKey : request.getServiceName() + "#" + request.getMethodName(),
+                excluded);
+    }
+    
     @Override
     public String getName() {
         return "consistentHash";
     }
     
     /**
-     * 生成服务列表的唯一标识
+     * 获取服务列表对应的哈希环，列表与上次相同时复用
      */
-    private String generateServiceKey(List<ServiceRegistryInfo> services) {
-        StringBuilder sb = new StringBuilder();
-        for (ServiceRegistryInfo service : services) {
-            sb.append(service.getAddress()).append(":");
+    private ConsistentHashRing getRing(List<ServiceRegistryInfo> services) {
+        String serviceKey = services.get(0).getServiceKey();
+        ConsistentHashRing ring = ringMap.get(serviceKey);
+        if (ring == null || !ring.matches(services)) {
+            ring = new ConsistentHashRing(services, virtualNodes);
+            ringMap.put(serviceKey, ring);
         }
-        return sb.toString();
+        return ring;
     }
     
     /**
-     * 一致性哈希环实现
+     * 一致性哈希环实现，构建后只读
      */
-    private class ConsistentHashRing {
-        private final TreeMap<Integer, ServiceRegistryInfo> ring = new TreeMap<>();
+    static class ConsistentHashRing {
+        
+        /**
+         * 构建哈希环的服务列表
+         */
+        private final List<ServiceRegistryInfo> services;
+        
+        /**
+         * 排序的虚拟节点哈希值，与owners一一对应
+         */
+        private final int[] hashes;
+        
+        /**
+         * 虚拟节点所属实例在services中的下标
+         */
+        private final int[] owners;
         
-        public ConsistentHashRing(List<ServiceRegistryInfo> services) {
-            for (ServiceRegistryInfo service : services) {
-                addNode(service);
+        ConsistentHashRing(List<ServiceRegistryInfo> services, int virtualNodes) {
+            this.services = services;
+            int count = services.size() * virtualNodes;
+            
+            // 高32位为哈希值、低32位为实例下标，排序后同时得到有序的哈希值和对应的实例
+            long[] entries = new long[count];
+            int n = 0;
+            for (int i = 0; i < services.size(); i++) {
+                String address = services.get(i).getAddress();
+                for (int j = 0; j < virtualNodes; j++) {
+                    entries[n++] = ((long) hash(address + "#" + j) << 32) | i;
+                }
+            }
+            Arrays.sort(entries);
+            
+            this.hashes = new int[count];
+            this.owners = new int[count];
+            for (int i = 0; i < count; i++) {
+                hashes[i] = (int) (entries[i] >> 32);
+                owners[i] = (int) entries[i];
             }
         }
         
-        private void addNode(ServiceRegistryInfo service) {
-            String address = service.getAddress();
-            for (int i = 0; i < virtualNodes; i++) {
-                String virtualNode = address + ":" + i;
-                int hash = getHash(virtualNode);
-                ring.put(hash, service);
-            }
+        /**
+         * 是否由同一个服务列表构建，注册中心的列表在变化前是同一个实例，通常只需比较引用
+         */
+        boolean matches(List<ServiceRegistryInfo> other) {
+            return services == other || services.equals(other);
         }
         
-        public ServiceRegistryInfo get(String key) {
-            if (ring.isEmpty()) {
-                return null;
+        /**
+         * 查找哈希值大于等于键哈希值的第一个虚拟节点，超过最大值时回到环的起点；
+         * 节点所属实例被排除时继续顺时针查找，所有实例都被排除时返回null
+         * @param excluded 判断实例是否被排除，为null时不排除
+         */
+        ServiceRegistryInfo get(String key, Predicate<ServiceRegistryInfo> excluded) {
+            int index = Arrays.binarySearch(hashes, hash(key));
+            if (index < 0) {
+                index = -index - 1;
+            }
+            if (index >= owners.length) {
+                index = 0;
+            }
+            if (excluded == null) {
+                return services.get(owners[index]);
             }
             
-            int hash = getHash(key);
-            
-            // 获取大于等于hash的最小键
-            SortedMap<Integer, ServiceRegistryInfo> tailMap = ring.tailMap(hash);
-            if (tailMap.isEmpty()) {
-                // 如果没有找到，返回环的第一个节点
-                return ring.firstEntry().getValue();
+            // 记录已被排除的实例，每个实例只判断一次
+            boolean[] skipped = new boolean[services.size()];
+            int remaining = skipped.length;
+            for (int step = 0; step < owners.length && remaining > 0; step++) {
+                int owner = owners[(index + step) % owners.length];
+                if (!skipped[owner]) {
+                    ServiceRegistryInfo service = services.get(owner);
+                    if (!excluded.test(service)) {
+                        return service;
+                    }
+                    skipped[owner] = true;
+                    remaining--;
+                }
             }
-            return tailMap.firstEntry().getValue();
+            return null;
         }
         
-        private int getHash(String key) {
-            // 使用简单的哈希算法，实际应用中可以使用更复杂的算法
-            return key.hashCode();
+        private static int hash(String key) {
+            return MurmurHash.hash32(key);
         }
     }
-}
\ No newline at end of file
+}
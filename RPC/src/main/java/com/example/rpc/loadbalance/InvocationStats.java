@@ -0,0 +1,168 @@
+package com.example.rpc.loadbalance;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按服务地址统计的调用状态
+ * 客户端在请求发出和结束时更新，记录当前未完成的请求数和响应时间的指数加权移动平均（EWMA），
+ * 供负载均衡器根据运行时反馈选择实例
+ *
+ * 响应时间采用峰值敏感的EWMA：样本大于当前均值时直接取样本，变慢的实例立即被感知；
+ * 样本较小时按距离上次更新的时间衰减，恢复的实例逐步回到正常水平
+ *
+ * 统计按地址保存在进程内共享的表中，实例下线后不会再被调用，
+ * 发出请求时会定期清理长时间没有请求的统计，避免地址频繁变化时表无限增长
+ */
+public class InvocationStats {
+    
+    /**
+     * EWMA的衰减时间常数，约为统计窗口的长度
+     */
+    static final long DECAY_NANOS = 1_000_000_000L;
+    
+    /**
+     * 失败请求计入的最小响应时间，避免快速失败的实例看起来比正常实例更快
+     */
+    static final long FAILURE_PENALTY_NANOS = 1_000_000_000L;
+    
+    /**
+     * 没有未完成请求、且超过该时间没有请求的统计会被清理
+     */
+    static final long EXPIRE_NANOS = 60 * DECAY_NANOS;
+    
+    /**
+     * 两次清理之间的最小间隔
+     */
+    private static final long SWEEP_INTERVAL_NANOS = 10 * DECAY_NANOS;
+    
+    /**
+     * 进程内所有地址的统计，客户端和负载均衡器共享
+     */
+    private static final Map<String, InvocationStats> STATS = new ConcurrentHashMap<>();
+    
+    /**
+     * 下一次清理的时间（纳秒）
+     */
+    private static final AtomicLong NEXT_SWEEP_NANOS = new AtomicLong(System.nanoTime() + SWEEP_INTERVAL_NANOS);
+    
+    private final AtomicInteger active = new AtomicInteger();
+    
+    /**
+     * 最近一次请求开始或结束的时间，用于清理不再使用的统计
+     */
+    private volatile long lastUsedNanos = System.nanoTime();
+    
+    /**
+     * 响应时间的EWMA（纳秒）和上次更新时间，只在this锁内更新
+     */
+    private volatile double ewmaNanos;
+    private long lastUpdateNanos;
+    
+    /**
+     * 获取地址对应的统计，不存在时创建
+     * @param address 服务地址，格式为host:port
+     */
+    public static InvocationStats of(String address) {
+        InvocationStats stats = STATS.get(address);
+        return stats != null ? stats : STATS.computeIfAbsent(address, k -> new InvocationStats());
+    }
+    
+    /**
+     * 获取地址对应的统计，不存在时返回null
+     * @param address 服务地址，格式为host:port
+     */
+    public static InvocationStats peek(String address) {
+        return STATS.get(address);
+    }
+    
+    /**
+     * 移除地址对应的统计，实例下线后调用
+     */
+    public static void remove(String address) {
+        STATS.remove(address);
+    }
+    
+    /**
+     * 清理没有未完成请求、且在过期时间内没有请求的统计
+     * @param nowNanos 当前时间（纳秒）
+     */
+    static void expire(long nowNanos) {
+        STATS.entrySet().removeIf(entry -> entry.getValue().isExpired(nowNanos));
+    }
+    
+    /**
+     * 到达清理间隔时由一个线程执行清理，其余线程直接返回
+     */
+    private static void maybeExpire(long nowNanos) {
+        long next = NEXT_SWEEP_NANOS.get();
+        if (nowNanos - next >= 0 && NEXT_SWEEP_NANOS.compareAndSet(next, nowNanos + SWEEP_INTERVAL_NANOS)) {
+            expire(nowNanos);
+        }
+    }
+    
+    /**
+     * 获取当前统计的地址数量
+     */
+    static int size() {
+        return STATS.size();
+    }
+    
+    private boolean isExpired(long nowNanos) {
+        return active.get() == 0 && nowNanos - lastUsedNanos > EXPIRE_NANOS;
+    }
+    
+    /**
+     * 请求发出
+     * @return 请求开始时间（纳秒），请求结束时传给end
+     */
+    public long begin() {
+        active.incrementAndGet();
+        long now = System.nanoTime();
+        lastUsedNanos = now;
+        maybeExpire(now);
+        return now;
+    }
+    
+    /**
+     * 请求结束
+     * @param startNanos begin返回的开始时间
+     * @param success 请求是否成功
+     */
+    public void end(long startNanos, boolean success) {
+        active.decrementAndGet();
+        long now = System.nanoTime();
+        lastUsedNanos = now;
+        record(now - startNanos, now, success);
+    }
+    
+    /**
+     * 记录一次响应时间样本
+     */
+    synchronized void record(long latencyNanos, long nowNanos, boolean success) {
+        double sample = success ? latencyNanos : Math.max(latencyNanos, FAILURE_PENALTY_NANOS);
+        if (lastUpdateNanos == 0 || sample > ewmaNanos) {
+            ewmaNanos = sample;
+        } else {
+            double decay = Math.exp(-(double) Math.max(0, nowNanos - lastUpdateNanos) / DECAY_NANOS);
+            ewmaNanos = ewmaNanos * decay + sample * (1 - decay);
+        }
+        lastUpdateNanos = nowNanos;
+    }
+    
+    /**
+     * 获取当前未完成的请求数
+     */
+    public int getActive() {
+        return active.get();
+    }
+    
+    /**
+     * 获取响应时间的EWMA（纳秒），还没有样本时为0
+     */
+    public double getEwmaNanos() {
+        return ewmaNanos;
+    }
+}
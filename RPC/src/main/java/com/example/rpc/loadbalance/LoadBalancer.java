@@ -1,8 +1,11 @@
 package com.example.rpc.loadbalance;
 
+import com.example.rpc.model.RpcRequest;
 import com.example.rpc.model.ServiceRegistryInfo;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * 负载均衡器接口
@@ -14,6 +17,34 @@ public interface LoadBalancer {
      */
     ServiceRegistryInfo select(List<ServiceRegistryInfo> services, String requestId);
     
+    /**
+     * 为请求从服务列表中选择一个服务实例，需要根据请求内容路由的实现可以覆盖此方法
+     */
+    default ServiceRegistryInfo select(List<ServiceRegistryInfo> services, RpcRequest request) {
+        return select(services, request.getRequestId());
+    }
+    
+    /**
+     * 为请求从服务列表中选择一个未被排除的服务实例，所有实例都被排除时返回null
+     * 默认先过滤出未被排除的实例再选择；按服务列表预先构建路由结构的实现应覆盖此方法，
+     * 始终使用完整的服务列表并在选择时跳过被排除的实例，避免列表变化导致路由结构重建
+     * @param excluded 判断实例是否被排除（如熔断中或本次调用已经尝试过）
+     */
+    default ServiceRegistryInfo select(List<ServiceRegistryInfo> services, RpcRequest request,
+                                       Predicate<ServiceRegistryInfo> excluded) {
+        List<ServiceRegistryInfo> candidates = null;
+        for (int i = 0; i < services.size(); i++) {
+            ServiceRegistryInfo service = services.get(i);
+            boolean isExcluded = excluded.test(service);
+            if (isExcluded && candidates == null) {
+                candidates = new ArrayList<>(services.subList(0, i));
+            } else if (!isExcluded && candidates != null) {
+                candidates.add(service);
+            }
+        }
+        return select(candidates != null ? candidates : services, request);
+    }
+    
     /**
      * 获取负载均衡器名称
      */
@@ -0,0 +1,88 @@
+package com.example.rpc.loadbalance;
+
+import com.example.rpc.model.ServiceRegistryInfo;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 最少活跃加权的P2C（power of two choices）负载均衡器实现
+ * 随机取两个实例，比较 响应时间EWMA × (未完成请求数 + 1) / 权重，选择代价较小的一个。
+ * 慢实例或发生GC停顿的实例上请求堆积、响应时间升高，会很快失去流量，
+ * 同时随机取样避免所有客户端同时涌向同一个“最优”实例。
+ * 还没有响应时间样本的实例按其他实例的平均响应时间计算，
+ * 新上线的实例不会因为没有样本而在每次比较中胜出，避免流量集中涌向尚未预热的实例
+ */
+@Slf4j
+public class P2cLoadBalancer implements LoadBalancer {
+    
+    /**
+     * 所有实例都没有响应时间样本时使用的响应时间，此时只按未完成请求数和权重比较
+     */
+    private static final double UNKNOWN_LATENCY_NANOS = 1;
+    
+    @Override
+    public ServiceRegistryInfo select(List<ServiceRegistryInfo> services, String requestId) {
+        if (services == null || services.isEmpty()) {
+            return null;
+        }
+        
+        // 如果只有一个服务实例，直接返回
+        int size = services.size();
+        if (size == 1) {
+            return services.get(0);
+        }
+        
+        // 随机取两个不同的实例
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceRegistryInfo a = services.get(first);
+        ServiceRegistryInfo b = services.get(second);
+        double costA = cost(a, services);
+        double costB = cost(b, services);
+        ServiceRegistryInfo selected = costA < costB || (costA == costB && random.nextBoolean()) ? a : b;
+        
+        log.debug("P2C selected service: {} at {}", selected.getServiceName(), selected.getAddress());
+        return selected;
+    }
+    
+    /**
+     * 计算选择实例的代价，值越小越优先
+     */
+    double cost(ServiceRegistryInfo service, List<ServiceRegistryInfo> services) {
+        InvocationStats stats = InvocationStats.of(service.getAddress());
+        double latency = stats.getEwmaNanos();
+        if (latency <= 0) {
+            latency = meanLatency(services);
+        }
+        int weight = Math.max(service.getWeight(), 1);
+        return latency * (stats.getActive() + 1) / weight;
+    }
+    
+    /**
+     * 计算有响应时间样本的实例的平均响应时间，都没有样本时返回UNKNOWN_LATENCY_NANOS
+     */
+    private double meanLatency(List<ServiceRegistryInfo> services) {
+        double sum = 0;
+        int count = 0;
+        for (ServiceRegistryInfo service : services) {
+            InvocationStats stats = InvocationStats.peek(service.getAddress());
+            double latency = stats != null ? stats.getEwmaNanos() : 0;
+            if (latency > 0) {
+                sum += latency;
+                count++;
+            }
+        }
+        return count > 0 ? sum / count : UNKNOWN_LATENCY_NANOS;
+    }
+    
+    @Override
+    public String getName() {
+        return "p2c";
+    }
+}
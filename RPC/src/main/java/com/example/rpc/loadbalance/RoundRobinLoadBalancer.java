@@ -1,18 +1,33 @@
 package com.example.rpc.loadbalance;
 
+import com.example.rpc.model.RpcRequest;
 import com.example.rpc.model.ServiceRegistryInfo;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Predicate;
 
 /**
- * 轮询负载均衡器实现
+ * 平滑加权轮询负载均衡器实现
+ * 每个服务按实例权重预先生成一轮平滑加权轮询（与nginx相同的算法）的选择序列，服务列表变化时才重新生成；
+ * 选择时只需按计数器取序列中的下一个实例，计数器按线程分段，避免所有调用竞争同一个CAS。
+ * 熔断或已经尝试过的实例不会触发重新生成，选择时在序列中跳过，计数器保持连续
  */
 @Slf4j
 public class RoundRobinLoadBalancer implements LoadBalancer {
     
-    private final AtomicInteger counter = new AtomicInteger(0);
+    /**
+     * 一轮选择序列的目标最大长度，权重之和超过时按比例缩小权重，每个实例至少保留1
+     */
+    static final int MAX_SEQUENCE_LENGTH = 4096;
+    
+    /**
+     * 服务键到选择序列的映射，同一服务的新列表会替换旧的序列
+     */
+    private final ConcurrentHashMap<String, WeightedSequence> sequenceMap = new ConcurrentHashMap<>();
     
     @Override
     public ServiceRegistryInfo select(List<ServiceRegistryInfo> services, String requestId) {
@@ -26,15 +41,163 @@ public class RoundRobinLoadBalancer implements LoadBalancer {
         }
         
         // 轮询选择
-        int index = Math.abs(counter.getAndIncrement() % services.size());
-        ServiceRegistryInfo selected = services.get(index);
+        ServiceRegistryInfo selected = getSequence(services).next();
         
         log.debug("RoundRobin selected service: {} at {}", selected.getServiceName(), selected.getAddress());
         return selected;
     }
     
+    /**
+     * 使用完整服务列表的选择序列，取到被排除的实例时继续取下一个
+     */
+    @Override
+    public ServiceRegistryInfo select(List<ServiceRegistryInfo> services, RpcRequest request,
+                                      Predicate<ServiceRegistryInfo> excluded) {
+        if (services == null || services.isEmpty()) {
+            return null;
+        }
+        if (services.size() == 1) {
+            return excluded.test(services.get(0)) ? null : services.get(0);
+        }
+        return getSequence(services).next(excluded);
+    }
+    
     @Override
     public String getName() {
         return "roundRobin";
     }
-}
\ No newline at end of file
+    
+    /**
+     * 获取服务列表对应的选择序列，列表与上次相同时复用
+     */
+    private WeightedSequence getSequence(List<ServiceRegistryInfo> services) {
+        String serviceKey = services.get(0).getServiceKey();
+        WeightedSequence sequence = sequenceMap.get(serviceKey);
+        if (sequence == null || !sequence.matches(services)) {
+            sequence = new WeightedSequence(services);
+            sequenceMap.put(serviceKey, sequence);
+        }
+        return sequence;
+    }
+    
+    /**
+     * 一轮平滑加权轮询的选择序列，构建后只读
+     */
+    static class WeightedSequence {
+        
+        /**
+         * 计数器分段数，取不小于CPU核数的2的幂，最多64段
+         */
+        private static final int STRIPES = Math.min(64,
+                Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1);
+        
+        /**
+         * 相邻分段的计数器间隔16个int（64字节），避免伪共享
+         */
+        private static final int PADDING = 16;
+        
+        private final List<ServiceRegistryInfo> services;
+        private final ServiceRegistryInfo[] sequence;
+        private final AtomicIntegerArray counters = new AtomicIntegerArray(STRIPES * PADDING);
+        
+        WeightedSequence(List<ServiceRegistryInfo> services) {
+            this.services = services;
+            int[] weights = normalizeWeights(services);
+            int total = 0;
+            for (int weight : weights) {
+                total += weight;
+            }
+            
+            // 平滑加权轮询：每一步所有实例的当前权重加上各自权重，选当前权重最大的实例，再把它减去总权重
+            this.sequence = new ServiceRegistryInfo[total];
+            int[] current = new int[weights.length];
+            for (int step = 0; step < total; step++) {
+                int best = -1;
+                for (int i = 0; i < weights.length; i++) {
+                    current[i] += weights[i];
+                    if (weights[i] > 0 && (best < 0 || current[i] > current[best])) {
+                        best = i;
+                    }
+                }
+                current[best] -= total;
+                sequence[step] = services.get(best);
+            }
+            
+            // 各分段从序列的不同位置开始，不同线程的调用不会同时落在同一个实例上
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                counters.set(stripe * PADDING, (int) ((long) stripe * total / STRIPES));
+            }
+        }
+        
+        /**
+         * 按权重的最大公约数约简，权重之和过大时按比例缩小；权重为0的实例不参与选择，全部为0时按相同权重处理
+         */
+        private static int[] normalizeWeights(List<ServiceRegistryInfo> services) {
+            int[] weights = new int[services.size()];
+            long total = 0;
+            int gcd = 0;
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = Math.max(services.get(i).getWeight(), 0);
+                total += weights[i];
+                gcd = gcd(gcd, weights[i]);
+            }
+            if (total == 0) {
+                Arrays.fill(weights, 1);
+                return weights;
+            }
+            
+            total /= gcd;
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] /= gcd;
+                if (total > MAX_SEQUENCE_LENGTH && weights[i] > 0) {
+                    weights[i] = (int) Math.max(1, (long) weights[i] * MAX_SEQUENCE_LENGTH / total);
+                }
+            }
+            return weights;
+        }
+        
+        private static int gcd(int a, int b) {
+            while (b != 0) {
+                int t = a % b;
+                a = b;
+                b = t;
+            }
+            return a;
+        }
+        
+        /**
+         * 是否由同一个服务列表构建，注册中心的列表在变化前是同一个实例，通常只需比较引用
+         */
+        boolean matches(List<ServiceRegistryInfo> other) {
+            return services == other || services.equals(other);
+        }
+        
+        /**
+         * 取当前线程所在分段的下一个实例
+         */
+        ServiceRegistryInfo next() {
+            int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+            int index = counters.getAndIncrement(stripe * PADDING) & Integer.MAX_VALUE;
+            return sequence[index % sequence.length];
+        }
+        
+        /**
+         * 取当前线程所在分段中下一个未被排除的实例，一轮内都被排除时返回null
+         */
+        ServiceRegistryInfo next(Predicate<ServiceRegistryInfo> excluded) {
+            int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+            int start = counters.getAndIncrement(stripe * PADDING) & Integer.MAX_VALUE;
+            for (int step = 0; step < sequence.length; step++) {
+                ServiceRegistryInfo service = sequence[(int) (((long) start + step) % sequence.length)];
+                if (!excluded.test(service)) {
+                    return service;
+                }
+            }
+            return null;
+        }
+        
+        int length() {
+            return sequence.length;
+        }
+    }
+}
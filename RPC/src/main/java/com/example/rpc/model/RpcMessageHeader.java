@@ -37,9 +37,19 @@ public class RpcMessageHeader implements Serializable {
     private byte statusCode;
     
     /**
-     * 消息ID
+     * 压缩器类型，请求中表示客户端支持的压缩器，服务端用它压缩响应，0表示不压缩
      */
-    private String requestId;
+    private byte compressionType;
+    
+    /**
+     * 消息体是否已压缩
+     */
+    private boolean compressed;
+    
+    /**
+     * 消息ID，由客户端生成，响应中原样返回，用于在同一连接上关联请求和响应
+     */
+    private long requestId;
     
     /**
      * 消息体长度
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.io.Serializable;
+import java.lang.reflect.Type;
 import java.util.Arrays;
 
 /**
@@ -33,6 +34,11 @@ public class RpcRequest implements Serializable {
      */
     private String methodName;
     
+    /**
+     * 方法ID，由方法签名计算得到，为0时服务端按方法名和参数类型查找方法
+     */
+    private int methodId;
+    
     /**
      * 参数类型数组
      */
@@ -53,15 +59,32 @@ public class RpcRequest implements Serializable {
      */
     private String group = "default";
     
+    /**
+     * 调用超时时间（毫秒），为0时使用客户端的默认超时时间
+     */
+    private long timeout;
+    
+    /**
+     * 负载均衡使用的哈希键，由客户端根据调用参数生成，只在客户端使用，不参与序列化
+     */
+    private transient String hashKey;
+    
+    /**
+     * 调用方法声明的返回值类型，客户端按该类型反序列化响应数据，只在客户端使用，不参与序列化
+     */
+    private transient Type returnType;
+    
     @Override
     public String toString() {
         return "RpcRequest{" +
                 "requestId='" + requestId + '\'' +
                 ", serviceName='" + serviceName + '\'' +
                 ", methodName='" + methodName + '\'' +
+                ", methodId=" + methodId +
                 ", parameterTypes=" + Arrays.toString(parameterTypes) +
                 ", version='" + version + '\'' +
                 ", group='" + group + '\'' +
+                ", timeout=" + timeout +
                 '}';
     }
 }
\ No newline at end of file
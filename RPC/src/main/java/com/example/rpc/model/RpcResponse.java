@@ -26,18 +26,18 @@ public class RpcResponse<T> implements Serializable {
     
     /**
      * 响应状态
-     * 0: 成功
-     * 非0: 失败
+     * 200: 成功
+     * 其他: 失败
      */
     private int status = RpcConstant.RESPONSE_STATUS_SUCCESS;
     
     /**
-     * 错误信息，当status非0时使用
+     * 错误信息，当status非200时使用
      */
     private String message;
     
     /**
-     * 响应结果，当status为0时使用
+     * 响应结果，当status为200时使用
      */
     private T data;
     
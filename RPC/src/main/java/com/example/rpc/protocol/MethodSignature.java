@@ -0,0 +1,87 @@
+package com.example.rpc.protocol;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 方法签名工具
+ * 客户端和服务端对同一个接口方法计算出相同的签名ID，请求中只需携带ID即可定位方法
+ *
+ * 签名格式为 方法名(参数类型1,参数类型2)，ID为签名的MurmurHash3值，
+ * 同一接口内ID冲突的方法不分配ID（ID为0），调用时退回按方法名和参数类型查找
+ */
+public final class MethodSignature {
+    
+    /**
+     * 未分配方法ID
+     */
+    public static final int NO_METHOD_ID = 0;
+    
+    private MethodSignature() {
+    }
+    
+    /**
+     * 获取方法签名
+     */
+    public static String of(Method method) {
+        return of(method.getName(), method.getParameterTypes());
+    }
+    
+    /**
+     * 根据方法名和参数类型获取方法签名
+     */
+    public static String of(String methodName, Class<?>[] parameterTypes) {
+        StringBuilder sb = new StringBuilder(methodName).append('(');
+        if (parameterTypes != null) {
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(parameterTypes[i].getName());
+            }
+        }
+        return sb.append(')').toString();
+    }
+    
+    /**
+     * 计算签名对应的方法ID
+     */
+    public static int idOf(String signature) {
+        return MurmurHash.hash32(signature);
+    }
+    
+    /**
+     * 为一组方法分配方法ID，ID冲突或恰好为0的方法不会出现在结果中
+     */
+    public static Map<Method, Integer> assignIds(Method[] methods) {
+        Map<Integer, Method> byId = new HashMap<>();
+        Map<Integer, Boolean> conflicts = new HashMap<>();
+        Map<String, Boolean> seen = new HashMap<>();
+        for (Method method : methods) {
+            String signature = of(method);
+            // 接口继承时同一签名可能出现多次，只算一个方法
+            if (seen.put(signature, Boolean.TRUE) != null) {
+                continue;
+            }
+            int id = idOf(signature);
+            if (id == NO_METHOD_ID) {
+                continue;
+            }
+            if (byId.putIfAbsent(id, method) != null) {
+                conflicts.put(id, Boolean.TRUE);
+            }
+        }
+        
+        Map<Method, Integer> ids = new HashMap<>();
+        for (Map.Entry<Integer, Method> entry : byId.entrySet()) {
+            if (!conflicts.containsKey(entry.getKey())) {
+                ids.put(entry.getValue(), entry.getKey());
+            }
+        }
+        return Collections.unmodifiableMap(ids);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.rpc.protocol;
+
+import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.exception.RpcException;
+import com.example.rpc.model.RpcMessage;
+import com.example.rpc.model.RpcMessageHeader;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.parsetools.RecordParser;
+import io.vertx.core.streams.ReadStream;
+
+/**
+ * 基于长度字段的帧解析器
+ * 先按固定长度读取协议头，再根据头中的数据长度读取消息体，
+ * 从而处理TCP粘包（一个Buffer包含多个请求）和半包（一个请求被拆成多个Buffer）
+ * 每帧以已解码的协议头加原始消息体的形式交给上层，消息体由上层按需反序列化
+ * 魔数或协议版本不匹配时通过错误处理器通知上层关闭连接
+ *
+ * 使用流模式构造时解析器直接从连接读取数据，pause后已经读到缓冲区中的帧也不会再交给上层，
+ * 直到resume；只暂停连接时，同一次读取中剩余的帧仍会被继续解析和处理
+ */
+public class RpcFrameParser implements Handler<Buffer> {
+    
+    private final RecordParser parser;
+    private final Handler<RpcMessage<Buffer>> frameHandler;
+    private final Handler<Throwable> errorHandler;
+    private final int maxBodyLength;
+    
+    /**
+     * 当前正在等待消息体的协议头，为null表示正在读取协议头
+     */
+    private RpcMessageHeader header;
+    
+    /**
+     * 解析出错后不再处理后续数据，连接应由调用方关闭
+     */
+    private boolean failed = false;
+    
+    public RpcFrameParser(Handler<RpcMessage<Buffer>> frameHandler, Handler<Throwable> errorHandler) {
+        this(frameHandler, errorHandler, RpcConstant.MAX_BODY_LENGTH);
+    }
+    
+    public RpcFrameParser(Handler<RpcMessage<Buffer>> frameHandler, Handler<Throwable> errorHandler, int maxBodyLength) {
+        this(null, frameHandler, errorHandler, maxBodyLength);
+    }
+    
+    /**
+     * 流模式，解析器注册为stream的数据处理器，由pause和resume控制读取
+     */
+    public RpcFrameParser(ReadStream<Buffer> stream, Handler<RpcMessage<Buffer>> frameHandler,
+                          Handler<Throwable> errorHandler) {
+        this(stream, frameHandler, errorHandler, RpcConstant.MAX_BODY_LENGTH);
+    }
+    
+    public RpcFrameParser(ReadStream<Buffer> stream, Handler<RpcMessage<Buffer>> frameHandler,
+                          Handler<Throwable> errorHandler, int maxBodyLength) {
+        this.frameHandler = frameHandler;
+        this.errorHandler = errorHandler;
+        this.maxBodyLength = maxBodyLength;
+        this.parser = stream != null ? RecordParser.newFixed(RpcConstant.HEADER_LENGTH, stream)
+                : RecordParser.newFixed(RpcConstant.HEADER_LENGTH);
+        this.parser.handler(this::handleRecord);
+    }
+    
+    @Override
+    public void handle(Buffer buffer) {
+        if (failed) {
+            return;
+        }
+        parser.handle(buffer);
+    }
+    
+    /**
+     * 暂停交付帧，当前正在处理的帧之后不再回调，流模式下同时暂停读取连接
+     */
+    public void pause() {
+        parser.pause();
+    }
+    
+    /**
+     * 恢复交付帧，先处理已经缓冲的数据
+     */
+    public void resume() {
+        parser.resume();
+    }
+    
+    private void handleRecord(Buffer record) {
+        if (failed) {
+            return;
+        }
+        
+        if (header == null) {
+            // 读取到完整的协议头
+            RpcMessageHeader frameHeader = RpcMessageCodec.decodeHeader(record);
+            if (frameHeader.getMagicNumber() != RpcConstant.MAGIC_NUMBER) {
+                fail(new RpcException("Invalid magic number: " + Integer.toHexString(frameHeader.getMagicNumber())));
+                return;
+            }
+            // 不同版本的协议头长度和字段位置不同，无法继续按本版本的格式定位后续的帧
+            if (frameHeader.getVersion() != RpcConstant.VERSION) {
+                fail(new RpcException("Unsupported protocol version: " + frameHeader.getVersion()
+                        + ", expected: " + RpcConstant.VERSION));
+                return;
+            }
+            
+            int bodyLength = frameHeader.getBodyLength();
+            if (bodyLength < 0 || bodyLength > maxBodyLength) {
+                fail(new RpcException("Invalid body length: " + bodyLength));
+                return;
+            }
+            
+            if (bodyLength == 0) {
+                frameHandler.handle(RpcMessageCodec.buildMessage(frameHeader, Buffer.buffer(0)));
+                return;
+            }
+            
+            // 切换为读取消息体
+            header = frameHeader;
+            parser.fixedSizeMode(bodyLength);
+        } else {
+            // 读取到完整的消息体
+            RpcMessage<Buffer> frame = RpcMessageCodec.buildMessage(header, record);
+            header = null;
+            parser.fixedSizeMode(RpcConstant.HEADER_LENGTH);
+            frameHandler.handle(frame);
+        }
+    }
+    
+    private void fail(Throwable cause) {
+        failed = true;
+        header = null;
+        errorHandler.handle(cause);
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.rpc.protocol;
+
+import com.example.rpc.compress.Compressor;
+import com.example.rpc.compress.CompressorFactory;
+import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.model.RpcMessage;
+import com.example.rpc.model.RpcMessageHeader;
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.model.RpcResponse;
+import com.example.rpc.serializer.ArgumentTypeResolver;
+import com.example.rpc.serializer.Serializer;
+import com.example.rpc.serializer.SerializerFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * RPC消息编解码器，客户端和服务端共用
+ *
+ * 协议头格式（共21字节）：
+ * <pre>
+ * | 魔数 4 | 版本 1 | 消息类型 1 | 序列化类型 1 | 状态 1 | 压缩 1 | 请求ID 8 | 数据长度 4 |
+ * </pre>
+ * 请求ID和状态都在协议头中，收到响应后不需要反序列化消息体就能找到对应的请求
+ *
+ * 压缩字节的低7位是发送方使用的压缩器类型，最高位表示消息体已压缩。请求即使没有压缩也带上客户端的压缩器类型，
+ * 服务端据此用同一种压缩器压缩较大的响应，未配置压缩器的客户端不会收到压缩的响应
+ *
+ * 编码时序列化器直接写入发送缓冲区，数据长度在写完消息体后回填；解码时序列化器直接读取接收缓冲区，
+ * 消息体不会被拷贝到中间的字节数组
+ */
+public final class RpcMessageCodec {
+    
+    private static final int VERSION_OFFSET = 4;
+    private static final int MESSAGE_TYPE_OFFSET = 5;
+    private static final int SERIALIZER_TYPE_OFFSET = 6;
+    private static final int STATUS_OFFSET = 7;
+    private static final int COMPRESSION_OFFSET = 8;
+    private static final int REQUEST_ID_OFFSET = 9;
+    
+    /**
+     * 压缩字节中表示消息体已压缩的标志位
+     */
+    private static final int COMPRESSED_FLAG = 0x80;
+    private static final int COMPRESSION_TYPE_MASK = 0x7F;
+    
+    /**
+     * 消息体缓冲区的最小预分配大小
+     */
+    private static final int MIN_BODY_CAPACITY = 256;
+    
+    /**
+     * 消息体缓冲区的最大预分配大小，更大的消息按需扩容
+     */
+    private static final int MAX_BODY_CAPACITY = 64 * 1024;
+    
+    /**
+     * 最近编码的消息体大小，用于预估下一个缓冲区的容量，并发更新时丢失个别值不影响正确性
+     */
+    private static volatile int bodySizeHint = MIN_BODY_CAPACITY;
+    
+    private RpcMessageCodec() {
+    }
+    
+    /**
+     * 编码消息，消息体使用协议头中指定的序列化器，不压缩
+     */
+    public static Buffer encode(RpcMessage<?> message) throws IOException {
+        return encode(message, null, 0);
+    }
+    
+    /**
+     * 编码消息，消息体超过阈值时用压缩器压缩，压缩后没有变小时仍发送原始数据
+     * @param compressor 压缩器，为null时不压缩
+     * @param compressionThreshold 压缩阈值（字节）
+     */
+    public static Buffer encode(RpcMessage<?> message, Compressor compressor, int compressionThreshold)
+            throws IOException {
+        RpcMessageHeader header = message.getHeader();
+        ByteBuf buf = Unpooled.buffer(RpcConstant.HEADER_LENGTH + bodySizeHint);
+        buf.writeInt(RpcConstant.MAGIC_NUMBER);
+        buf.writeByte(RpcConstant.VERSION);
+        buf.writeByte(header.getMessageType());
+        buf.writeByte(header.getSerializerType());
+        buf.writeByte(header.getStatusCode());
+        buf.writeByte(compressor != null ? compressor.getType() : 0);
+        buf.writeLong(header.getRequestId());
+        // 数据长度先占位，序列化完成后回填
+        buf.writeInt(0);
+        
+        if (message.getBody() != null) {
+            SerializerFactory.getSerializerByType(header.getSerializerType())
+                    .serialize(message.getBody(), new ByteBufOutputStream(buf));
+        }
+        int bodyLength = buf.writerIndex() - RpcConstant.HEADER_LENGTH;
+        buf.setInt(RpcConstant.BODY_LENGTH_OFFSET, bodyLength);
+        bodySizeHint = Math.max(MIN_BODY_CAPACITY, Math.min(bodyLength, MAX_BODY_CAPACITY));
+        if (compressor != null && bodyLength > compressionThreshold) {
+            buf = compress(buf, bodyLength, compressor);
+        }
+        return Buffer.buffer(buf);
+    }
+    
+    /**
+     * 压缩已编码消息的消息体，压缩后更小时返回新的缓冲区，否则返回原缓冲区
+     */
+    private static ByteBuf compress(ByteBuf buf, int bodyLength, Compressor compressor) throws IOException {
+        ByteBuf compressed = Unpooled.buffer(RpcConstant.HEADER_LENGTH + bodyLength / 2);
+        compressed.writeBytes(buf, 0, RpcConstant.HEADER_LENGTH);
+        try (OutputStream out = compressor.compress(new ByteBufOutputStream(compressed))) {
+            buf.getBytes(RpcConstant.HEADER_LENGTH, out, bodyLength);
+        }
+        int compressedLength = compressed.writerIndex() - RpcConstant.HEADER_LENGTH;
+        if (compressedLength >= bodyLength) {
+            return buf;
+        }
+        compressed.setByte(COMPRESSION_OFFSET, compressor.getType() | COMPRESSED_FLAG);
+        compressed.setInt(RpcConstant.BODY_LENGTH_OFFSET, compressedLength);
+        return compressed;
+    }
+    
+    /**
+     * 解码协议头，buffer至少包含完整的协议头
+     */
+    public static RpcMessageHeader decodeHeader(Buffer buffer) {
+        RpcMessageHeader header = new RpcMessageHeader();
+        header.setMagicNumber(buffer.getInt(0));
+        header.setVersion(buffer.getByte(VERSION_OFFSET));
+        header.setMessageType(buffer.getByte(MESSAGE_TYPE_OFFSET));
+        header.setSerializerType(buffer.getByte(SERIALIZER_TYPE_OFFSET));
+        header.setStatusCode(buffer.getByte(STATUS_OFFSET));
+        byte compression = buffer.getByte(COMPRESSION_OFFSET);
+        header.setCompressionType((byte) (compression & COMPRESSION_TYPE_MASK));
+        header.setCompressed((compression & COMPRESSED_FLAG) != 0);
+        header.setRequestId(buffer.getLong(REQUEST_ID_OFFSET));
+        header.setBodyLength(buffer.getInt(RpcConstant.BODY_LENGTH_OFFSET));
+        return header;
+    }
+    
+    /**
+     * 解码消息体
+     * @param header 协议头
+     * @param body 消息体数据（不含协议头）
+     * @param bodyType 消息体类型
+     * @return 消息体对象，消息体为空时返回null
+     */
+    public static <T> T decodeBody(RpcMessageHeader header, Buffer body, Class<T> bodyType) throws IOException {
+        if (header.getBodyLength() == 0) {
+            return null;
+        }
+        Serializer serializer = SerializerFactory.getSerializerByType(header.getSerializerType());
+        try (InputStream in = openBody(header, body)) {
+            return serializer.deserialize(in, bodyType);
+        }
+    }
+    
+    /**
+     * 解码请求，参数按解析器给出的方法参数类型反序列化
+     * @param resolver 参数类型解析器，为null时按消息体中的类型信息反序列化
+     * @return 请求，消息体为空时返回null
+     */
+    public static RpcRequest decodeRequest(RpcMessageHeader header, Buffer body, ArgumentTypeResolver resolver)
+            throws IOException {
+        if (header.getBodyLength() == 0) {
+            return null;
+        }
+        Serializer serializer = SerializerFactory.getSerializerByType(header.getSerializerType());
+        try (InputStream in = openBody(header, body)) {
+            return serializer.deserializeRequest(in, resolver);
+        }
+    }
+    
+    /**
+     * 解码响应，返回值按调用方法声明的返回类型反序列化
+     * @param dataType 返回值类型，为null时按消息体中的类型信息反序列化
+     * @return 响应，消息体为空时返回null
+     */
+    public static RpcResponse<?> decodeResponse(RpcMessageHeader header, Buffer body, Type dataType)
+            throws IOException {
+        if (header.getBodyLength() == 0) {
+            return null;
+        }
+        Serializer serializer = SerializerFactory.getSerializerByType(header.getSerializerType());
+        try (InputStream in = openBody(header, body)) {
+            return serializer.deserializeResponse(in, dataType);
+        }
+    }
+    
+    /**
+     * 打开消息体的输入流，已压缩的消息体边读边解压
+     */
+    private static InputStream openBody(RpcMessageHeader header, Buffer body) throws IOException {
+        InputStream in = new ByteBufInputStream(body.getByteBuf());
+        if (!header.isCompressed()) {
+            return in;
+        }
+        Compressor compressor = CompressorFactory.getCompressorByType(header.getCompressionType());
+        if (compressor == null) {
+            throw new IOException("Unknown compressor type: " + header.getCompressionType());
+        }
+        return compressor.decompress(in);
+    }
+    
+    /**
+     * 构建协议头
+     */
+    public static RpcMessageHeader buildHeader(byte messageType, byte serializerType, byte status, long requestId) {
+        RpcMessageHeader header = new RpcMessageHeader();
+        header.setMagicNumber(RpcConstant.MAGIC_NUMBER);
+        header.setVersion(RpcConstant.VERSION);
+        header.setMessageType(messageType);
+        header.setSerializerType(serializerType);
+        header.setStatusCode(status);
+        header.setRequestId(requestId);
+        return header;
+    }
+    
+    /**
+     * 构建消息
+     */
+    public static <T> RpcMessage<T> buildMessage(RpcMessageHeader header, T body) {
+        RpcMessage<T> message = new RpcMessage<>();
+        message.setHeader(header);
+        message.setBody(body);
+        return message;
+    }
+}
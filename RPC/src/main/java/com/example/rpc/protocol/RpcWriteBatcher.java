@@ -0,0 +1,131 @@
+package com.example.rpc.protocol;
+
+import io.vertx.core.Context;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetSocket;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 连接写合并器
+ * 同一连接上短时间内产生的多个消息先追加到缓冲区，在事件循环的下一轮（或等待batchDelayMs后）
+ * 一次性写出，积攒的数据达到batchMaxBytes时立即写出，减少系统调用和小包数量
+ *
+ * 可以在任意线程调用write，缓冲区中始终是完整的帧，不同批次之间的先后顺序不做保证，
+ * 请求和响应通过协议头中的请求ID关联，不依赖顺序
+ */
+public class RpcWriteBatcher {
+    
+    /**
+     * 缓冲区初始大小
+     */
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    
+    private final Context context;
+    private final NetSocket socket;
+    private final int maxBytes;
+    private final long delayMs;
+    
+    /**
+     * 待写出的数据，受this保护
+     */
+    private Buffer pending;
+    private boolean flushScheduled = false;
+    
+    private final AtomicLong messageCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    
+    /**
+     * @param context 连接所属的Vertx上下文，定时写出在该上下文上执行
+     * @param socket 连接
+     * @param maxBytes 积攒到该大小时立即写出，小于等于0时不合并，每个消息直接写出
+     * @param delayMs 等待时间，0表示在事件循环的下一轮写出
+     */
+    public RpcWriteBatcher(Context context, NetSocket socket, int maxBytes, long delayMs) {
+        this.context = context;
+        this.socket = socket;
+        this.maxBytes = maxBytes;
+        this.delayMs = Math.max(0, delayMs);
+    }
+    
+    /**
+     * 写入一个完整的消息
+     */
+    public void write(Buffer buffer) {
+        if (maxBytes <= 0) {
+            messageCount.incrementAndGet();
+            writeToSocket(buffer);
+            return;
+        }
+        
+        Buffer full = null;
+        boolean schedule = false;
+        synchronized (this) {
+            messageCount.incrementAndGet();
+            if (pending == null && buffer.length() >= maxBytes) {
+                // 没有积攒的数据时，大消息直接写出，不拷贝到合并缓冲区
+                full = buffer;
+            } else {
+                if (pending == null) {
+                    pending = Buffer.buffer(Math.max(INITIAL_BUFFER_SIZE, buffer.length()));
+                }
+                pending.appendBuffer(buffer);
+                if (pending.length() >= maxBytes) {
+                    full = pending;
+                    pending = null;
+                } else if (!flushScheduled) {
+                    flushScheduled = true;
+                    schedule = true;
+                }
+            }
+        }
+        
+        if (full != null) {
+            writeToSocket(full);
+        } else if (schedule) {
+            scheduleFlush();
+        }
+    }
+    
+    private void scheduleFlush() {
+        if (delayMs > 0) {
+            context.runOnContext(v -> context.owner().setTimer(delayMs, id -> flush()));
+        } else {
+            context.runOnContext(v -> flush());
+        }
+    }
+    
+    /**
+     * 立即写出缓冲区中的数据
+     */
+    public void flush() {
+        Buffer data;
+        synchronized (this) {
+            data = pending;
+            pending = null;
+            flushScheduled = false;
+        }
+        if (data != null) {
+            writeToSocket(data);
+        }
+    }
+    
+    private void writeToSocket(Buffer data) {
+        flushCount.incrementAndGet();
+        socket.write(data);
+    }
+    
+    /**
+     * 获取写入的消息数
+     */
+    public long getMessageCount() {
+        return messageCount.get();
+    }
+    
+    /**
+     * 获取实际写到连接上的次数
+     */
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.rpc.proxy;
+
+import com.example.rpc.annotation.RpcMethod;
+import com.example.rpc.annotation.RpcReference;
+import com.example.rpc.constant.RpcConstant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 服务引用配置
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReferenceConfig {
+    
+    /**
+     * 服务版本号
+     */
+    @Builder.Default
+    private String version = RpcConstant.DEFAULT_VERSION;
+    
+    /**
+     * 服务分组
+     */
+    @Builder.Default
+    private String group = RpcConstant.DEFAULT_GROUP;
+    
+    /**
+     * 调用超时时间（毫秒），为0时使用客户端的默认超时时间
+     */
+    private long timeout;
+    
+    /**
+     * 方法名到超时时间（毫秒）的映射，优先于引用级别的超时时间
+     */
+    @Builder.Default
+    private Map<String, Long> methodTimeouts = new HashMap<>();
+    
+    /**
+     * 方法名到一致性哈希参数下标的映射，未配置的方法使用第一个参数
+     */
+    @Builder.Default
+    private Map<String, Integer> methodHashArguments = new HashMap<>();
+    
+    /**
+     * 根据@RpcReference注解创建引用配置
+     */
+    public static ReferenceConfig from(RpcReference reference) {
+        Map<String, Long> methodTimeouts = new HashMap<>();
+        Map<String, Integer> methodHashArguments = new HashMap<>();
+        for (RpcMethod method : reference.methods()) {
+            if (method.timeout() > 0) {
+                methodTimeouts.put(method.name(), method.timeout());
+            }
+            methodHashArguments.put(method.name(), method.hashArgument());
+        }
+        return ReferenceConfig.builder()
+                .version(reference.version())
+                .group(reference.group())
+                .timeout(reference.timeout())
+                .methodTimeouts(methodTimeouts)
+                .methodHashArguments(methodHashArguments)
+                .build();
+    }
+    
+    /**
+     * 获取方法的超时时间，未配置时返回0
+     */
+    public long getTimeout(String methodName) {
+        Long methodTimeout = methodTimeouts != null ? methodTimeouts.get(methodName) : null;
+        return methodTimeout != null ? methodTimeout : timeout;
+    }
+    
+    /**
+     * 获取方法的一致性哈希参数下标，未配置时返回0
+     */
+    public int getHashArgument(String methodName) {
+        Integer hashArgument = methodHashArguments != null ? methodHashArguments.get(methodName) : null;
+        return hashArgument != null ? hashArgument : 0;
+    }
+}
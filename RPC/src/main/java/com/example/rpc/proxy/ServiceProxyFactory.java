@@ -3,29 +3,60 @@ package com.example.rpc.proxy;
 import com.example.rpc.client.RpcClient;
 import com.example.rpc.client.RpcClientFactory;
 import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.exception.RpcException;
 import com.example.rpc.model.RpcRequest;
 import com.example.rpc.model.RpcResponse;
-import com.example.rpc.registry.RegistryFactory;
-import com.example.rpc.registry.ServiceRegistry;
+import com.example.rpc.protocol.MethodSignature;
 import lombok.extern.slf4j.Slf4j;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Proxy;
-import java.util.UUID;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * 服务代理工厂，用于创建远程服务的代理对象
+ *
+ * 异步调用返回的future默认在客户端的I/O线程（Vert.x事件循环或超时定时器线程）上完成，
+ * 挂在上面的回调不能阻塞；需要阻塞的回调应通过callbackExecutor或带Executor的invokeAsync切换线程
  */
 @Slf4j
 public class ServiceProxyFactory {
     
-    private final ServiceRegistry registry;
+    private final RpcClient client;
+    
+    /**
+     * 完成异步调用future的执行器，为null时在客户端I/O线程上直接完成
+     */
+    private final Executor callbackExecutor;
     
     public ServiceProxyFactory() {
-        this.registry = RegistryFactory.getRegistry();
+        this(RpcClientFactory.getInstance().getDefaultClient());
+    }
+    
+    public ServiceProxyFactory(RpcClient client) {
+        this(client, null);
+    }
+    
+    /**
+     * @param client RPC客户端
+     * @param callbackExecutor 完成异步调用future的执行器，为null时在客户端I/O线程上直接完成
+     */
+    public ServiceProxyFactory(RpcClient client, Executor callbackExecutor) {
+        this.client = client;
+        this.callbackExecutor = callbackExecutor;
     }
     
     /**
@@ -35,33 +66,155 @@ public class ServiceProxyFactory {
      * @param group 分组
      * @return 服务代理对象
      */
-    @SuppressWarnings("unchecked")
     public <T> T createProxy(Class<T> serviceInterface, String version, String group) {
-        log.info("Creating proxy for service: {}, version: {}, group: {}", 
-                serviceInterface.getName(), version, group);
+        return createProxy(serviceInterface, ReferenceConfig.builder()
+                .version(version)
+                .group(group)
+                .build());
+    }
+    
+    /**
+     * 按引用配置创建服务代理
+     * @param serviceInterface 服务接口类
+     * @param config 引用配置
+     * @return 服务代理对象
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T createProxy(Class<T> serviceInterface, ReferenceConfig config) {
+        log.info("Creating proxy for service: {}, version: {}, group: {}, timeout: {}",
+                serviceInterface.getName(), config.getVersion(), config.getGroup(), config.getTimeout());
         
         return (T) Proxy.newProxyInstance(
                 serviceInterface.getClassLoader(),
                 new Class<?>[]{serviceInterface},
-                new ServiceInvocationHandler(serviceInterface, version, group)
+                new ServiceInvocationHandler(serviceInterface, config, client, callbackExecutor)
         );
     }
     
+    /**
+     * 通过代理异步调用远程方法，调用线程不等待响应，适合同时发起大量远程调用
+     * @param proxy 由本工厂创建的服务代理
+     * @param method 服务接口方法
+     * @param args 参数
+     * @return 方法返回值的CompletableFuture，调用失败（包括超时、连接断开）时以RpcException结束
+     */
+    public <R> CompletableFuture<R> invokeAsync(Object proxy, Method method, Object... args) {
+        return invokeAsync(callbackExecutor, proxy, method, args);
+    }
+    
+    /**
+     * 通过代理异步调用远程方法，返回的future在指定的执行器上完成
+     * @param executor 完成future的执行器，为null时在客户端I/O线程上直接完成
+     * @param proxy 由本工厂创建的服务代理
+     * @param method 服务接口方法
+     * @param args 参数
+     * @return 方法返回值的CompletableFuture，调用失败（包括超时、连接断开）时以RpcException结束
+     */
+    @SuppressWarnings("unchecked")
+    public <R> CompletableFuture<R> invokeAsync(Executor executor, Object proxy, Method method, Object... args) {
+        if (!Proxy.isProxyClass(proxy.getClass())
+                || !(Proxy.getInvocationHandler(proxy) instanceof ServiceInvocationHandler)) {
+            throw new IllegalArgumentException("Not a service proxy: " + proxy.getClass().getName());
+        }
+        // 同步方法和返回CompletableFuture的方法都以服务端返回的值完成
+        ServiceInvocationHandler handler = (ServiceInvocationHandler) Proxy.getInvocationHandler(proxy);
+        return (CompletableFuture<R>) handler.invokeAsync(method, args, executor);
+    }
+    
+    /**
+     * 把调用失败的原因统一转换为RpcException
+     */
+    private static RpcException toRpcException(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof RpcException) {
+            return (RpcException) cause;
+        }
+        if (cause instanceof TimeoutException) {
+            return new RpcException("RPC call timed out: " + cause.getMessage(), cause);
+        }
+        return new RpcException("RPC call failed: " + cause.getMessage(), cause);
+    }
+    
+    /**
+     * 方法是否为异步方法，即返回类型为CompletableFuture
+     */
+    private static boolean isAsync(Method method) {
+        return method.getReturnType() == CompletableFuture.class;
+    }
+    
+    /**
+     * 获取远程调用返回值的声明类型，异步方法取CompletableFuture的类型参数，无返回值或无法确定时返回null
+     */
+    private static Type resolveReturnType(Method method) {
+        Type type = method.getGenericReturnType();
+        if (isAsync(method)) {
+            type = type instanceof ParameterizedType ? ((ParameterizedType) type).getActualTypeArguments()[0] : null;
+        }
+        return type == void.class || type == Void.class ? null : type;
+    }
+    
     /**
      * 服务调用处理器
      */
     private static class ServiceInvocationHandler implements InvocationHandler {
         
+        /**
+         * 客户端超时后响应即已失败，这里只是额外的兜底等待时间
+         */
+        private static final long TIMEOUT_GRACE_MS = 1000;
+        
         private final Class<?> serviceInterface;
         private final String version;
         private final String group;
         private final RpcClient client;
+        private final Executor callbackExecutor;
+        
+        /**
+         * 接口方法到方法ID的映射，与服务端按同一规则计算
+         */
+        private final Map<Method, Integer> methodIds;
+        
+        /**
+         * 接口方法到调用超时时间的映射，为0的方法使用客户端默认超时时间
+         */
+        private final Map<Method, Long> methodTimeouts = new HashMap<>();
+        
+        /**
+         * 接口方法到一致性哈希参数下标的映射
+         */
+        private final Map<Method, Integer> methodHashArguments = new HashMap<>();
+        
+        /**
+         * 接口方法到返回值声明类型的映射，没有返回值的方法不在其中
+         */
+        private final Map<Method, Type> returnTypes = new HashMap<>();
+        
+        /**
+         * 返回CompletableFuture的接口方法
+         */
+        private final Set<Method> asyncMethods = new HashSet<>();
         
-        public ServiceInvocationHandler(Class<?> serviceInterface, String version, String group) {
+        public ServiceInvocationHandler(Class<?> serviceInterface, ReferenceConfig config, RpcClient client,
+                                        Executor callbackExecutor) {
             this.serviceInterface = serviceInterface;
+            this.methodIds = MethodSignature.assignIds(serviceInterface.getMethods());
+            String version = config.getVersion();
+            String group = config.getGroup();
             this.version = version != null && !version.isEmpty() ? version : RpcConstant.DEFAULT_VERSION;
             this.group = group != null && !group.isEmpty() ? group : RpcConstant.DEFAULT_GROUP;
-            this.client = RpcClientFactory.getDefaultClient();
+            this.client = client;
+            this.callbackExecutor = callbackExecutor;
+            for (Method method : serviceInterface.getMethods()) {
+                methodTimeouts.put(method, config.getTimeout(method.getName()));
+                methodHashArguments.put(method, config.getHashArgument(method.getName()));
+                if (isAsync(method)) {
+                    asyncMethods.add(method);
+                }
+                Type returnType = resolveReturnType(method);
+                if (returnType != null) {
+                    returnTypes.put(method, returnType);
+                }
+            }
             
             // 初始化客户端
             if (!client.isInitialized()) {
@@ -76,48 +229,110 @@ public class ServiceProxyFactory {
                 return method.invoke(this, args);
             }
             
+            // 返回CompletableFuture的方法直接返回，在响应到达时完成，不阻塞调用线程
+            if (asyncMethods.contains(method)) {
+                return invokeAsync(method, args, callbackExecutor);
+            }
+            
+            // 同步方法等待响应，超时由客户端的时间轮负责，到期后future以TimeoutException结束
+            long timeout = methodTimeouts.getOrDefault(method, 0L);
+            long waitTimeout = (timeout > 0 ? timeout : client.getTimeout()) + TIMEOUT_GRACE_MS;
+            try {
+                // 调用线程自己等待结果，不需要切换到回调执行器
+                return invokeAsync(method, args, null).get(waitTimeout, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                log.error("RPC call failed: {}.{}()", serviceInterface.getName(), method.getName(), e.getCause());
+                throw toRpcException(e.getCause());
+            } catch (TimeoutException e) {
+                log.error("RPC call timed out: {}.{}()", serviceInterface.getName(), method.getName());
+                throw new RpcException("RPC call timed out after " + waitTimeout + "ms", e);
+            }
+        }
+        
+        /**
+         * 根据配置的参数生成负载均衡的哈希键，参数不存在或为null时返回null
+         */
+        private String hashKey(Method method, Object[] args) {
+            int index = methodHashArguments.getOrDefault(method, 0);
+            if (args == null || index < 0 || index >= args.length || args[index] == null) {
+                return null;
+            }
+            return String.valueOf(args[index]);
+        }
+        
+        /**
+         * 异步调用远程方法，响应成功时以返回值完成，失败时以RpcException完成
+         * @param executor 完成future的执行器，为null时在响应到达的线程上直接完成
+         */
+        CompletableFuture<Object> invokeAsync(Method method, Object[] args, Executor executor) {
             String methodName = method.getName();
             String serviceName = serviceInterface.getName();
-            Class<?>[] parameterTypes = method.getParameterTypes();
+            
+            // 有方法ID时服务端直接按ID定位方法，不再需要传输参数类型；ID未命中时服务端按方法名和参数个数匹配
+            int methodId = methodIds.getOrDefault(method, MethodSignature.NO_METHOD_ID);
+            Class<?>[] parameterTypes = methodId != MethodSignature.NO_METHOD_ID ? null : method.getParameterTypes();
             
             log.debug("Invoking remote method: {} on service: {} (version: {}, group: {})", 
                     methodName, serviceName, version, group);
             
-            // 创建RPC请求
+            // 创建RPC请求，请求ID由客户端发送时分配
             RpcRequest request = RpcRequest.builder()
-                    .requestId(UUID.randomUUID().toString())
                     .serviceName(serviceName)
                     .methodName(methodName)
+                    .methodId(methodId)
                     .parameterTypes(parameterTypes)
                     .parameters(args)
                     .version(version)
                     .group(group)
+                    .timeout(methodTimeouts.getOrDefault(method, 0L))
+                    .hashKey(hashKey(method, args))
+                    .returnType(returnTypes.get(method))
                     .build();
             
-            // 发送请求，处理CompletableFuture响应
-            RpcResponse<?> response;
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            CompletableFuture<RpcResponse> futureResponse;
             try {
-                CompletableFuture<RpcResponse> futureResponse = client.sendRequest(request);
-                // 等待响应，设置超时（假设客户端有默认超时设置）
-                response = futureResponse.get(3000, TimeUnit.MILLISECONDS);
+                futureResponse = client.sendRequest(request);
             } catch (Exception e) {
-                log.error("RPC call failed: {}.{}()", serviceName, methodName, e);
-                throw new RuntimeException("RPC call failed: " + e.getMessage(), e);
+                result.completeExceptionally(toRpcException(e));
+                return result;
             }
             
-            // 处理响应
+            // 在响应回调中处理结果，不占用调用线程
+            futureResponse.whenComplete((response, error) -> {
+                if (executor == null) {
+                    complete(result, request, response, error);
+                    return;
+                }
+                try {
+                    executor.execute(() -> complete(result, request, response, error));
+                } catch (RejectedExecutionException e) {
+                    log.warn("Callback executor rejected completion of request: {}", request.getRequestId());
+                    complete(result, request, response, error);
+                }
+            });
+            return result;
+        }
+        
+        private void complete(CompletableFuture<Object> result, RpcRequest request, RpcResponse response,
+                              Throwable error) {
+            if (error != null) {
+                result.completeExceptionally(toRpcException(error));
+                return;
+            }
             if (response == null) {
-                throw new RuntimeException("Received null response for request: " + request.getRequestId());
+                result.completeExceptionally(
+                        new RpcException("Received null response for request: " + request.getRequestId()));
+                return;
             }
-            
             if (response.getStatus() != RpcConstant.RESPONSE_STATUS_SUCCESS) {
                 log.error("RPC call failed with status: {}, message: {}", 
                         response.getStatus(), response.getMessage());
-                throw new RuntimeException(response.getMessage() != null ? 
-                        response.getMessage() : "RPC call failed with status: " + response.getStatus());
+                result.completeExceptionally(new RpcException(response.getMessage() != null ? 
+                        response.getMessage() : "RPC call failed with status: " + response.getStatus()));
+                return;
             }
-            
-            return response.getData();
+            result.complete(response.getData());
         }
     }
 }
\ No newline at end of file
@@ -7,10 +7,13 @@ import com.example.rpc.exception.RpcException;
 import com.example.rpc.model.ServiceRegistryInfo;
 import io.etcd.jetcd.*;
 import io.etcd.jetcd.Watch.Watcher;
+import io.etcd.jetcd.lease.LeaseKeepAliveResponse;
+import io.etcd.jetcd.op.Op;
 import io.etcd.jetcd.options.GetOption;
 import io.etcd.jetcd.options.PutOption;
 import io.etcd.jetcd.options.WatchOption;
 import io.etcd.jetcd.watch.WatchEvent;
+import io.grpc.stub.StreamObserver;
 import lombok.extern.slf4j.Slf4j;
 
 import java.nio.charset.StandardCharsets;
@@ -25,16 +28,51 @@ import java.util.stream.Collectors;
 @Slf4j
 public class EtcdRegistry implements ServiceRegistry {
     
+    /**
+     * 共享租约的TTL（秒），etcd的grant以秒为单位
+     */
+    private static final long LEASE_TTL_SECONDS = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(RpcConstant.DEFAULT_LEASE_TTL));
+    
+    /**
+     * 注册请求的合并等待时间（毫秒）
+     */
+    private static final long REGISTER_BATCH_DELAY_MS = 10;
+    
+    /**
+     * 单个事务中的最大操作数，etcd默认限制为128
+     */
+    private static final int MAX_TXN_OPS = 128;
+    
+    /**
+     * 关闭时撤销租约的等待时间（毫秒）
+     */
+    private static final long REVOKE_TIMEOUT_MS = 1000;
+    
     private Client client;
     private KV kvClient;
     private Watch watchClient;
     private Lease leaseClient;
-    private ScheduledExecutorService heartbeatExecutor;
     
     /**
-     * 本地服务缓存
+     * 注册中心后台线程，负责合并注册请求和租约失效后的重新注册
      */
-    private final Map<String, List<ServiceRegistryInfo>> serviceCache = new ConcurrentHashMap<>();
+    private ScheduledExecutorService registryExecutor;
+    private volatile boolean closed = false;
+    
+    /**
+     * 服务键到本地服务目录的映射，目录加载完成后才放入
+     */
+    private final Map<String, ServiceDirectory> directories = new ConcurrentHashMap<>();
+    
+    /**
+     * 正在加载的服务目录，同一服务的并发首次查询只加载一次
+     */
+    private final Map<String, CompletableFuture<ServiceDirectory>> loadingDirectories = new ConcurrentHashMap<>();
+    
+    /**
+     * 服务键到目录watch的映射
+     */
+    private final Map<String, Watcher> watchers = new ConcurrentHashMap<>();
     
     /**
      * 监听器映射
@@ -42,22 +80,38 @@ public class EtcdRegistry implements ServiceRegistry {
     private final Map<String, List<ServiceChangeListener>> listeners = new ConcurrentHashMap<>();
     
     /**
-     * 租约ID映射
+     * 本进程注册的所有键及其值，共享租约失效后据此重新注册
      */
-    private final Map<String, Long> leaseMap = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> registeredServices = new ConcurrentHashMap<>();
+    
+    /**
+     * 本进程所有注册键共享的租约，受this保护
+     */
+    private CompletableFuture<Long> leaseFuture;
+    
+    /**
+     * 共享租约的keepAlive流，受this保护
+     */
+    private CloseableClient keepAliveClient;
+    
+    /**
+     * 等待合并提交的注册请求，受registrationLock保护
+     */
+    private final Object registrationLock = new Object();
+    private List<PendingRegistration> pendingRegistrations = new ArrayList<>();
+    private boolean registrationFlushScheduled = false;
     
     @Override
     public void init(String address) {
         try {
             client = Client.builder()
                     .endpoints(address)
-                    .connectTimeout(Duration.ofSeconds(5))
                     .build();
             kvClient = client.getKVClient();
             watchClient = client.getWatchClient();
             leaseClient = client.getLeaseClient();
-            heartbeatExecutor = Executors.newScheduledThreadPool(1, r -> {
-                Thread thread = new Thread(r, "rpc-heartbeat");
+            registryExecutor = Executors.newScheduledThreadPool(1, r -> {
+                Thread thread = new Thread(r, "rpc-registry");
                 thread.setDaemon(true);
                 return thread;
             });
@@ -68,149 +122,95 @@ public class EtcdRegistry implements ServiceRegistry {
         }
     }
     
+    /**
+     * 注册服务，短时间内的多个注册请求合并到一个etcd事务中提交，所有键绑定同一个租约
+     */
     @Override
     public CompletableFuture<Boolean> register(ServiceRegistryInfo registryInfo) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String serviceKey = registryInfo.getServiceKey();
-                String registerKey = RpcConstant.SERVICE_REGISTER_PREFIX + serviceKey + "/" + registryInfo.getAddress();
-                
-                // 创建租约
-                long leaseId = leaseClient.grant(RpcConstant.DEFAULT_LEASE_TTL).get().getID();
-                leaseMap.put(registerKey, leaseId);
-                
-                // 序列化服务信息
-                byte[] value = serializeServiceInfo(registryInfo);
-                
-                // 设置key-value并绑定租约
-                kvClient.put(
-                        ByteSequence.from(registerKey, StandardCharsets.UTF_8),
-                        ByteSequence.from(value, StandardCharsets.UTF_8),
-                        PutOption.newBuilder().withLeaseId(leaseId).build()
-                ).get();
-                
-                // 启动心跳续约
-                startHeartbeat(registerKey, leaseId);
-                
-                log.info("Service registered: {} at {}", serviceKey, registryInfo.getAddress());
-                return true;
-            } catch (Exception e) {
-                log.error("Failed to register service: {}", registryInfo.getServiceKey(), e);
-                throw new CompletionException(e);
+        String registerKey = getRegisterKey(registryInfo);
+        byte[] value = serializeServiceInfo(registryInfo);
+        registeredServices.put(registerKey, value);
+        
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        enqueueRegistration(new PendingRegistration(registerKey, value, future));
+        return future.whenComplete((result, ex) -> {
+            if (ex != null) {
+                log.error("Failed to register service: {}", registryInfo.getServiceKey(), ex);
+            } else {
+                log.info("Service registered: {} at {}", registryInfo.getServiceKey(), registryInfo.getAddress());
             }
         });
     }
     
     @Override
     public CompletableFuture<Boolean> unregister(ServiceRegistryInfo registryInfo) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String serviceKey = registryInfo.getServiceKey();
-                String registerKey = RpcConstant.SERVICE_REGISTER_PREFIX + serviceKey + "/" + registryInfo.getAddress();
-                
-                // 删除key
-                kvClient.delete(ByteSequence.from(registerKey, StandardCharsets.UTF_8)).get();
-                
-                // 撤销租约
-                Long leaseId = leaseMap.remove(registerKey);
-                if (leaseId != null) {
-                    leaseClient.revoke(leaseId);
-                }
-                
-                log.info("Service unregistered: {} from {}", serviceKey, registryInfo.getAddress());
-                return true;
-            } catch (Exception e) {
-                log.error("Failed to unregister service: {}", registryInfo.getServiceKey(), e);
-                throw new CompletionException(e);
-            }
-        });
+        String registerKey = getRegisterKey(registryInfo);
+        // 先从注册表中移除，尚未提交的注册请求不会再写入
+        registeredServices.remove(registerKey);
+        
+        // 共享租约仍被其他服务使用，只删除该服务的键
+        return kvClient.delete(ByteSequence.from(registerKey, StandardCharsets.UTF_8))
+                .thenApply(response -> {
+                    log.info("Service unregistered: {} from {}", registryInfo.getServiceKey(), registryInfo.getAddress());
+                    return true;
+                })
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to unregister service: {}", registryInfo.getServiceKey(), ex);
+                    }
+                });
     }
     
     @Override
     public CompletableFuture<List<ServiceRegistryInfo>> discover(String serviceName, String group, String version) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String serviceKey = String.format("%s:%s:%s", serviceName, group, version);
-                String prefix = RpcConstant.SERVICE_REGISTER_PREFIX + serviceKey + "/";
-                
-                // 尝试从缓存获取
-                List<ServiceRegistryInfo> cachedServices = serviceCache.get(serviceKey);
-                if (cachedServices != null && !cachedServices.isEmpty()) {
-                    return cachedServices;
-                }
-                
-                // 从etcd查询
-                List<ServiceRegistryInfo> services = new ArrayList<>();
-                List<KeyValue> kvs = kvClient.get(
-                        ByteSequence.from(prefix, StandardCharsets.UTF_8),
-                        GetOption.newBuilder().withPrefix(ByteSequence.from(prefix, StandardCharsets.UTF_8)).build()
-                ).get().getKvs();
-                
-                for (KeyValue kv : kvs) {
-                    ServiceRegistryInfo info = deserializeServiceInfo(kv.getValue().getBytes());
-                    if (info != null && info.isHealthy()) {
-                        services.add(info);
-                    }
-                }
-                
-                // 更新缓存
-                serviceCache.put(serviceKey, services);
-                
-                log.debug("Discovered {} instances for service: {}", services.size(), serviceKey);
-                return services;
-            } catch (Exception e) {
-                log.error("Failed to discover service: {}", serviceName, e);
-                throw new CompletionException(e);
-            }
-        });
+        String serviceKey = String.format("%s:%s:%s", serviceName, group, version);
+        
+        // 目录已加载时直接返回当前快照，不访问etcd
+        ServiceDirectory directory = directories.get(serviceKey);
+        if (directory != null) {
+            return directory.getInstancesFuture();
+        }
+        return loadDirectory(serviceKey).thenApply(ServiceDirectory::getInstances);
     }
     
+    /**
+     * 立即续约一次共享租约，正常情况下由keepAlive流自动续约，不需要调用
+     */
     @Override
     public CompletableFuture<Boolean> renewLease(ServiceRegistryInfo registryInfo) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String serviceKey = registryInfo.getServiceKey();
-                String registerKey = RpcConstant.SERVICE_REGISTER_PREFIX + serviceKey + "/" + registryInfo.getAddress();
-                
-                Long leaseId = leaseMap.get(registerKey);
-                if (leaseId != null) {
-                    leaseClient.keepAliveOnce(leaseId).get();
-                    log.debug("Renewed lease for service: {} at {}", serviceKey, registryInfo.getAddress());
-                    return true;
-                }
-                return false;
-            } catch (Exception e) {
-                log.error("Failed to renew lease for service: {}", registryInfo.getServiceKey(), e);
-                throw new CompletionException(e);
-            }
+        CompletableFuture<Long> lease;
+        synchronized (this) {
+            lease = leaseFuture;
+        }
+        if (lease == null || !lease.isDone() || lease.isCompletedExceptionally()) {
+            return CompletableFuture.completedFuture(false);
+        }
+        long leaseId = lease.join();
+        return leaseClient.keepAliveOnce(leaseId).thenApply(response -> {
+            log.debug("Renewed lease {} for service: {}", leaseId, registryInfo.getServiceKey());
+            return true;
         });
     }
     
     @Override
     public void subscribe(String serviceName, String group, String version, ServiceChangeListener listener) {
-        try {
-            String serviceKey = String.format("%s:%s:%s", serviceName, group, version);
-            String prefix = RpcConstant.SERVICE_REGISTER_PREFIX + serviceKey + "/";
-            
-            // 添加监听器
-            listeners.computeIfAbsent(serviceKey, k -> new CopyOnWriteArrayList<>()).add(listener);
-            
-            // 创建watch
-            WatchOption watchOption = WatchOption.newBuilder()
-                    .withPrefix(ByteSequence.from(prefix, StandardCharsets.UTF_8))
-                    .build();
-            
-            Watcher watcher = watchClient.watch(ByteSequence.from(prefix, StandardCharsets.UTF_8), watchOption, response -> {
-                for (WatchEvent event : response.getEvents()) {
-                    handleWatchEvent(serviceKey, event);
+        String serviceKey = String.format("%s:%s:%s", serviceName, group, version);
+        
+        // 添加监听器，目录的watch在加载时建立，变更时通知所有监听器
+        listeners.computeIfAbsent(serviceKey, k -> new CopyOnWriteArrayList<>()).add(listener);
+        ServiceDirectory loaded = directories.get(serviceKey);
+        if (loaded != null) {
+            // 目录已加载时不会再触发加载通知，直接把当前快照交给新监听器
+            notifyListener(listener, loaded);
+        } else {
+            loadDirectory(serviceKey).whenComplete((directory, ex) -> {
+                if (ex != null) {
+                    log.error("Failed to load service directory for subscription: {}", serviceKey, ex);
                 }
             });
-            
-            log.info("Subscribed to service changes: {}", serviceKey);
-        } catch (Exception e) {
-            log.error("Failed to subscribe to service: {}", serviceName, e);
-            throw new RpcException("Failed to subscribe to service", e);
         }
+        
+        log.info("Subscribed to service changes: {}", serviceKey);
     }
     
     @Override
@@ -229,11 +229,20 @@ public class EtcdRegistry implements ServiceRegistry {
     @Override
     public void close() {
         try {
-            // 取消所有心跳任务
-            if (heartbeatExecutor != null) {
-                heartbeatExecutor.shutdownNow();
+            closed = true;
+            if (registryExecutor != null) {
+                registryExecutor.shutdownNow();
             }
             
+            // 停止续约并撤销共享租约，本进程注册的键随之立即删除
+            revokeLease();
+            
+            // 取消所有目录watch
+            for (Watcher watcher : watchers.values()) {
+                watcher.close();
+            }
+            watchers.clear();
+            
             // 关闭客户端
             if (client != null) {
                 client.close();
@@ -245,94 +254,356 @@ public class EtcdRegistry implements ServiceRegistry {
         }
     }
     
+    private String getRegisterKey(ServiceRegistryInfo registryInfo) {
+        return RpcConstant.SERVICE_REGISTER_PREFIX + registryInfo.getServiceKey() + "/" + registryInfo.getAddress();
+    }
+    
+    private void enqueueRegistration(PendingRegistration registration) {
+        synchronized (registrationLock) {
+            pendingRegistrations.add(registration);
+            if (registrationFlushScheduled) {
+                return;
+            }
+            registrationFlushScheduled = true;
+        }
+        registryExecutor.schedule(this::flushRegistrations, REGISTER_BATCH_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+    
     /**
-     * 启动心跳续约
+     * 把积攒的注册请求绑定到共享租约，每个事务最多MAX_TXN_OPS个put
      */
-    private void startHeartbeat(String registerKey, long leaseId) {
-        heartbeatExecutor.scheduleAtFixedRate(() -> {
-            try {
-                leaseClient.keepAliveOnce(leaseId).get();
-                log.debug("Heartbeat sent for lease: {}", leaseId);
-            } catch (Exception e) {
-                log.error("Heartbeat failed for lease: {}", leaseId, e);
+    private void flushRegistrations() {
+        List<PendingRegistration> batch;
+        synchronized (registrationLock) {
+            batch = pendingRegistrations;
+            pendingRegistrations = new ArrayList<>();
+            registrationFlushScheduled = false;
+        }
+        
+        // 已注销或已被重新注册覆盖的请求不再写入
+        List<PendingRegistration> valid = new ArrayList<>(batch.size());
+        for (PendingRegistration registration : batch) {
+            if (registeredServices.get(registration.registerKey) == registration.value) {
+                valid.add(registration);
+            } else {
+                registration.future.complete(false);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+        
+        getLease().whenComplete((leaseId, leaseError) -> {
+            if (leaseError != null) {
+                for (PendingRegistration registration : valid) {
+                    registration.future.completeExceptionally(leaseError);
+                }
+                return;
+            }
+            PutOption putOption = PutOption.newBuilder().withLeaseId(leaseId).build();
+            for (int from = 0; from < valid.size(); from += MAX_TXN_OPS) {
+                List<PendingRegistration> chunk = valid.subList(from, Math.min(valid.size(), from + MAX_TXN_OPS));
+                Op[] puts = new Op[chunk.size()];
+                for (int i = 0; i < puts.length; i++) {
+                    PendingRegistration registration = chunk.get(i);
+                    puts[i] = Op.put(ByteSequence.from(registration.registerKey, StandardCharsets.UTF_8),
+                            ByteSequence.from(registration.value), putOption);
+                }
+                kvClient.txn().Then(puts).commit().whenComplete((response, ex) -> {
+                    for (PendingRegistration registration : chunk) {
+                        if (ex != null) {
+                            registration.future.completeExceptionally(ex);
+                        } else if (!registeredServices.containsKey(registration.registerKey)) {
+                            // 提交期间已被注销，unregister的删除可能先于put生效，再删除一次避免残留
+                            deleteUnregisteredKey(registration);
+                        } else {
+                            registration.future.complete(true);
+                        }
+                    }
+                });
             }
-        }, RpcConstant.DEFAULT_HEARTBEAT_INTERVAL / 2, RpcConstant.DEFAULT_HEARTBEAT_INTERVAL / 2, TimeUnit.MILLISECONDS);
+            log.debug("Committed {} registrations with lease {}", valid.size(), leaseId);
+        });
     }
     
     /**
-     * 处理watch事件
+     * 删除已写入但在提交期间被注销的键，重新注册的键由其自身的注册请求写入，不会被删除
      */
-    private void handleWatchEvent(String serviceKey, WatchEvent event) {
-        try {
-            List<ServiceRegistryInfo> services = discoverServices(serviceKey);
-            
-            // 更新缓存
-            serviceCache.put(serviceKey, services);
-            
-            // 通知监听器
-            List<ServiceChangeListener> serviceListeners = listeners.get(serviceKey);
-            if (CollUtil.isNotEmpty(serviceListeners)) {
-                for (ServiceChangeListener listener : serviceListeners) {
-                    try {
-                        listener.onServicesChanged(serviceKey, services);
-                    } catch (Exception e) {
-                        log.error("Error notifying listener for service: {}", serviceKey, e);
+    private void deleteUnregisteredKey(PendingRegistration registration) {
+        kvClient.delete(ByteSequence.from(registration.registerKey, StandardCharsets.UTF_8))
+                .whenComplete((response, ex) -> {
+                    if (ex != null) {
+                        log.warn("Failed to delete unregistered key: {}, it will expire with the lease",
+                                registration.registerKey, ex);
+                    } else {
+                        log.debug("Deleted key unregistered during commit: {}", registration.registerKey);
                     }
-                }
+                    registration.future.complete(false);
+                });
+    }
+    
+    /**
+     * 获取共享租约，不存在时创建并启动keepAlive流
+     */
+    private synchronized CompletableFuture<Long> getLease() {
+        if (leaseFuture == null || leaseFuture.isCompletedExceptionally()) {
+            leaseFuture = leaseClient.grant(LEASE_TTL_SECONDS).thenApply(response -> {
+                long leaseId = response.getID();
+                startKeepAlive(leaseId);
+                log.info("Granted shared lease {} with ttl {}s", leaseId, LEASE_TTL_SECONDS);
+                return leaseId;
+            });
+        }
+        return leaseFuture;
+    }
+    
+    /**
+     * 通过一个keepAlive流持续为共享租约续约
+     */
+    private synchronized void startKeepAlive(long leaseId) {
+        if (keepAliveClient != null) {
+            keepAliveClient.close();
+        }
+        keepAliveClient = leaseClient.keepAlive(leaseId, new StreamObserver<LeaseKeepAliveResponse>() {
+            @Override
+            public void onNext(LeaseKeepAliveResponse response) {
+                log.trace("Lease {} kept alive, ttl: {}", leaseId, response.getTTL());
             }
             
-            log.debug("Service changed: {}, instances: {}", serviceKey, services.size());
+            @Override
+            public void onError(Throwable t) {
+                log.warn("KeepAlive for lease {} failed", leaseId, t);
+                handleLeaseLost(leaseId);
+            }
+            
+            @Override
+            public void onCompleted() {
+                handleLeaseLost(leaseId);
+            }
+        });
+    }
+    
+    /**
+     * 共享租约失效后，绑定在其上的键已被etcd删除，用新租约重新注册本进程的所有服务
+     */
+    private void handleLeaseLost(long leaseId) {
+        if (closed) {
+            return;
+        }
+        synchronized (this) {
+            if (leaseFuture == null || leaseFuture.isCompletedExceptionally() || leaseFuture.getNow(-1L) != leaseId) {
+                return;
+            }
+            leaseFuture = null;
+            if (keepAliveClient != null) {
+                keepAliveClient.close();
+                keepAliveClient = null;
+            }
+        }
+        log.warn("Lease {} lost, re-registering {} services", leaseId, registeredServices.size());
+        registryExecutor.schedule(() -> {
+            for (Map.Entry<String, byte[]> entry : registeredServices.entrySet()) {
+                enqueueRegistration(new PendingRegistration(entry.getKey(), entry.getValue(), new CompletableFuture<>()));
+            }
+        }, RpcConstant.DEFAULT_RETRY_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+    
+    private void revokeLease() {
+        CompletableFuture<Long> lease;
+        synchronized (this) {
+            lease = leaseFuture;
+            leaseFuture = null;
+            if (keepAliveClient != null) {
+                keepAliveClient.close();
+                keepAliveClient = null;
+            }
+        }
+        if (lease == null || !lease.isDone() || lease.isCompletedExceptionally()) {
+            return;
+        }
+        try {
+            leaseClient.revoke(lease.join()).get(REVOKE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
         } catch (Exception e) {
-            log.error("Failed to handle watch event for service: {}", serviceKey, e);
+            log.warn("Failed to revoke lease {}, keys will expire with the lease ttl", lease.join(), e);
+        }
+    }
+    
+    /**
+     * 加载服务目录：先读取一次全量数据，再从读取时的修订号之后开始watch增量变更
+     */
+    private CompletableFuture<ServiceDirectory> loadDirectory(String serviceKey) {
+        ServiceDirectory loaded = directories.get(serviceKey);
+        if (loaded != null) {
+            return CompletableFuture.completedFuture(loaded);
+        }
+        CompletableFuture<ServiceDirectory> loading = new CompletableFuture<>();
+        CompletableFuture<ServiceDirectory> existing = loadingDirectories.putIfAbsent(serviceKey, loading);
+        if (existing != null) {
+            return existing;
         }
+        
+        ByteSequence prefix = ByteSequence.from(
+                RpcConstant.SERVICE_REGISTER_PREFIX + serviceKey + "/", StandardCharsets.UTF_8);
+        kvClient.get(prefix, GetOption.newBuilder().withPrefix(prefix).build()).whenComplete((response, ex) -> {
+            if (ex != null) {
+                log.error("Failed to load service directory: {}", serviceKey, ex);
+                // 加载失败时移除，下次查询重新加载
+                loadingDirectories.remove(serviceKey, loading);
+                loading.completeExceptionally(ex);
+                return;
+            }
+            
+            Map<String, ServiceRegistryInfo> instances = new HashMap<>();
+            for (KeyValue kv : response.getKvs()) {
+                ServiceRegistryInfo info = deserializeServiceInfo(kv.getValue().getBytes());
+                if (info != null) {
+                    instances.put(kv.getKey().toString(StandardCharsets.UTF_8), info);
+                }
+            }
+            long revision = response.getHeader().getRevision();
+            ServiceDirectory directory = new ServiceDirectory(serviceKey);
+            directory.reset(instances, revision);
+            
+            try {
+                watchDirectory(directory, prefix, revision + 1);
+            } catch (Exception e) {
+                log.error("Failed to watch service directory: {}", serviceKey, e);
+                loadingDirectories.remove(serviceKey, loading);
+                loading.completeExceptionally(e);
+                return;
+            }
+            directories.put(serviceKey, directory);
+            loadingDirectories.remove(serviceKey, loading);
+            
+            log.debug("Loaded {} instances for service: {} at revision {}",
+                    directory.getInstances().size(), serviceKey, revision);
+            notifyListeners(directory);
+            loading.complete(directory);
+        });
+        return loading;
     }
     
     /**
-     * 重新发现服务
+     * 从指定修订号开始watch服务目录的变更
      */
-    private List<ServiceRegistryInfo> discoverServices(String serviceKey) throws Exception {
-        String prefix = RpcConstant.SERVICE_REGISTER_PREFIX + serviceKey + "/";
-        List<ServiceRegistryInfo> services = new ArrayList<>();
+    private void watchDirectory(ServiceDirectory directory, ByteSequence prefix, long fromRevision) {
+        String serviceKey = directory.getServiceKey();
+        WatchOption watchOption = WatchOption.newBuilder()
+                .withPrefix(prefix)
+                .withRevision(fromRevision)
+                .build();
         
-        List<KeyValue> kvs = kvClient.get(
-                ByteSequence.from(prefix, StandardCharsets.UTF_8),
-                GetOption.newBuilder().withPrefix(ByteSequence.from(prefix, StandardCharsets.UTF_8)).build()
-        ).get().getKvs();
+        Watcher watcher = watchClient.watch(prefix, watchOption, response -> {
+            boolean changed = false;
+            for (WatchEvent event : response.getEvents()) {
+                changed |= applyWatchEvent(directory, event);
+            }
+            if (changed) {
+                log.debug("Service changed: {}, instances: {}", serviceKey, directory.getInstances().size());
+                notifyListeners(directory);
+            }
+        }, ex -> {
+            // watch中断（例如修订号已被压缩）后丢弃目录，有订阅者时立即重新加载，否则下次查询时加载
+            log.warn("Watch for service {} failed, directory will be reloaded", serviceKey, ex);
+            directories.remove(serviceKey, directory);
+            Watcher failed = watchers.remove(serviceKey);
+            if (failed != null) {
+                failed.close();
+            }
+            reloadSubscribedDirectory(serviceKey);
+        });
         
-        for (KeyValue kv : kvs) {
-            ServiceRegistryInfo info = deserializeServiceInfo(kv.getValue().getBytes());
-            if (info != null && info.isHealthy()) {
-                services.add(info);
+        Watcher previous = watchers.put(serviceKey, watcher);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+    
+    /**
+     * 重新加载有订阅者的服务目录，加载失败时按重试间隔继续重试，直到成功或不再有订阅者
+     */
+    private void reloadSubscribedDirectory(String serviceKey) {
+        if (closed || CollUtil.isEmpty(listeners.get(serviceKey))) {
+            return;
+        }
+        loadDirectory(serviceKey).whenComplete((directory, ex) -> {
+            if (ex != null && !closed) {
+                registryExecutor.schedule(() -> reloadSubscribedDirectory(serviceKey),
+                        RpcConstant.DEFAULT_RETRY_INTERVAL, TimeUnit.MILLISECONDS);
             }
+        });
+    }
+    
+    /**
+     * 把一个watch事件应用到目录
+     * @return 目录是否发生变化
+     */
+    private boolean applyWatchEvent(ServiceDirectory directory, WatchEvent event) {
+        KeyValue kv = event.getKeyValue();
+        String registerKey = kv.getKey().toString(StandardCharsets.UTF_8);
+        switch (event.getEventType()) {
+            case PUT:
+                ServiceRegistryInfo info = deserializeServiceInfo(kv.getValue().getBytes());
+                return info != null && directory.put(registerKey, info, kv.getModRevision());
+            case DELETE:
+                return directory.remove(registerKey, kv.getModRevision());
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * 通知服务变更监听器
+     */
+    private void notifyListeners(ServiceDirectory directory) {
+        List<ServiceChangeListener> serviceListeners = listeners.get(directory.getServiceKey());
+        if (CollUtil.isEmpty(serviceListeners)) {
+            return;
+        }
+        for (ServiceChangeListener listener : serviceListeners) {
+            notifyListener(listener, directory);
+        }
+    }
+    
+    private void notifyListener(ServiceChangeListener listener, ServiceDirectory directory) {
+        try {
+            listener.onServicesChanged(directory.getServiceKey(), directory.getInstances());
+        } catch (Exception e) {
+            log.error("Error notifying listener for service: {}", directory.getServiceKey(), e);
         }
-        
-        return services;
     }
     
     /**
      * 序列化服务信息
      */
     private byte[] serializeServiceInfo(ServiceRegistryInfo info) {
-        // 简化实现，实际应该使用序列化器
-        return info.toString().getBytes(StandardCharsets.UTF_8);
+        return ServiceInfoCodec.encode(info);
     }
     
     /**
-     * 反序列化服务信息
+     * 反序列化服务信息，无法解析时返回null
      */
     private ServiceRegistryInfo deserializeServiceInfo(byte[] bytes) {
-        // 简化实现，实际应该使用序列化器
         try {
-            String str = new String(bytes, StandardCharsets.UTF_8);
-            // 这里应该根据实际的序列化方式进行反序列化
-            // 现在返回一个模拟对象
-            ServiceRegistryInfo info = new ServiceRegistryInfo();
-            info.setServiceName("unknown");
-            info.setHealthy(true);
-            return info;
+            return ServiceInfoCodec.decode(bytes);
         } catch (Exception e) {
             log.error("Failed to deserialize service info", e);
             return null;
         }
     }
+    
+    /**
+     * 等待提交的注册请求
+     */
+    private static class PendingRegistration {
+        private final String registerKey;
+        private final byte[] value;
+        private final CompletableFuture<Boolean> future;
+        
+        PendingRegistration(String registerKey, byte[] value, CompletableFuture<Boolean> future) {
+            this.registerKey = registerKey;
+            this.value = value;
+            this.future = future;
+        }
+    }
 }
\ No newline at end of file
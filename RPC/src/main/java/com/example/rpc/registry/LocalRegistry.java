@@ -0,0 +1,163 @@
+package com.example.rpc.registry;
+
+import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.model.ServiceRegistryInfo;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于内存的服务注册中心实现
+ * 同一JVM内的所有实例共享同一份服务目录，适合测试、基准测试和客户端与服务端部署在同一进程的场景，
+ * 注册和发现都不经过网络，订阅语义与EtcdRegistry一致
+ */
+@Slf4j
+public class LocalRegistry implements ServiceRegistry {
+    
+    private static final CompletableFuture<List<ServiceRegistryInfo>> EMPTY =
+            CompletableFuture.completedFuture(Collections.emptyList());
+    
+    /**
+     * 进程内共享的服务目录
+     */
+    private static final Map<String, ServiceDirectory> DIRECTORIES = new ConcurrentHashMap<>();
+    
+    /**
+     * 进程内共享的监听器
+     */
+    private static final Map<String, List<ServiceChangeListener>> LISTENERS = new ConcurrentHashMap<>();
+    
+    /**
+     * 全局修订号，每次变更递增
+     */
+    private static final AtomicLong REVISION = new AtomicLong();
+    
+    /**
+     * 本实例注册的键，关闭时注销
+     */
+    private final Map<String, ServiceRegistryInfo> registeredServices = new ConcurrentHashMap<>();
+    
+    /**
+     * 本实例添加的监听器，关闭时移除
+     */
+    private final Set<ServiceChangeListener> ownListeners = ConcurrentHashMap.newKeySet();
+    
+    @Override
+    public void init(String address) {
+        log.info("Local registry initialized");
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> register(ServiceRegistryInfo registryInfo) {
+        String serviceKey = registryInfo.getServiceKey();
+        String registerKey = getRegisterKey(registryInfo);
+        registeredServices.put(registerKey, registryInfo);
+        
+        ServiceDirectory directory = DIRECTORIES.computeIfAbsent(serviceKey, ServiceDirectory::new);
+        synchronized (directory) {
+            // 在目录锁内分配修订号，保证同一目录上的变更按修订号顺序应用
+            directory.put(registerKey, registryInfo, REVISION.incrementAndGet());
+        }
+        notifyListeners(directory);
+        
+        log.info("Service registered: {} at {}", serviceKey, registryInfo.getAddress());
+        return CompletableFuture.completedFuture(true);
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> unregister(ServiceRegistryInfo registryInfo) {
+        String registerKey = getRegisterKey(registryInfo);
+        registeredServices.remove(registerKey);
+        return CompletableFuture.completedFuture(remove(registryInfo.getServiceKey(), registerKey));
+    }
+    
+    @Override
+    public CompletableFuture<List<ServiceRegistryInfo>> discover(String serviceName, String group, String version) {
+        ServiceDirectory directory = DIRECTORIES.get(String.format("%s:%s:%s", serviceName, group, version));
+        return directory != null ? directory.getInstancesFuture() : EMPTY;
+    }
+    
+    /**
+     * 内存中的注册没有租约，已注册的服务续约总是成功
+     */
+    @Override
+    public CompletableFuture<Boolean> renewLease(ServiceRegistryInfo registryInfo) {
+        return CompletableFuture.completedFuture(registeredServices.containsKey(getRegisterKey(registryInfo)));
+    }
+    
+    @Override
+    public void subscribe(String serviceName, String group, String version, ServiceChangeListener listener) {
+        String serviceKey = String.format("%s:%s:%s", serviceName, group, version);
+        LISTENERS.computeIfAbsent(serviceKey, k -> new CopyOnWriteArrayList<>()).add(listener);
+        ownListeners.add(listener);
+        log.info("Subscribed to service changes: {}", serviceKey);
+    }
+    
+    @Override
+    public void unsubscribe(String serviceName, String group, String version, ServiceChangeListener listener) {
+        String serviceKey = String.format("%s:%s:%s", serviceName, group, version);
+        List<ServiceChangeListener> serviceListeners = LISTENERS.get(serviceKey);
+        if (serviceListeners != null) {
+            serviceListeners.remove(listener);
+            ownListeners.remove(listener);
+            log.info("Unsubscribed from service changes: {}", serviceKey);
+        }
+    }
+    
+    /**
+     * 关闭时注销本实例注册的服务并移除本实例的监听器，其他实例的数据不受影响
+     */
+    @Override
+    public void close() {
+        for (Map.Entry<String, ServiceRegistryInfo> entry : registeredServices.entrySet()) {
+            remove(entry.getValue().getServiceKey(), entry.getKey());
+        }
+        registeredServices.clear();
+        for (List<ServiceChangeListener> serviceListeners : LISTENERS.values()) {
+            serviceListeners.removeAll(ownListeners);
+        }
+        ownListeners.clear();
+        log.info("Local registry closed");
+    }
+    
+    private boolean remove(String serviceKey, String registerKey) {
+        ServiceDirectory directory = DIRECTORIES.get(serviceKey);
+        if (directory == null) {
+            return false;
+        }
+        synchronized (directory) {
+            if (!directory.remove(registerKey, REVISION.incrementAndGet())) {
+                return false;
+            }
+        }
+        notifyListeners(directory);
+        log.info("Service unregistered: {} from {}", serviceKey, registerKey);
+        return true;
+    }
+    
+    private String getRegisterKey(ServiceRegistryInfo registryInfo) {
+        return RpcConstant.SERVICE_REGISTER_PREFIX + registryInfo.getServiceKey() + "/" + registryInfo.getAddress();
+    }
+    
+    private void notifyListeners(ServiceDirectory directory) {
+        List<ServiceChangeListener> serviceListeners = LISTENERS.get(directory.getServiceKey());
+        if (serviceListeners == null || serviceListeners.isEmpty()) {
+            return;
+        }
+        List<ServiceRegistryInfo> services = directory.getInstances();
+        for (ServiceChangeListener listener : serviceListeners) {
+            try {
+                listener.onServicesChanged(directory.getServiceKey(), services);
+            } catch (Exception e) {
+                log.error("Error notifying listener for service: {}", directory.getServiceKey(), e);
+            }
+        }
+    }
+}
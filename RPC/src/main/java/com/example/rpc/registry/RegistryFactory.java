@@ -10,21 +10,14 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class RegistryFactory {
     
-    private static final ServiceRegistry DEFAULT_REGISTRY;
-    
-    static {
-        // 初始化默认注册中心
-        DEFAULT_REGISTRY = createRegistry(RpcConstant.REGISTRY_TYPE_ETCD, RpcConstant.DEFAULT_REGISTRY_ADDRESS);
-    }
-    
     /**
-     * 创建注册中心实例
+     * 创建注册中心实例，每次调用都返回新的实例，关闭时只影响该实例注册的服务和订阅
      */
     public static ServiceRegistry createRegistry(String type, String address) {
         try {
             // 通过SPI加载注册中心实现
             SpiLoader<ServiceRegistry> loader = SpiLoader.getInstance(ServiceRegistry.class);
-            ServiceRegistry registry = loader.getInstance(type);
+            ServiceRegistry registry = loader.newInstance(type);
             
             // 初始化注册中心
             registry.init(address);
@@ -40,13 +33,21 @@ public class RegistryFactory {
      * 获取默认注册中心实例
      */
     public static ServiceRegistry getDefaultRegistry() {
-        return DEFAULT_REGISTRY;
+        return DefaultRegistryHolder.INSTANCE;
     }
     
     /**
      * 获取注册中心实例（与getDefaultRegistry方法保持一致）
      */
     public static ServiceRegistry getRegistry() {
-        return DEFAULT_REGISTRY;
+        return DefaultRegistryHolder.INSTANCE;
+    }
+    
+    /**
+     * 默认注册中心在首次使用时才创建，只使用其他注册中心时不会连接etcd
+     */
+    private static class DefaultRegistryHolder {
+        private static final ServiceRegistry INSTANCE =
+                createRegistry(RpcConstant.REGISTRY_TYPE_ETCD, RpcConstant.DEFAULT_REGISTRY_ADDRESS);
     }
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.example.rpc.registry;
+
+import com.example.rpc.model.ServiceRegistryInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 单个服务的本地目录
+ * 首次加载全量实例后，按修订号增量应用新增和删除事件，每次变更生成新的不可变快照，
+ * 读取方只需一次volatile读，不加锁也不访问注册中心
+ */
+public class ServiceDirectory {
+    
+    private final String serviceKey;
+    
+    /**
+     * 当前快照，只由持有this锁的写入方替换
+     */
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    
+    public ServiceDirectory(String serviceKey) {
+        this.serviceKey = serviceKey;
+    }
+    
+    /**
+     * 用全量数据替换目录
+     * @param instances 注册键到实例的映射
+     * @param revision 数据对应的修订号
+     */
+    public synchronized void reset(Map<String, ServiceRegistryInfo> instances, long revision) {
+        snapshot = new Snapshot(new HashMap<>(instances), revision);
+    }
+    
+    /**
+     * 新增或更新一个实例，修订号不大于当前修订号的事件已包含在快照中，直接忽略
+     * @return 目录是否发生变化
+     */
+    public synchronized boolean put(String registerKey, ServiceRegistryInfo info, long revision) {
+        if (revision <= snapshot.revision) {
+            return false;
+        }
+        Map<String, ServiceRegistryInfo> instances = new HashMap<>(snapshot.byKey);
+        instances.put(registerKey, info);
+        snapshot = new Snapshot(instances, revision);
+        return true;
+    }
+    
+    /**
+     * 删除一个实例，修订号不大于当前修订号的事件直接忽略
+     * @return 目录是否发生变化
+     */
+    public synchronized boolean remove(String registerKey, long revision) {
+        if (revision <= snapshot.revision || !snapshot.byKey.containsKey(registerKey)) {
+            return false;
+        }
+        Map<String, ServiceRegistryInfo> instances = new HashMap<>(snapshot.byKey);
+        instances.remove(registerKey);
+        snapshot = new Snapshot(instances, revision);
+        return true;
+    }
+    
+    /**
+     * 获取健康实例列表，返回的列表不可修改
+     */
+    public List<ServiceRegistryInfo> getInstances() {
+        return snapshot.instances;
+    }
+    
+    /**
+     * 获取以健康实例列表完成的future，同一快照复用同一个已完成的future
+     */
+    public CompletableFuture<List<ServiceRegistryInfo>> getInstancesFuture() {
+        return snapshot.instancesFuture;
+    }
+    
+    /**
+     * 获取快照对应的修订号
+     */
+    public long getRevision() {
+        return snapshot.revision;
+    }
+    
+    public String getServiceKey() {
+        return serviceKey;
+    }
+    
+    /**
+     * 目录的不可变快照
+     */
+    private static final class Snapshot {
+        
+        static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), 0);
+        
+        final Map<String, ServiceRegistryInfo> byKey;
+        final List<ServiceRegistryInfo> instances;
+        final CompletableFuture<List<ServiceRegistryInfo>> instancesFuture;
+        final long revision;
+        
+        Snapshot(Map<String, ServiceRegistryInfo> byKey, long revision) {
+            List<ServiceRegistryInfo> healthy = new ArrayList<>(byKey.size());
+            for (ServiceRegistryInfo info : byKey.values()) {
+                if (info != null && info.isHealthy()) {
+                    healthy.add(info);
+                }
+            }
+            this.byKey = byKey;
+            this.instances = Collections.unmodifiableList(healthy);
+            this.instancesFuture = CompletableFuture.completedFuture(this.instances);
+            this.revision = revision;
+        }
+    }
+}
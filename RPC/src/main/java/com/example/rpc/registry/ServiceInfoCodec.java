@@ -0,0 +1,214 @@
+package com.example.rpc.registry;
+
+import com.example.rpc.exception.RpcException;
+import com.example.rpc.model.ServiceRegistryInfo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 注册中心中服务信息的编解码器
+ *
+ * 二进制格式：
+ * <pre>
+ * | 标记 1 | 格式版本 1 | serviceName | group | version | implClassName | host |
+ * | port 4 | weight 4 | healthy 1 | createTime 8 | lastHeartbeatTime 8 | metadata |
+ * </pre>
+ * 字符串先写1字节的非空标记再写UTF，metadata先写条目数（-1表示null）再依次写键和值。
+ * 新增字段只能追加在末尾，旧版本解码时忽略末尾多出的数据
+ *
+ * 旧版本写入的是ServiceRegistryInfo.toString()的文本，首字节为ASCII字符，
+ * 解码时按文本格式兼容读取，服务重新注册后即写入新格式
+ */
+public final class ServiceInfoCodec {
+    
+    /**
+     * 二进制格式标记，不是ASCII字符，可与旧的文本格式区分
+     */
+    private static final byte FORMAT_MARKER = (byte) 0xB7;
+    
+    /**
+     * 当前格式版本
+     */
+    private static final byte FORMAT_VERSION = 1;
+    
+    /**
+     * 旧文本格式的前缀
+     */
+    private static final String LEGACY_PREFIX = "ServiceRegistryInfo(";
+    
+    /**
+     * 旧文本格式中字段的顺序，与ServiceRegistryInfo的字段声明顺序一致
+     */
+    private static final String[] LEGACY_FIELDS = {"serviceName", "version", "group", "implClassName", "host",
+            "port", "weight", "healthy", "metadata", "createTime", "lastHeartbeatTime"};
+    
+    private ServiceInfoCodec() {
+    }
+    
+    /**
+     * 编码服务信息
+     */
+    public static byte[] encode(ServiceRegistryInfo info) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_MARKER);
+            out.writeByte(FORMAT_VERSION);
+            writeString(out, info.getServiceName());
+            writeString(out, info.getGroup());
+            writeString(out, info.getVersion());
+            writeString(out, info.getImplClassName());
+            writeString(out, info.getHost());
+            out.writeInt(info.getPort());
+            out.writeInt(info.getWeight());
+            out.writeBoolean(info.isHealthy());
+            out.writeLong(info.getCreateTime());
+            out.writeLong(info.getLastHeartbeatTime());
+            Map<String, String> metadata = info.getMetadata();
+            if (metadata == null) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(metadata.size());
+                for (Map.Entry<String, String> entry : metadata.entrySet()) {
+                    writeString(out, entry.getKey());
+                    writeString(out, entry.getValue());
+                }
+            }
+        } catch (IOException e) {
+            throw new RpcException("Failed to encode service info: " + info.getServiceKey(), e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * 解码服务信息，同时支持二进制格式和旧的文本格式
+     */
+    public static ServiceRegistryInfo decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            throw new RpcException("Empty service info");
+        }
+        if (bytes[0] != FORMAT_MARKER) {
+            return decodeLegacy(new String(bytes, StandardCharsets.UTF_8));
+        }
+        
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+            byte formatVersion = in.readByte();
+            if (formatVersion < 1 || formatVersion > FORMAT_VERSION) {
+                throw new RpcException("Unsupported service info format version: " + formatVersion);
+            }
+            ServiceRegistryInfo info = new ServiceRegistryInfo();
+            info.setServiceName(readString(in));
+            info.setGroup(readString(in));
+            info.setVersion(readString(in));
+            info.setImplClassName(readString(in));
+            info.setHost(readString(in));
+            info.setPort(in.readInt());
+            info.setWeight(in.readInt());
+            info.setHealthy(in.readBoolean());
+            info.setCreateTime(in.readLong());
+            info.setLastHeartbeatTime(in.readLong());
+            int metadataSize = in.readInt();
+            if (metadataSize >= 0) {
+                Map<String, String> metadata = new HashMap<>(Math.max(4, metadataSize * 2));
+                for (int i = 0; i < metadataSize; i++) {
+                    metadata.put(readString(in), readString(in));
+                }
+                info.setMetadata(metadata);
+            }
+            return info;
+        } catch (IOException e) {
+            throw new RpcException("Failed to decode service info", e);
+        }
+    }
+    
+    /**
+     * 解码旧版本写入的toString()文本
+     */
+    static ServiceRegistryInfo decodeLegacy(String text) {
+        if (!text.startsWith(LEGACY_PREFIX) || !text.endsWith(")")) {
+            throw new RpcException("Unrecognized service info: " + text);
+        }
+        String body = text.substring(LEGACY_PREFIX.length(), text.length() - 1);
+        
+        // 按已知的字段顺序切分，metadata的值中可能包含逗号
+        Map<String, String> fields = new LinkedHashMap<>();
+        int start = 0;
+        for (int i = 0; i < LEGACY_FIELDS.length; i++) {
+            String name = LEGACY_FIELDS[i] + "=";
+            if (!body.startsWith(name, start)) {
+                throw new RpcException("Unrecognized service info: " + text);
+            }
+            int valueStart = start + name.length();
+            int valueEnd = body.length();
+            if (i + 1 < LEGACY_FIELDS.length) {
+                valueEnd = body.indexOf(", " + LEGACY_FIELDS[i + 1] + "=", valueStart);
+                if (valueEnd < 0) {
+                    throw new RpcException("Unrecognized service info: " + text);
+                }
+            }
+            fields.put(LEGACY_FIELDS[i], body.substring(valueStart, valueEnd));
+            start = valueEnd + 2;
+        }
+        
+        try {
+            ServiceRegistryInfo info = new ServiceRegistryInfo();
+            info.setServiceName(legacyString(fields.get("serviceName")));
+            info.setVersion(legacyString(fields.get("version")));
+            info.setGroup(legacyString(fields.get("group")));
+            info.setImplClassName(legacyString(fields.get("implClassName")));
+            info.setHost(legacyString(fields.get("host")));
+            info.setPort(Integer.parseInt(fields.get("port")));
+            info.setWeight(Integer.parseInt(fields.get("weight")));
+            info.setHealthy(Boolean.parseBoolean(fields.get("healthy")));
+            info.setMetadata(legacyMetadata(fields.get("metadata")));
+            info.setCreateTime(Long.parseLong(fields.get("createTime")));
+            info.setLastHeartbeatTime(Long.parseLong(fields.get("lastHeartbeatTime")));
+            return info;
+        } catch (NumberFormatException e) {
+            throw new RpcException("Unrecognized service info: " + text, e);
+        }
+    }
+    
+    private static String legacyString(String value) {
+        return "null".equals(value) ? null : value;
+    }
+    
+    /**
+     * 解析Map.toString()格式的元数据，如 {k1=v1, k2=v2}
+     */
+    private static Map<String, String> legacyMetadata(String value) {
+        if ("null".equals(value)) {
+            return null;
+        }
+        Map<String, String> metadata = new HashMap<>();
+        String entries = value.substring(1, value.length() - 1);
+        if (entries.isEmpty()) {
+            return metadata;
+        }
+        for (String entry : entries.split(", ")) {
+            int separator = entry.indexOf('=');
+            if (separator > 0) {
+                metadata.put(entry.substring(0, separator), entry.substring(separator + 1));
+            }
+        }
+        return metadata;
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+    
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.rpc.serializer;
+
+import com.example.rpc.model.RpcRequest;
+
+import java.lang.reflect.Type;
+
+/**
+ * 参数类型解析器
+ * 服务端反序列化请求时，根据已读取的服务名、方法ID或方法签名找到目标方法，
+ * 序列化器据此把每个参数直接反序列化为方法声明的（泛型）类型
+ */
+@FunctionalInterface
+public interface ArgumentTypeResolver {
+    
+    /**
+     * 解析方法的参数类型
+     * @param request 已读取参数值以外字段的请求
+     * @return 方法声明的参数类型，无法确定时返回null
+     */
+    Type[] resolve(RpcRequest request);
+}
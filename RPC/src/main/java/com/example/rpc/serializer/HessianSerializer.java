@@ -6,6 +6,8 @@ import com.caucho.hessian.io.HessianOutput;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 /**
  * Hessian序列化器实现
@@ -30,6 +32,21 @@ public class HessianSerializer implements Serializer {
         }
     }
     
+    @Override
+    public <T> void serialize(T object, OutputStream out) throws IOException {
+        HessianOutput output = new HessianOutput(out);
+        output.writeObject(object);
+        output.flush();
+    }
+    
+    @Override
+    public <T> T deserialize(InputStream in, Class<T> clazz) throws IOException {
+        HessianInput input = new HessianInput(in);
+        @SuppressWarnings("unchecked")
+        T result = (T) input.readObject();
+        return result;
+    }
+    
     @Override
     public byte getType() {
         return 2; // Hessian序列化器类型标识
@@ -1,6 +1,13 @@
 package com.example.rpc.serializer;
 
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.model.RpcResponse;
+
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
 
 /**
  * 序列化器接口
@@ -16,6 +23,46 @@ public interface Serializer {
      */
     <T> T deserialize(byte[] bytes, Class<T> clazz) throws IOException;
     
+    /**
+     * 序列化对象并直接写入输出流，编码时写入网络缓冲区，省去中间字节数组的拷贝
+     * 默认实现先序列化为字节数组，实现类应尽量覆盖为直接写入流
+     */
+    default <T> void serialize(T object, OutputStream out) throws IOException {
+        out.write(serialize(object));
+    }
+    
+    /**
+     * 从输入流反序列化对象，输入流只包含一个消息体，读到末尾即结束
+     * 默认实现先读出全部字节再反序列化，实现类应尽量覆盖为直接读取流
+     */
+    default <T> T deserialize(InputStream in, Class<T> clazz) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(Math.max(32, in.available()));
+        byte[] chunk = new byte[4096];
+        int n;
+        while ((n = in.read(chunk)) != -1) {
+            bos.write(chunk, 0, n);
+        }
+        return deserialize(bos.toByteArray(), clazz);
+    }
+    
+    /**
+     * 反序列化请求，参数按解析器给出的方法参数类型反序列化
+     * 默认实现按消息体自带的类型信息反序列化，适用于Kryo、Hessian等在数据中携带类型的序列化器
+     * @param resolver 参数类型解析器，为null时不解析
+     */
+    default RpcRequest deserializeRequest(InputStream in, ArgumentTypeResolver resolver) throws IOException {
+        return deserialize(in, RpcRequest.class);
+    }
+    
+    /**
+     * 反序列化响应，返回值按调用方法声明的返回类型反序列化
+     * 默认实现按消息体自带的类型信息反序列化
+     * @param dataType 返回值类型，为null时不指定
+     */
+    default RpcResponse<?> deserializeResponse(InputStream in, Type dataType) throws IOException {
+        return deserialize(in, RpcResponse.class);
+    }
+    
     /**
      * 获取序列化器类型
      */
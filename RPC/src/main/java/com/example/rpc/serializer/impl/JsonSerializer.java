@@ -2,15 +2,29 @@ package com.example.rpc.serializer.impl;
 
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONException;
+import com.alibaba.fastjson2.JSONFactory;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.JSONWriter;
+import com.alibaba.fastjson2.util.TypeUtils;
 import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.model.RpcResponse;
+import com.example.rpc.serializer.ArgumentTypeResolver;
 import com.example.rpc.serializer.Serializer;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 
 /**
  * JSON序列化器
  * 使用Fastjson2库实现对象的JSON序列化和反序列化
+ *
+ * JSON中不携带类型信息，请求参数和响应返回值按方法声明的类型直接反序列化：
+ * 请求按固定顺序输出字段，参数值在最后，服务端读到参数值时已经能确定目标方法
  */
 @Slf4j
 public class JsonSerializer implements Serializer {
@@ -21,6 +35,11 @@ public class JsonSerializer implements Serializer {
             return new byte[0];
         }
         try {
+            if (object instanceof RpcRequest) {
+                try (JSONWriter writer = writeRequest((RpcRequest) object)) {
+                    return writer.getBytes();
+                }
+            }
             return JSON.toJSONBytes(object);
         } catch (JSONException e) {
             log.error("Failed to serialize object to JSON: {}", object.getClass().getName(), e);
@@ -34,13 +53,231 @@ public class JsonSerializer implements Serializer {
             return null;
         }
         try {
-            return JSON.parseObject(bytes, clazz);
+            // RpcRequest中的参数类型以类名传输，需要允许按类名加载Class
+            return JSON.parseObject(bytes, clazz, JSONReader.Feature.SupportClassForName);
         } catch (JSONException e) {
             log.error("Failed to deserialize JSON to object: {}", clazz.getName(), e);
             throw new RuntimeException("Failed to deserialize JSON to object", e);
         }
     }
     
+    @Override
+    public <T> void serialize(T object, OutputStream out) throws IOException {
+        if (object == null) {
+            return;
+        }
+        try {
+            if (object instanceof RpcRequest) {
+                try (JSONWriter writer = writeRequest((RpcRequest) object)) {
+                    writer.flushTo(out);
+                }
+                return;
+            }
+            JSON.writeTo(out, object);
+        } catch (JSONException e) {
+            log.error("Failed to serialize object to JSON: {}", object.getClass().getName(), e);
+            throw new RuntimeException("Failed to serialize object to JSON", e);
+        }
+    }
+    
+    @Override
+    public <T> T deserialize(InputStream in, Class<T> clazz) {
+        try {
+            return JSON.parseObject(in, clazz, JSONReader.Feature.SupportClassForName);
+        } catch (JSONException e) {
+            log.error("Failed to deserialize JSON to object: {}", clazz.getName(), e);
+            throw new RuntimeException("Failed to deserialize JSON to object", e);
+        }
+    }
+    
+    @Override
+    public RpcRequest deserializeRequest(InputStream in, ArgumentTypeResolver resolver) {
+        try (JSONReader reader = JSONReader.of(in, StandardCharsets.UTF_8,
+                JSONFactory.createReadContext(JSONReader.Feature.SupportClassForName))) {
+            if (reader.nextIfNull()) {
+                return null;
+            }
+            if (!reader.nextIfObjectStart()) {
+                throw new JSONException("Expected JSON object for RpcRequest");
+            }
+            RpcRequest request = new RpcRequest();
+            boolean typed = false;
+            while (!reader.nextIfObjectEnd()) {
+                String name = reader.readFieldName();
+                if (name == null) {
+                    throw new JSONException("Expected field name at offset " + reader.getOffset());
+                }
+                switch (name) {
+                    case "requestId":
+                        request.setRequestId(reader.readString());
+                        break;
+                    case "serviceName":
+                        request.setServiceName(reader.readString());
+                        break;
+                    case "methodName":
+                        request.setMethodName(reader.readString());
+                        break;
+                    case "methodId":
+                        request.setMethodId(reader.readInt32Value());
+                        break;
+                    case "parameterTypes":
+                        request.setParameterTypes(reader.read(Class[].class));
+                        break;
+                    case "version":
+                        request.setVersion(reader.readString());
+                        break;
+                    case "group":
+                        request.setGroup(reader.readString());
+                        break;
+                    case "timeout":
+                        request.setTimeout(reader.readInt64Value());
+                        break;
+                    case "parameters":
+                        if (reader.nextIfNull()) {
+                            break;
+                        }
+                        Type[] types = resolver != null ? resolver.resolve(request) : null;
+                        if (types != null) {
+                            request.setParameters(readParameters(reader, types));
+                            typed = true;
+                        } else {
+                            request.setParameters(reader.read(Object[].class));
+                        }
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            if (!typed && resolver != null && request.getParameters() != null) {
+                // 参数值出现在方法信息之前时（如按字母顺序输出字段的旧客户端），读完后再按声明类型转换
+                convertParameters(request, resolver.resolve(request));
+            }
+            return request;
+        } catch (JSONException e) {
+            log.error("Failed to deserialize JSON to RpcRequest", e);
+            throw new RuntimeException("Failed to deserialize JSON to RpcRequest", e);
+        }
+    }
+    
+    @Override
+    public RpcResponse<?> deserializeResponse(InputStream in, Type dataType) {
+        try (JSONReader reader = JSONReader.of(in, StandardCharsets.UTF_8)) {
+            if (reader.nextIfNull()) {
+                return null;
+            }
+            if (!reader.nextIfObjectStart()) {
+                throw new JSONException("Expected JSON object for RpcResponse");
+            }
+            RpcResponse<Object> response = new RpcResponse<>();
+            while (!reader.nextIfObjectEnd()) {
+                String name = reader.readFieldName();
+                if (name == null) {
+                    throw new JSONException("Expected field name at offset " + reader.getOffset());
+                }
+                switch (name) {
+                    case "requestId":
+                        response.setRequestId(reader.readString());
+                        break;
+                    case "status":
+                        response.setStatus(reader.readInt32Value());
+                        break;
+                    case "message":
+                        response.setMessage(reader.readString());
+                        break;
+                    case "data":
+                        response.setData(dataType != null ? reader.read(dataType) : reader.readAny());
+                        break;
+                    case "timestamp":
+                        response.setTimestamp(reader.readInt64Value());
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            return response;
+        } catch (JSONException e) {
+            log.error("Failed to deserialize JSON to RpcResponse", e);
+            throw new RuntimeException("Failed to deserialize JSON to RpcResponse", e);
+        }
+    }
+    
+    /**
+     * 按固定顺序输出请求，参数值放在最后
+     */
+    private static JSONWriter writeRequest(RpcRequest request) {
+        JSONWriter writer = JSONWriter.ofUTF8();
+        writer.startObject();
+        writeField(writer, "requestId", request.getRequestId());
+        writeField(writer, "serviceName", request.getServiceName());
+        writeField(writer, "methodName", request.getMethodName());
+        writer.writeName("methodId");
+        writer.writeColon();
+        writer.writeInt32(request.getMethodId());
+        writeField(writer, "group", request.getGroup());
+        writeField(writer, "version", request.getVersion());
+        writer.writeName("timeout");
+        writer.writeColon();
+        writer.writeInt64(request.getTimeout());
+        Class<?>[] parameterTypes = request.getParameterTypes();
+        if (parameterTypes != null) {
+            String[] typeNames = new String[parameterTypes.length];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                typeNames[i] = parameterTypes[i].getName();
+            }
+            writer.writeName("parameterTypes");
+            writer.writeColon();
+            writer.writeAny(typeNames);
+        }
+        if (request.getParameters() != null) {
+            writer.writeName("parameters");
+            writer.writeColon();
+            writer.writeAny(request.getParameters());
+        }
+        writer.endObject();
+        return writer;
+    }
+    
+    private static void writeField(JSONWriter writer, String name, String value) {
+        if (value != null) {
+            writer.writeName(name);
+            writer.writeColon();
+            writer.writeString(value);
+        }
+    }
+    
+    /**
+     * 按参数类型逐个读取参数值
+     */
+    private static Object[] readParameters(JSONReader reader, Type[] types) {
+        if (!reader.nextIfMatch('[')) {
+            throw new JSONException("Expected JSON array for parameters");
+        }
+        Object[] parameters = new Object[types.length];
+        int count = 0;
+        while (!reader.nextIfMatch(']')) {
+            if (count == types.length) {
+                throw new JSONException("Too many parameters, expected " + types.length);
+            }
+            parameters[count] = reader.read(types[count]);
+            count++;
+        }
+        // 数组结束后的逗号需要单独跳过
+        reader.nextIfMatch(',');
+        return parameters;
+    }
+    
+    private static void convertParameters(RpcRequest request, Type[] types) {
+        Object[] parameters = request.getParameters();
+        if (types == null || types.length != parameters.length) {
+            return;
+        }
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = TypeUtils.cast(parameters[i], types[i]);
+        }
+    }
+    
     @Override
     public byte getType() {
         return 0x01; // JSON序列化器类型标识
@@ -50,4 +287,4 @@ public class JsonSerializer implements Serializer {
     public String getName() {
         return RpcConstant.SERIALIZER_JSON;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,169 @@
+package com.example.rpc.serializer.impl;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.DefaultInstantiatorStrategy;
+import com.esotericsoftware.kryo.util.Pool;
+import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.model.RpcResponse;
+import com.example.rpc.serializer.Serializer;
+import lombok.extern.slf4j.Slf4j;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Kryo序列化器
+ * Kryo实例不是线程安全的，这里通过对象池复用Kryo和Output，避免每次调用都重新创建和注册
+ */
+@Slf4j
+public class KryoSerializer implements Serializer {
+    
+    /**
+     * 池中最多保留的实例数
+     */
+    private static final int POOL_MAX_SIZE = 64;
+    
+    /**
+     * Output初始缓冲区大小
+     */
+    private static final int OUTPUT_BUFFER_SIZE = 4096;
+    
+    /**
+     * Output缓冲区超过该大小后不再放回池中，避免大请求长期占用内存
+     */
+    private static final int OUTPUT_MAX_RETAINED_SIZE = 1024 * 1024;
+    
+    /**
+     * 从流读取时的最小缓冲区大小
+     */
+    private static final int INPUT_MIN_BUFFER_SIZE = 64;
+    
+    private final Pool<Kryo> kryoPool = new Pool<Kryo>(true, false, POOL_MAX_SIZE) {
+        @Override
+        protected Kryo create() {
+            return createKryo();
+        }
+    };
+    
+    private final Pool<Output> outputPool = new Pool<Output>(true, false, POOL_MAX_SIZE) {
+        @Override
+        protected Output create() {
+            return new Output(OUTPUT_BUFFER_SIZE, -1);
+        }
+    };
+    
+    /**
+     * 创建Kryo实例并注册常用类型
+     * 注册顺序决定类型ID，客户端和服务端必须保持一致，新增类型只能追加在末尾
+     */
+    private static Kryo createKryo() {
+        Kryo kryo = new Kryo();
+        // 参数和返回值类型由业务决定，无法全部预先注册
+        kryo.setRegistrationRequired(false);
+        kryo.setReferences(false);
+        // 优先使用无参构造函数，没有时跳过构造函数直接创建对象
+        kryo.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+        
+        kryo.register(RpcRequest.class);
+        kryo.register(RpcResponse.class);
+        kryo.register(Class.class);
+        kryo.register(Class[].class);
+        kryo.register(Object[].class);
+        return kryo;
+    }
+    
+    @Override
+    public <T> byte[] serialize(T object) {
+        if (object == null) {
+            return new byte[0];
+        }
+        Kryo kryo = kryoPool.obtain();
+        Output output = outputPool.obtain();
+        try {
+            kryo.writeObject(output, object);
+            return output.toBytes();
+        } catch (KryoException e) {
+            log.error("Failed to serialize object with Kryo: {}", object.getClass().getName(), e);
+            throw new RuntimeException("Failed to serialize object with Kryo", e);
+        } finally {
+            kryoPool.free(kryo);
+            if (output.getBuffer().length <= OUTPUT_MAX_RETAINED_SIZE) {
+                output.reset();
+                outputPool.free(output);
+            }
+        }
+    }
+    
+    @Override
+    public <T> T deserialize(byte[] bytes, Class<T> clazz) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        Kryo kryo = kryoPool.obtain();
+        try {
+            return kryo.readObject(new Input(bytes), clazz);
+        } catch (KryoException e) {
+            log.error("Failed to deserialize object with Kryo: {}", clazz.getName(), e);
+            throw new RuntimeException("Failed to deserialize object with Kryo", e);
+        } finally {
+            kryoPool.free(kryo);
+        }
+    }
+    
+    @Override
+    public <T> void serialize(T object, OutputStream out) {
+        if (object == null) {
+            return;
+        }
+        Kryo kryo = kryoPool.obtain();
+        Output output = outputPool.obtain();
+        try {
+            // Output作为流的缓冲区，写满或结束时把数据直接写入目标流
+            output.setOutputStream(out);
+            kryo.writeObject(output, object);
+            output.flush();
+        } catch (KryoException e) {
+            log.error("Failed to serialize object with Kryo: {}", object.getClass().getName(), e);
+            throw new RuntimeException("Failed to serialize object with Kryo", e);
+        } finally {
+            kryoPool.free(kryo);
+            output.setOutputStream(null);
+            if (output.getBuffer().length <= OUTPUT_MAX_RETAINED_SIZE) {
+                outputPool.free(output);
+            }
+        }
+    }
+    
+    @Override
+    public <T> T deserialize(InputStream in, Class<T> clazz) throws IOException {
+        // 消息体较小时按实际大小分配读缓冲区，解压流等无法给出剩余长度的流使用默认大小
+        int available = in.available();
+        int bufferSize = available <= 1 ? OUTPUT_BUFFER_SIZE
+                : Math.max(INPUT_MIN_BUFFER_SIZE, Math.min(available, OUTPUT_BUFFER_SIZE));
+        Kryo kryo = kryoPool.obtain();
+        try {
+            return kryo.readObject(new Input(in, bufferSize), clazz);
+        } catch (KryoException e) {
+            log.error("Failed to deserialize object with Kryo: {}", clazz.getName(), e);
+            throw new RuntimeException("Failed to deserialize object with Kryo", e);
+        } finally {
+            kryoPool.free(kryo);
+        }
+    }
+    
+    @Override
+    public byte getType() {
+        return 0x03; // Kryo序列化器类型标识
+    }
+    
+    @Override
+    public String getName() {
+        return RpcConstant.SERIALIZER_KRYO;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.rpc.server;
+
+import com.example.rpc.protocol.RpcFrameParser;
+import io.vertx.core.Context;
+import io.vertx.core.net.SocketAddress;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个连接的流量控制
+ * 连接上未完成的请求数达到上限时暂停读取，TCP接收窗口填满后客户端自然减速；
+ * 未完成的请求数降到上限的一半时恢复读取，避免在上限附近频繁暂停和恢复。
+ * 暂停的是帧解析器而不是连接，客户端合并发送的一批请求中剩余的帧也会留在缓冲区，上限是严格的
+ *
+ * onRequestStart在连接所属的事件循环上调用，onRequestEnd可以在任意线程调用，恢复读取总是切回事件循环执行
+ */
+@Slf4j
+class ConnectionFlowControl {
+    
+    private final Context context;
+    private final SocketAddress address;
+    private final int maxInFlight;
+    private final int resumeThreshold;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean paused = false;
+    
+    /**
+     * 连接的帧解析器，在连接的数据到达前设置
+     */
+    private RpcFrameParser frameParser;
+    
+    /**
+     * @param address 连接的对端地址，用于日志
+     * @param maxInFlight 连接上未完成请求数的上限，不大于0时不限制
+     */
+    ConnectionFlowControl(Context context, SocketAddress address, int maxInFlight) {
+        this.context = context;
+        this.address = address;
+        this.maxInFlight = maxInFlight;
+        this.resumeThreshold = maxInFlight / 2;
+    }
+    
+    /**
+     * 设置暂停和恢复的帧解析器，解析器的帧处理器需要引用本对象，因此在构造后设置
+     */
+    void attach(RpcFrameParser frameParser) {
+        this.frameParser = frameParser;
+    }
+    
+    /**
+     * 连接上开始处理一个请求
+     */
+    void onRequestStart() {
+        if (maxInFlight <= 0) {
+            return;
+        }
+        if (inFlight.incrementAndGet() >= maxInFlight && !paused) {
+            paused = true;
+            frameParser.pause();
+            log.debug("Connection {} paused, {} requests in flight", address, maxInFlight);
+            // 暂停前完成的请求不会触发恢复，这里再检查一次
+            resumeIfDrained();
+        }
+    }
+    
+    /**
+     * 连接上的一个请求处理完成
+     */
+    void onRequestEnd() {
+        if (maxInFlight <= 0) {
+            return;
+        }
+        if (inFlight.decrementAndGet() <= resumeThreshold && paused) {
+            context.runOnContext(v -> resumeIfDrained());
+        }
+    }
+    
+    private void resumeIfDrained() {
+        if (paused && inFlight.get() <= resumeThreshold) {
+            paused = false;
+            frameParser.resume();
+            log.debug("Connection {} resumed", address);
+        }
+    }
+    
+    int getInFlight() {
+        return inFlight.get();
+    }
+    
+    boolean isPaused() {
+        return paused;
+    }
+}
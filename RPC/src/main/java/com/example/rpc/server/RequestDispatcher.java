@@ -0,0 +1,168 @@
+package com.example.rpc.server;
+
+import com.example.rpc.constant.RpcConstant;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 请求分发器
+ * 根据分发模式决定请求在哪里执行：
+ * eventLoop - 直接在当前事件循环线程上执行，适合不阻塞的廉价方法
+ * virtualThread - 每个请求一个虚拟线程，适合大量阻塞的方法，需要Java 21，不支持时退化为工作线程池
+ * workerPool - 固定大小、有界队列的工作线程池，队列满时拒绝请求并计数
+ */
+@Slf4j
+public class RequestDispatcher {
+    
+    private final String defaultMode;
+    private final ThreadPoolExecutor workerPool;
+    
+    /**
+     * 虚拟线程执行器，首次使用时创建，当前JDK不支持时为null
+     */
+    private volatile ExecutorService virtualThreadExecutor;
+    private volatile boolean virtualThreadChecked = false;
+    
+    /**
+     * 被拒绝的请求数
+     */
+    private final AtomicLong rejectedCount = new AtomicLong();
+    
+    public RequestDispatcher(String defaultMode, int workerThreads, int queueCapacity) {
+        this.defaultMode = defaultMode != null ? defaultMode : RpcConstant.DEFAULT_DISPATCH_MODE;
+        int threads = Math.max(1, workerThreads);
+        this.workerPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), new NamedThreadFactory("rpc-worker-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    /**
+     * 分发任务
+     * @param mode 分发模式，为null时使用默认模式
+     * @param task 任务
+     * @return 任务是否被接受，返回false表示服务端过载
+     */
+    public boolean dispatch(String mode, Runnable task) {
+        String dispatchMode = mode != null ? mode : defaultMode;
+        switch (dispatchMode) {
+            case RpcConstant.DISPATCH_MODE_EVENT_LOOP:
+                task.run();
+                return true;
+            case RpcConstant.DISPATCH_MODE_VIRTUAL_THREAD:
+                ExecutorService executor = getVirtualThreadExecutor();
+                if (executor != null) {
+                    return submit(executor, task);
+                }
+                return submit(workerPool, task);
+            case RpcConstant.DISPATCH_MODE_WORKER_POOL:
+            default:
+                return submit(workerPool, task);
+        }
+    }
+    
+    private boolean submit(ExecutorService executor, Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            long rejected = rejectedCount.incrementAndGet();
+            if ((rejected & (rejected - 1)) == 0) {
+                // 只在拒绝数为2的幂时打印，避免过载时刷屏
+                log.warn("Request rejected, worker pool is full (active: {}, queued: {}, rejected: {})",
+                        workerPool.getActiveCount(), workerPool.getQueue().size(), rejected);
+            }
+            return false;
+        }
+    }
+    
+    private ExecutorService getVirtualThreadExecutor() {
+        if (!virtualThreadChecked) {
+            synchronized (this) {
+                if (!virtualThreadChecked) {
+                    virtualThreadExecutor = createVirtualThreadExecutor();
+                    virtualThreadChecked = true;
+                }
+            }
+        }
+        return virtualThreadExecutor;
+    }
+    
+    /**
+     * 通过反射创建虚拟线程执行器，框架本身仍可在Java 8上编译运行
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            log.info("Virtual thread dispatch enabled");
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads are not supported by the current JVM ({}), falling back to worker pool",
+                    System.getProperty("java.version"));
+            return null;
+        }
+    }
+    
+    /**
+     * 关闭分发器，等待已接受的任务执行完
+     */
+    public void shutdown() {
+        workerPool.shutdown();
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdown();
+        }
+    }
+    
+    public String getDefaultMode() {
+        return defaultMode;
+    }
+    
+    /**
+     * 获取被拒绝的请求数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+    
+    /**
+     * 获取工作线程池中正在执行任务的线程数
+     */
+    public int getActiveWorkerCount() {
+        return workerPool.getActiveCount();
+    }
+    
+    /**
+     * 获取工作线程池队列中等待的任务数
+     */
+    public int getQueuedTaskCount() {
+        return workerPool.getQueue().size();
+    }
+    
+    /**
+     * 带名称前缀的线程工厂
+     */
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+        
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+        
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,24 +1,53 @@
 package com.example.rpc.server;
 
-import com.example.rpc.registry.ServiceRegistry;
+import com.example.rpc.config.RpcProperties;
 import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.model.ServiceRegistryInfo;
+import com.example.rpc.registry.ServiceRegistry;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * 默认RPC服务器实现（包装VertxRpcServer）
+ *
+ * 关闭顺序：从注册中心注销所有服务 → 等待客户端感知实例下线 → 排空进行中的请求 → 关闭连接，
+ * 滚动重启时客户端在连接关闭前已经不再选择该实例
  */
 @Slf4j
 public class RpcServerImpl implements RpcServer {
     
+    /**
+     * 等待注销请求完成的超时时间
+     */
+    private static final long DEREGISTER_TIMEOUT_MS = 5000;
+    
     private final VertxRpcServer delegate;
     private final ServiceRegistry registry;
+    private final long shutdownDeregisterDelay;
+    
+    /**
+     * 已注册到注册中心的服务，服务键到注册信息的映射，关闭时逐个注销
+     */
+    private final Map<String, ServiceRegistryInfo> registeredServices = new ConcurrentHashMap<>();
     
     public RpcServerImpl(int port, ServiceRegistry registry, Map<String, Object> serviceMap) {
         this.registry = registry;
         this.delegate = new VertxRpcServer(port, registry, serviceMap != null ? serviceMap : new ConcurrentHashMap<>());
+        this.shutdownDeregisterDelay = RpcConstant.DEFAULT_SHUTDOWN_DEREGISTER_DELAY;
+    }
+    
+    public RpcServerImpl(RpcProperties properties, ServiceRegistry registry, Map<String, Object> serviceMap) {
+        this.registry = registry;
+        this.delegate = new VertxRpcServer(properties, registry, serviceMap != null ? serviceMap : new ConcurrentHashMap<>());
+        this.shutdownDeregisterDelay = properties.getShutdownDeregisterDelay();
     }
     
     @Override
@@ -35,6 +64,7 @@ public class RpcServerImpl implements RpcServer {
     @Override
     public void shutdown() {
         try {
+            deregisterAll();
             delegate.shutdown();
             log.info("RPC server shut down");
         } catch (Exception e) {
@@ -42,6 +72,30 @@ public class RpcServerImpl implements RpcServer {
         }
     }
     
+    /**
+     * 从注册中心注销所有服务，并等待一段时间让客户端通过服务变更通知感知实例下线
+     */
+    private void deregisterAll() throws InterruptedException {
+        if (registry == null || registeredServices.isEmpty()) {
+            return;
+        }
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (ServiceRegistryInfo registryInfo : registeredServices.values()) {
+            futures.add(registry.unregister(registryInfo));
+        }
+        registeredServices.clear();
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(DEREGISTER_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Failed to deregister services before shutdown", e);
+        }
+        log.info("Deregistered services, waiting {}ms for clients to stop routing requests", shutdownDeregisterDelay);
+        if (shutdownDeregisterDelay > 0) {
+            Thread.sleep(shutdownDeregisterDelay);
+        }
+    }
+    
     @Override
     public void registerService(String serviceInterface, String group, String version, int weight) {
         // 构建服务键
@@ -54,7 +108,9 @@ public class RpcServerImpl implements RpcServer {
         // 通过注册中心注册服务
         if (registry != null) {
             try {
-                registry.register(serviceInterface, group, version, buildServiceUrl(serviceInterface, group, version), weight);
+                ServiceRegistryInfo registryInfo = buildRegistryInfo(serviceInterface, group, version, weight);
+                registeredServices.put(serviceKey, registryInfo);
+                registry.register(registryInfo);
             } catch (Exception e) {
                 log.error("Failed to register service to registry: {}", serviceKey, e);
             }
@@ -69,11 +125,12 @@ public class RpcServerImpl implements RpcServer {
         
         // 调用委托对象的方法
         delegate.unregisterService(serviceInterface, group, version);
+        registeredServices.remove(serviceKey);
         
         // 通过注册中心注销服务
         if (registry != null) {
             try {
-                registry.unregister(serviceInterface, group, version, buildServiceUrl(serviceInterface, group, version));
+                registry.unregister(buildRegistryInfo(serviceInterface, group, version, 0));
             } catch (Exception e) {
                 log.error("Failed to unregister service from registry: {}", serviceKey, e);
             }
@@ -96,10 +153,21 @@ public class RpcServerImpl implements RpcServer {
     }
     
     /**
-     * 构建服务URL
+     * 构建服务注册信息
      */
-    private String buildServiceUrl(String serviceInterface, String group, String version) {
-        return RpcConstant.DEFAULT_HOST + ":" + delegate.getPort();
+    private ServiceRegistryInfo buildRegistryInfo(String serviceInterface, String group, String version, int weight) {
+        long now = System.currentTimeMillis();
+        return ServiceRegistryInfo.builder()
+                .serviceName(serviceInterface)
+                .group(group)
+                .version(version)
+                .host(RpcConstant.DEFAULT_HOST)
+                .port(delegate.getPort())
+                .weight(weight)
+                .healthy(true)
+                .createTime(now)
+                .lastHeartbeatTime(now)
+                .build();
     }
     
     /**
@@ -0,0 +1,252 @@
+package com.example.rpc.server;
+
+import com.example.rpc.annotation.NonBlocking;
+import com.example.rpc.annotation.RpcService;
+import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.exception.RpcException;
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.protocol.MethodSignature;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 服务调用器
+ * 服务注册时把接口的每个方法预编译为绑定了服务实例的MethodHandle，并按方法ID和方法签名建立索引，
+ * 处理请求时只需一次哈希查找加一次直接调用，不再每次通过反射查找方法
+ */
+public class ServiceInvoker {
+    
+    private static final Object[] EMPTY_ARGS = new Object[0];
+    private static final Class<?>[] EMPTY_TYPES = new Class<?>[0];
+    
+    /**
+     * 统一的调用类型：(Object[])Object
+     */
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class);
+    
+    private final Object service;
+    
+    /**
+     * 方法ID到调用器的映射，构建后只读
+     */
+    private final Map<Integer, MethodInvoker> idIndex;
+    
+    /**
+     * 方法名到同名方法调用器的映射，用于未携带方法ID的请求，构建后只读
+     */
+    private final Map<String, MethodInvoker[]> nameIndex;
+    
+    private ServiceInvoker(Object service, Map<Integer, MethodInvoker> idIndex, Map<String, MethodInvoker[]> nameIndex) {
+        this.service = service;
+        this.idIndex = idIndex;
+        this.nameIndex = nameIndex;
+    }
+    
+    /**
+     * 为服务实例预编译调用器
+     * @param serviceInterface 服务接口，为null时使用实现类的公共方法
+     * @param service 服务实例
+     */
+    public static ServiceInvoker compile(Class<?> serviceInterface, Object service) {
+        Method[] methods = serviceInterface != null ? serviceInterface.getMethods() : service.getClass().getMethods();
+        Map<Method, Integer> methodIds = MethodSignature.assignIds(methods);
+        String serviceDispatchMode = resolveServiceDispatchMode(service.getClass());
+        
+        Map<Integer, MethodInvoker> idIndex = new HashMap<>();
+        Map<String, MethodInvoker> signatureIndex = new LinkedHashMap<>();
+        for (Method method : methods) {
+            if (method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            String signature = MethodSignature.of(method);
+            if (signatureIndex.containsKey(signature)) {
+                continue;
+            }
+            String dispatchMode = isNonBlocking(method, service.getClass())
+                    ? RpcConstant.DISPATCH_MODE_EVENT_LOOP : serviceDispatchMode;
+            MethodInvoker invoker = new MethodInvoker(method, compileHandle(method, service), dispatchMode);
+            signatureIndex.put(signature, invoker);
+            Integer id = methodIds.get(method);
+            if (id != null) {
+                idIndex.put(id, invoker);
+            }
+        }
+        
+        // 按方法名分组，重载方法再按参数类型区分
+        Map<String, MethodInvoker[]> nameIndex = new HashMap<>();
+        for (MethodInvoker invoker : signatureIndex.values()) {
+            nameIndex.merge(invoker.getMethod().getName(), new MethodInvoker[]{invoker}, (a, b) -> {
+                MethodInvoker[] merged = Arrays.copyOf(a, a.length + 1);
+                merged[a.length] = b[0];
+                return merged;
+            });
+        }
+        return new ServiceInvoker(service, idIndex, nameIndex);
+    }
+    
+    private static MethodHandle compileHandle(Method method, Object service) {
+        try {
+            if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                method.setAccessible(true);
+            }
+            return MethodHandles.lookup().unreflect(method)
+                    .bindTo(service)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(INVOKER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new RpcException("Failed to compile invoker for method: " + method, e);
+        }
+    }
+    
+    /**
+     * 读取实现类上@RpcService指定的分发模式，未指定时返回null
+     */
+    private static String resolveServiceDispatchMode(Class<?> serviceClass) {
+        for (Class<?> clazz = serviceClass; clazz != null; clazz = clazz.getSuperclass()) {
+            RpcService rpcService = clazz.getAnnotation(RpcService.class);
+            if (rpcService != null) {
+                return rpcService.dispatchMode().isEmpty() ? null : rpcService.dispatchMode();
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * 方法是否标记了@NonBlocking，接口方法、实现方法、接口和实现类上的标记都有效
+     */
+    private static boolean isNonBlocking(Method method, Class<?> serviceClass) {
+        if (method.isAnnotationPresent(NonBlocking.class)
+                || method.getDeclaringClass().isAnnotationPresent(NonBlocking.class)) {
+            return true;
+        }
+        for (Class<?> clazz = serviceClass; clazz != null; clazz = clazz.getSuperclass()) {
+            if (clazz.isAnnotationPresent(NonBlocking.class)) {
+                return true;
+            }
+        }
+        try {
+            return serviceClass.getMethod(method.getName(), method.getParameterTypes()).isAnnotationPresent(NonBlocking.class);
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * 查找请求对应的方法，优先使用方法ID
+     * 方法ID未命中时（客户端与服务端接口版本不一致）按方法名查找：请求携带参数类型时精确匹配，
+     * 只携带了方法ID时按参数个数匹配，同名同参数个数的重载有多个时无法区分，返回null
+     * @return 方法调用器，找不到时返回null
+     */
+    public MethodInvoker find(RpcRequest request) {
+        if (request.getMethodId() != MethodSignature.NO_METHOD_ID) {
+            MethodInvoker invoker = idIndex.get(request.getMethodId());
+            if (invoker != null) {
+                return invoker;
+            }
+        }
+        if (request.getMethodName() == null) {
+            return null;
+        }
+        MethodInvoker[] candidates = nameIndex.get(request.getMethodName());
+        if (candidates == null) {
+            return null;
+        }
+        if (request.getParameterTypes() == null && request.getMethodId() != MethodSignature.NO_METHOD_ID) {
+            return findByArity(candidates, request.getParameters() != null ? request.getParameters().length : 0);
+        }
+        Class<?>[] parameterTypes = request.getParameterTypes() != null ? request.getParameterTypes() : EMPTY_TYPES;
+        for (MethodInvoker candidate : candidates) {
+            if (Arrays.equals(candidate.parameterTypes, parameterTypes)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+    
+    private static MethodInvoker findByArity(MethodInvoker[] candidates, int arity) {
+        MethodInvoker found = null;
+        for (MethodInvoker candidate : candidates) {
+            if (candidate.parameterTypes.length == arity) {
+                if (found != null) {
+                    return null;
+                }
+                found = candidate;
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * 服务的所有方法是否都在事件循环上执行
+     * @param defaultMode 服务器默认分发模式，方法未指定分发模式时使用
+     */
+    public boolean runsOnEventLoop(String defaultMode) {
+        for (MethodInvoker[] invokers : nameIndex.values()) {
+            for (MethodInvoker invoker : invokers) {
+                String mode = invoker.dispatchMode != null ? invoker.dispatchMode : defaultMode;
+                if (!RpcConstant.DISPATCH_MODE_EVENT_LOOP.equals(mode)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    public Object getService() {
+        return service;
+    }
+    
+    /**
+     * 单个方法的调用器
+     */
+    public static class MethodInvoker {
+        private final Method method;
+        private final Class<?>[] parameterTypes;
+        private final Type[] genericParameterTypes;
+        private final MethodHandle handle;
+        
+        /**
+         * 分发模式，为null时使用服务器默认模式
+         */
+        private final String dispatchMode;
+        
+        MethodInvoker(Method method, MethodHandle handle, String dispatchMode) {
+            this.method = method;
+            this.parameterTypes = method.getParameterTypes();
+            this.genericParameterTypes = method.getGenericParameterTypes();
+            this.handle = handle;
+            this.dispatchMode = dispatchMode;
+        }
+        
+        /**
+         * 调用方法，业务异常原样抛出，不会包装为InvocationTargetException
+         */
+        public Object invoke(Object[] args) throws Throwable {
+            return (Object) handle.invokeExact(args != null ? args : EMPTY_ARGS);
+        }
+        
+        public Method getMethod() {
+            return method;
+        }
+        
+        public String getDispatchMode() {
+            return dispatchMode;
+        }
+        
+        /**
+         * 获取方法声明的参数类型（包含泛型信息），用于反序列化请求参数
+         */
+        public Type[] getGenericParameterTypes() {
+            return genericParameterTypes;
+        }
+    }
+}
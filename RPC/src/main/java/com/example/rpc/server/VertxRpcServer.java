@@ -1,42 +1,117 @@
 package com.example.rpc.server;
 
+import com.example.rpc.compress.Compressor;
+import com.example.rpc.compress.CompressorFactory;
+import com.example.rpc.config.RpcProperties;
 import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.model.RpcMessage;
+import com.example.rpc.model.RpcMessageHeader;
 import com.example.rpc.model.RpcRequest;
 import com.example.rpc.model.RpcResponse;
+import com.example.rpc.protocol.RpcFrameParser;
+import com.example.rpc.protocol.RpcMessageCodec;
+import com.example.rpc.protocol.RpcWriteBatcher;
 import com.example.rpc.registry.ServiceRegistry;
-import com.example.rpc.serializer.SerializerFactory;
+import com.example.rpc.server.limit.AdmissionController;
 import io.vertx.core.*;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.net.NetServer;
 import io.vertx.core.net.NetSocket;
 import lombok.extern.slf4j.Slf4j;
 
-import java.lang.reflect.Method;
+import java.lang.reflect.Type;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 基于Vertx的RPC服务器实现
+ *
+ * 过载保护分两层：全局并发数超过准入控制器的上限时，不解码消息体直接返回过载状态，客户端立即换到其他实例；
+ * 单个连接的未完成请求数达到上限时暂停读取该连接，通过TCP反压让客户端减速
+ *
+ * 关闭时先进入排空状态：新连接直接关闭，新请求返回过载状态让客户端换到其他实例，
+ * 等进行中的请求发出响应（最多等待shutdownTimeout）后再关闭连接和线程池
+ *
+ * 事件循环上只做准入检查和选择执行线程，服务信息在消息体里，所以执行线程按服务级别决定：
+ * 所有服务的方法都在事件循环上执行时（默认模式为eventLoop或服务都标记了@NonBlocking）才在事件循环上解码，
+ * 否则消息体的解压、反序列化、方法查找都在执行线程上进行
  */
 @Slf4j
 public class VertxRpcServer implements RpcServer {
     
+    /**
+     * 等待端口绑定的超时时间
+     */
+    private static final long START_TIMEOUT_MS = 10000;
+    
+    /**
+     * 排空时检查进行中请求数的间隔
+     */
+    private static final long DRAIN_POLL_INTERVAL_MS = 10;
+    
     private final int port;
     private final ServiceRegistry registry;
     private final Map<String, Object> serviceMap;
+    
+    /**
+     * 服务键到预编译服务调用器的映射
+     */
+    private final Map<String, ServiceInvoker> invokerMap = new ConcurrentHashMap<>();
+    
     private final Vertx vertx;
     private NetServer server;
-    private boolean running = false;
-    private final ExecutorService workerPool;
+    private volatile boolean running = false;
+    
+    /**
+     * 是否正在排空，排空期间不再接受新的请求
+     */
+    private volatile boolean draining = false;
+    
+    /**
+     * 当前打开的连接及其写合并器，关闭时先写出缓冲的响应再关闭连接
+     */
+    private final Map<NetSocket, RpcWriteBatcher> connections = new ConcurrentHashMap<>();
+    private final RequestDispatcher dispatcher;
+    private final int batchMaxBytes;
+    private final long batchDelayMs;
+    private final int compressionThreshold;
+    private final AdmissionController admissionController;
+    private final int maxInFlightPerConnection;
+    private final long shutdownTimeout;
+    
+    /**
+     * 解码请求所在的分发模式，服务编译后重新计算
+     */
+    private volatile String decodeMode;
     
     public VertxRpcServer(int port, ServiceRegistry registry, Map<String, Object> serviceMap) {
-        this.port = port;
+        this(buildProperties(port), registry, serviceMap);
+    }
+    
+    public VertxRpcServer(RpcProperties properties, ServiceRegistry registry, Map<String, Object> serviceMap) {
+        this.port = properties.getServerPort();
         this.registry = registry;
         this.serviceMap = serviceMap != null ? serviceMap : new ConcurrentHashMap<>();
         this.vertx = Vertx.vertx();
-        this.workerPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+        this.dispatcher = new RequestDispatcher(properties.getDispatchMode(),
+                properties.getWorkerThreads(), properties.getWorkerQueueCapacity());
+        this.batchMaxBytes = properties.getBatchMaxBytes();
+        this.batchDelayMs = properties.getBatchDelayMs();
+        this.compressionThreshold = properties.getCompressionThreshold();
+        this.admissionController = new AdmissionController(properties.getAdmissionLimit(),
+                properties.getMaxInFlightRequests());
+        this.maxInFlightPerConnection = properties.getMaxInFlightPerConnection();
+        this.shutdownTimeout = properties.getShutdownTimeout();
+        updateDecodeMode();
+    }
+    
+    private static RpcProperties buildProperties(int port) {
+        RpcProperties properties = new RpcProperties();
+        properties.setServerPort(port);
+        return properties;
     }
     
     @Override
@@ -46,6 +121,9 @@ public class VertxRpcServer implements RpcServer {
             return;
         }
         
+        // 预编译已有的服务，首次请求时不再在处理线程上编译
+        compileServices();
+        
         try {
             // 创建TCP服务器
             server = vertx.createNetServer();
@@ -53,15 +131,11 @@ public class VertxRpcServer implements RpcServer {
             // 处理连接请求
             server.connectHandler(this::handleConnection);
             
-            // 启动服务器
-            server.listen(port, result -> {
-                if (result.succeeded()) {
-                    running = true;
-                    log.info("RPC server started successfully on port: {}", port);
-                } else {
-                    log.error("Failed to start RPC server on port: {}", port, result.cause());
-                }
-            });
+            // 启动服务器，等待端口绑定完成后再返回，避免调用方在监听前发起连接
+            server.listen(port).toCompletionStage().toCompletableFuture()
+                    .get(START_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            running = true;
+            log.info("RPC server started successfully on port: {}", port);
             
         } catch (Exception e) {
             log.error("Failed to start RPC server", e);
@@ -70,178 +144,382 @@ public class VertxRpcServer implements RpcServer {
     }
     
     private void handleConnection(NetSocket socket) {
-        socket.handler(buffer -> {
-            workerPool.execute(() -> {
-                try {
-                    // 解析请求
-                    RpcRequest request = decodeRequest(buffer);
-                    
-                    // 处理请求
-                    RpcResponse<?> response = handleRequest(request);
-                    
-                    // 发送响应
-                    Buffer responseBuffer = encodeResponse(response);
-                    socket.write(responseBuffer);
-                } catch (Exception e) {
-                    log.error("Error handling request", e);
-                    // 发送错误响应
-                    RpcResponse<?> errorResponse = RpcResponse.builder()
-                            .status(RpcConstant.RESPONSE_STATUS_ERROR)
-                            .message("Internal server error: " + e.getMessage())
-                            .timestamp(System.currentTimeMillis())
-                            .build();
-                    try {
-                        socket.write(encodeResponse(errorResponse));
-                    } catch (Exception ex) {
-                        log.error("Failed to send error response", ex);
-                    }
-                }
-            });
+        if (draining) {
+            socket.close();
+            return;
+        }
+        
+        // 同一连接上的响应合并写出，连接回调运行在该连接所属的事件循环上
+        Context context = vertx.getOrCreateContext();
+        RpcWriteBatcher writer = new RpcWriteBatcher(context, socket, batchMaxBytes, batchDelayMs);
+        ConnectionFlowControl flowControl = new ConnectionFlowControl(context, socket.remoteAddress(),
+                maxInFlightPerConnection);
+        connections.put(socket, writer);
+        
+        // 按协议头中的长度字段切分帧，一个连接上可以连续传输多个请求；
+        // 解析器以流模式直接读取连接，流量控制暂停解析器时同一批数据中剩余的帧也不再交付
+        RpcFrameParser frameParser = new RpcFrameParser(socket, frame -> handleFrame(writer, flowControl, frame), ex -> {
+            // 帧格式错误后无法再对齐后续数据，直接关闭连接
+            log.error("Invalid frame from {}, closing connection", socket.remoteAddress(), ex);
+            socket.close();
         });
+        flowControl.attach(frameParser);
         
         socket.exceptionHandler(ex -> {
             log.error("Connection error", ex);
         });
         
         socket.closeHandler(v -> {
+            connections.remove(socket);
             log.debug("Connection closed");
         });
     }
     
-    private RpcRequest decodeRequest(Buffer buffer) throws Exception {
-        // 读取协议头
-        int magicNumber = buffer.getInt(0);
-        if (magicNumber != RpcConstant.MAGIC_NUMBER) {
-            throw new IllegalArgumentException("Invalid protocol header");
+    /**
+     * 在事件循环线程上做准入检查，接受的请求从这里开始计入并发数，直到响应发出
+     */
+    private void handleFrame(RpcWriteBatcher writer, ConnectionFlowControl flowControl, RpcMessage<Buffer> frame) {
+        RpcMessageHeader header = frame.getHeader();
+        if (header.getMessageType() != RpcConstant.MESSAGE_TYPE_REQUEST) {
+            log.warn("Ignoring message of type: {}", header.getMessageType());
+            return;
         }
         
-        byte version = buffer.getByte(4);
-        byte messageType = buffer.getByte(5);
-        
-        if (messageType != RpcConstant.MESSAGE_TYPE_REQUEST) {
-            throw new IllegalArgumentException("Invalid message type");
+        // 正在排空或超过并发上限时不解码消息体，直接返回不带消息体的过载状态
+        if (draining || !admissionController.tryAcquire()) {
+            writeResponse(writer, header, RpcConstant.MESSAGE_STATUS_OVERLOADED, null);
+            return;
+        }
+        flowControl.onRequestStart();
+        long startNanos = System.nanoTime();
+        Runnable onComplete = () -> {
+            admissionController.release(System.nanoTime() - startNanos);
+            flowControl.onRequestEnd();
+        };
+        // 请求没有进入执行阶段，不作为耗时样本
+        Runnable onAbort = () -> {
+            admissionController.release();
+            flowControl.onRequestEnd();
+        };
+        String mode = decodeMode;
+        boolean accepted = dispatcher.dispatch(mode,
+                () -> dispatchRequest(writer, header, frame.getBody(), mode, onComplete, onAbort));
+        if (!accepted) {
+            // 执行线程池已满，不解码消息体，直接返回过载状态
+            writeResponse(writer, header, RpcConstant.MESSAGE_STATUS_OVERLOADED, null);
+            onAbort.run();
+        }
+    }
+    
+    /**
+     * 解码请求并定位方法，方法的分发模式与当前线程不一致时再分发一次
+     * 在decodeMode对应的线程上执行；@NonBlocking方法直接在当前线程上执行，不再切换线程
+     * @param currentMode 当前所在的分发模式
+     * @param onComplete 响应发出后回调
+     * @param onAbort 请求没有交给方法执行时回调，此时已经发出错误或过载响应
+     */
+    private void dispatchRequest(RpcWriteBatcher writer, RpcMessageHeader header, Buffer body, String currentMode,
+                                 Runnable onComplete, Runnable onAbort) {
+        // 解析请求
+        RpcRequest request;
+        try {
+            request = RpcMessageCodec.decodeRequest(header, body, this::resolveArgumentTypes);
+        } catch (Exception e) {
+            log.error("Failed to decode request: {}", header.getRequestId(), e);
+            writeResponse(writer, header, RpcConstant.MESSAGE_STATUS_BAD_REQUEST, null);
+            onAbort.run();
+            return;
         }
         
-        // 读取序列化类型
-        byte serializerType = buffer.getByte(6);
+        // 构建服务键 - 适配serviceName属性
+        String serviceKey = request.getServiceName() + ":" + request.getGroup() + ":" + request.getVersion();
         
-        // 读取数据长度
-        int dataLength = buffer.getInt(8);
+        // 获取服务调用器
+        ServiceInvoker serviceInvoker;
+        try {
+            serviceInvoker = getServiceInvoker(serviceKey, request.getServiceName());
+        } catch (Exception e) {
+            log.error("Failed to compile service: {}", serviceKey, e);
+            writeResponse(writer, header, RpcConstant.MESSAGE_STATUS_OK,
+                    errorResponse(request, "Internal server error: " + e.getMessage()));
+            onAbort.run();
+            return;
+        }
+        if (serviceInvoker == null) {
+            log.error("Service not found: {}", serviceKey);
+            writeResponse(writer, header, RpcConstant.MESSAGE_STATUS_OK,
+                    errorResponse(request, "Service not found: " + serviceKey));
+            onAbort.run();
+            return;
+        }
         
-        // 读取请求数据
-        byte[] data = buffer.getBytes(12, 12 + dataLength);
+        // 按方法ID或方法签名查找预编译的方法
+        ServiceInvoker.MethodInvoker methodInvoker = serviceInvoker.find(request);
+        if (methodInvoker == null) {
+            log.error("Method not found: {}.{}", serviceKey, request.getMethodName());
+            writeResponse(writer, header, RpcConstant.MESSAGE_STATUS_OK,
+                    errorResponse(request, "Method not found: " + request.getMethodName()));
+            onAbort.run();
+            return;
+        }
         
-        // 反序列化请求对象
-        return SerializerFactory.getSerializer(serializerType).deserialize(data, RpcRequest.class);
+        String methodMode = methodInvoker.getDispatchMode() != null
+                ? methodInvoker.getDispatchMode() : dispatcher.getDefaultMode();
+        if (methodMode.equals(currentMode) || RpcConstant.DISPATCH_MODE_EVENT_LOOP.equals(methodMode)) {
+            invokeAndRespond(writer, header, request, methodInvoker, onComplete);
+            return;
+        }
+        boolean accepted = dispatcher.dispatch(methodMode,
+                () -> invokeAndRespond(writer, header, request, methodInvoker, onComplete));
+        if (!accepted) {
+            // 工作线程池已满，直接返回不带消息体的过载状态
+            writeResponse(writer, header, RpcConstant.MESSAGE_STATUS_OVERLOADED, null);
+            onAbort.run();
+        }
     }
     
-    private RpcResponse<?> handleRequest(RpcRequest request) {
+    /**
+     * 调用方法并发送响应，方法返回CompletionStage时在其完成后再发送响应，不占用执行线程
+     */
+    private void invokeAndRespond(RpcWriteBatcher writer, RpcMessageHeader header, RpcRequest request,
+                                  ServiceInvoker.MethodInvoker methodInvoker, Runnable onComplete) {
+        Object result;
         try {
-            // 构建服务键 - 适配serviceName属性
-            String serviceKey = request.getServiceName() + ":" + request.getGroup() + ":" + request.getVersion();
-            
-            // 获取服务实例
-            Object service = serviceMap.get(serviceKey);
-            if (service == null) {
-                log.error("Service not found: {}", serviceKey);
-                return RpcResponse.builder()
-                        .status(RpcConstant.RESPONSE_STATUS_ERROR)
-                        .message("Service not found: " + serviceKey)
-                        .requestId(request.getRequestId())
-                        .timestamp(System.currentTimeMillis())
-                        .build();
-            }
-            
-            // 反射调用方法
-            Class<?> serviceClass = service.getClass();
-            Class<?>[] parameterTypes = request.getParameterTypes();
-            Method method = serviceClass.getMethod(request.getMethodName(), parameterTypes);
-            
-            Object result = method.invoke(service, request.getParameters());
-            
-            // 返回成功响应
-            return RpcResponse.builder()
-                    .status(RpcConstant.RESPONSE_STATUS_SUCCESS)
-                    .data(result)
-                    .requestId(request.getRequestId())
-                    .timestamp(System.currentTimeMillis())
-                    .build();
-                    
-        } catch (Exception e) {
+            result = methodInvoker.invoke(request.getParameters());
+        } catch (Throwable e) {
             log.error("Error executing method", e);
-            
-            // 处理方法不存在的情况
-            if (e.getCause() instanceof NoSuchMethodException) {
-                return RpcResponse.builder()
-                        .status(RpcConstant.RESPONSE_STATUS_ERROR)
-                        .message("Method not found: " + request.getMethodName())
-                        .requestId(request.getRequestId())
-                        .timestamp(System.currentTimeMillis())
-                        .build();
+            writeResponse(writer, header, RpcConstant.MESSAGE_STATUS_OK,
+                    errorResponse(request, "Error executing method: " + e.getMessage()));
+            onComplete.run();
+            return;
+        }
+        
+        if (result instanceof CompletionStage) {
+            ((CompletionStage<?>) result).whenComplete((value, error) -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    log.error("Error executing method", cause);
+                    writeResponse(writer, header, RpcConstant.MESSAGE_STATUS_OK,
+                            errorResponse(request, "Error executing method: " + cause.getMessage()));
+                } else {
+                    writeResponse(writer, header, RpcConstant.MESSAGE_STATUS_OK, successResponse(request, value));
+                }
+                onComplete.run();
+            });
+            return;
+        }
+        writeResponse(writer, header, RpcConstant.MESSAGE_STATUS_OK, successResponse(request, result));
+        onComplete.run();
+    }
+    
+    private RpcResponse<?> successResponse(RpcRequest request, Object result) {
+        return RpcResponse.builder()
+                .status(RpcConstant.RESPONSE_STATUS_SUCCESS)
+                .data(result)
+                .requestId(request.getRequestId())
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+    
+    private RpcResponse<?> errorResponse(RpcRequest request, String message) {
+        return RpcResponse.builder()
+                .status(RpcConstant.RESPONSE_STATUS_ERROR)
+                .message(message)
+                .requestId(request.getRequestId())
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+    
+    /**
+     * 根据请求中的服务和方法信息解析参数类型，供序列化器把参数直接反序列化为声明的类型
+     */
+    private Type[] resolveArgumentTypes(RpcRequest request) {
+        if (request.getServiceName() == null) {
+            return null;
+        }
+        String serviceKey = request.getServiceName() + ":" + request.getGroup() + ":" + request.getVersion();
+        ServiceInvoker serviceInvoker;
+        try {
+            serviceInvoker = getServiceInvoker(serviceKey, request.getServiceName());
+        } catch (Exception e) {
+            // 编译失败在后续处理请求时报告
+            return null;
+        }
+        ServiceInvoker.MethodInvoker methodInvoker = serviceInvoker != null ? serviceInvoker.find(request) : null;
+        return methodInvoker != null ? methodInvoker.getGenericParameterTypes() : null;
+    }
+    
+    /**
+     * 获取服务调用器，服务未经registerService注册时在首次调用时编译
+     */
+    private ServiceInvoker getServiceInvoker(String serviceKey, String serviceName) {
+        ServiceInvoker serviceInvoker = invokerMap.get(serviceKey);
+        if (serviceInvoker != null) {
+            return serviceInvoker;
+        }
+        Object service = serviceMap.get(serviceKey);
+        if (service == null) {
+            return null;
+        }
+        serviceInvoker = invokerMap.computeIfAbsent(serviceKey,
+                k -> ServiceInvoker.compile(findServiceInterface(service, serviceName), service));
+        updateDecodeMode();
+        return serviceInvoker;
+    }
+    
+    /**
+     * 编译serviceMap中还没有调用器的服务，编译失败的服务在调用时报告错误
+     */
+    private void compileServices() {
+        for (Map.Entry<String, Object> entry : serviceMap.entrySet()) {
+            String serviceKey = entry.getKey();
+            if (invokerMap.containsKey(serviceKey)) {
+                continue;
+            }
+            int separator = serviceKey.indexOf(':');
+            String serviceName = separator >= 0 ? serviceKey.substring(0, separator) : serviceKey;
+            try {
+                invokerMap.put(serviceKey, ServiceInvoker.compile(findServiceInterface(entry.getValue(), serviceName),
+                        entry.getValue()));
+            } catch (Exception e) {
+                log.error("Failed to compile service: {}", serviceKey, e);
             }
-            
-            // 其他错误
-            return RpcResponse.builder()
-                    .status(RpcConstant.RESPONSE_STATUS_ERROR)
-                    .message("Error executing method: " + e.getMessage())
-                    .requestId(request.getRequestId())
-                    .timestamp(System.currentTimeMillis())
-                    .build();
         }
+        updateDecodeMode();
     }
     
-    private Buffer encodeResponse(RpcResponse<?> response) throws Exception {
-        // 序列化响应对象
-        byte[] data = SerializerFactory.getSerializer(RpcConstant.DEFAULT_SERIALIZER).serialize(response);
-        
-        // 构建协议头
-        Buffer buffer = Buffer.buffer();
-        buffer.appendInt(RpcConstant.MAGIC_NUMBER);      // 魔数
-        buffer.appendByte(RpcConstant.VERSION);          // 版本号
-        buffer.appendByte(RpcConstant.MESSAGE_TYPE_RESPONSE); // 消息类型
-        buffer.appendByte((byte) RpcConstant.SERIALIZER_JSON.charAt(0)); // 序列化类型
-        buffer.appendInt(data.length);                   // 数据长度
-        buffer.appendBytes(data);                        // 响应数据
-        
-        return buffer;
+    /**
+     * 重新计算解码请求所在的分发模式
+     * 所有已知服务的方法都在事件循环上执行时在事件循环上解码；否则在默认模式的执行线程上解码，
+     * 默认模式为eventLoop时使用工作线程池
+     */
+    private void updateDecodeMode() {
+        String defaultMode = dispatcher.getDefaultMode();
+        boolean onEventLoop = invokerMap.size() >= serviceMap.size()
+                || RpcConstant.DISPATCH_MODE_EVENT_LOOP.equals(defaultMode);
+        for (ServiceInvoker serviceInvoker : invokerMap.values()) {
+            if (!onEventLoop) {
+                break;
+            }
+            onEventLoop = serviceInvoker.runsOnEventLoop(defaultMode);
+        }
+        if (onEventLoop) {
+            decodeMode = RpcConstant.DISPATCH_MODE_EVENT_LOOP;
+        } else {
+            decodeMode = RpcConstant.DISPATCH_MODE_EVENT_LOOP.equals(defaultMode)
+                    ? RpcConstant.DISPATCH_MODE_WORKER_POOL : defaultMode;
+        }
     }
     
+    /**
+     * 获取解码请求所在的分发模式
+     */
+    public String getDecodeMode() {
+        return decodeMode;
+    }
+    
+    /**
+     * 在服务实现类实现的接口中查找指定名称的服务接口，找不到时返回null
+     */
+    private Class<?> findServiceInterface(Object service, String serviceName) {
+        for (Class<?> clazz = service.getClass(); clazz != null; clazz = clazz.getSuperclass()) {
+            for (Class<?> serviceInterface : clazz.getInterfaces()) {
+                if (serviceInterface.getName().equals(serviceName)) {
+                    return serviceInterface;
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * 发送响应，响应沿用请求的请求ID和序列化类型，较大的响应用请求协商的压缩器压缩
+     */
+    private void writeResponse(RpcWriteBatcher writer, RpcMessageHeader requestHeader, byte status, RpcResponse<?> response) {
+        RpcMessageHeader header = RpcMessageCodec.buildHeader(RpcConstant.MESSAGE_TYPE_RESPONSE,
+                requestHeader.getSerializerType(), status, requestHeader.getRequestId());
+        try {
+            Compressor compressor = CompressorFactory.getCompressorByType(requestHeader.getCompressionType());
+            writer.write(RpcMessageCodec.encode(RpcMessageCodec.buildMessage(header, response),
+                    compressor, compressionThreshold));
+        } catch (Exception e) {
+            log.error("Failed to send response for request: {}", requestHeader.getRequestId(), e);
+            if (status == RpcConstant.MESSAGE_STATUS_OK) {
+                // 响应体无法序列化时，仍然返回一个不带消息体的错误响应，避免客户端等待超时
+                writeResponse(writer, requestHeader, RpcConstant.MESSAGE_STATUS_SERVER_ERROR, null);
+            }
+        }
+    }
+    
+    /**
+     * 关闭服务器，等进行中的请求完成后再关闭连接，方法返回时服务器已经停止
+     * 不能在事件循环线程上调用，否则排空期间响应无法写出
+     */
     @Override
-    public void shutdown() {
+    public synchronized void shutdown() {
         if (!running) {
             log.warn("Server is not running");
             return;
         }
         
-        CompositeFuture.all(
-                Future.future(promise -> {
-                    if (server != null) {
-                        server.close(result -> {
-                            log.info("RPC server stopped");
-                            promise.complete();
-                        });
-                    } else {
-                        promise.complete();
-                    }
-                })
-        ).onComplete(result -> {
+        drain();
+        try {
+            Future<Void> closeFuture = server != null ? server.close() : Future.succeededFuture();
+            closeFuture.toCompletionStage().toCompletableFuture().get(START_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("Failed to close RPC server cleanly", e);
+        } finally {
             running = false;
-            workerPool.shutdown();
+            dispatcher.shutdown();
             vertx.close();
-        });
+        }
+        log.info("RPC server stopped");
+    }
+    
+    /**
+     * 停止接受新请求，等待进行中的请求发出响应，超过shutdownTimeout后不再等待，
+     * 最后写出缓冲的响应并关闭所有连接
+     */
+    private void drain() {
+        draining = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeout);
+        while (admissionController.getInFlight() > 0 && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(DRAIN_POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        int remaining = admissionController.getInFlight();
+        if (remaining > 0) {
+            log.warn("Shutdown timeout, closing with {} requests still in flight", remaining);
+        }
+        for (Map.Entry<NetSocket, RpcWriteBatcher> connection : connections.entrySet()) {
+            connection.getValue().flush();
+            connection.getKey().close();
+        }
     }
     
     @Override
     public void registerService(String serviceInterface, String group, String version, int weight) {
-        // 服务注册已经在RpcAutoConfiguration中处理
-        // 这里主要是为了接口的完整性
+        // 服务实例已经在RpcAutoConfiguration中放入serviceMap，这里预编译服务方法
         log.info("Registering service: {}, group: {}, version: {}", serviceInterface, group, version);
+        String serviceKey = serviceInterface + ":" + group + ":" + version;
+        Object service = serviceMap.get(serviceKey);
+        if (service != null) {
+            invokerMap.put(serviceKey, ServiceInvoker.compile(findServiceInterface(service, serviceInterface), service));
+            updateDecodeMode();
+        }
     }
     
     @Override
     public void unregisterService(String serviceInterface, String group, String version) {
         String serviceKey = serviceInterface + ":" + group + ":" + version;
         serviceMap.remove(serviceKey);
+        invokerMap.remove(serviceKey);
+        updateDecodeMode();
         log.info("Unregistered service: {}", serviceKey);
     }
     
@@ -259,4 +537,25 @@ public class VertxRpcServer implements RpcServer {
     public boolean isRunning() {
         return running;
     }
+    
+    /**
+     * 是否正在排空
+     */
+    public boolean isDraining() {
+        return draining;
+    }
+    
+    /**
+     * 获取请求分发器，可用于查看工作线程池和拒绝请求的统计
+     */
+    public RequestDispatcher getDispatcher() {
+        return dispatcher;
+    }
+    
+    /**
+     * 获取准入控制器，可用于查看当前并发数、并发上限和拒绝请求的统计
+     */
+    public AdmissionController getAdmissionController() {
+        return admissionController;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.example.rpc.server.limit;
+
+import com.example.rpc.constant.RpcConstant;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 准入控制器
+ * 统计服务端正在处理的请求数，超过并发上限的请求直接拒绝，由客户端换到其他实例，
+ * 避免请求在服务端无限堆积导致耗时持续上升甚至内存耗尽。并发上限由ConcurrencyLimit决定：
+ * fixed - 固定上限
+ * gradient - 根据请求耗时的变化自适应调整上限
+ */
+@Slf4j
+public class AdmissionController {
+    
+    private final ConcurrencyLimit limit;
+    
+    /**
+     * 正在处理的请求数
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+    
+    /**
+     * 被拒绝的请求数
+     */
+    private final AtomicLong rejectedCount = new AtomicLong();
+    
+    /**
+     * @param mode 并发上限算法：fixed、gradient
+     * @param maxInFlight 最大并发请求数，不大于0时不限制
+     */
+    public AdmissionController(String mode, int maxInFlight) {
+        this(createLimit(mode, maxInFlight));
+    }
+    
+    public AdmissionController(ConcurrencyLimit limit) {
+        this.limit = limit;
+    }
+    
+    private static ConcurrencyLimit createLimit(String mode, int maxInFlight) {
+        if (RpcConstant.ADMISSION_LIMIT_GRADIENT.equals(mode) && maxInFlight > 0) {
+            return new GradientConcurrencyLimit(maxInFlight);
+        }
+        return new FixedConcurrencyLimit(maxInFlight);
+    }
+    
+    /**
+     * 尝试接受一个请求
+     * @return 是否接受，返回false表示已达到并发上限
+     */
+    public boolean tryAcquire() {
+        int max = limit.getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= max) {
+                long rejected = rejectedCount.incrementAndGet();
+                if ((rejected & (rejected - 1)) == 0) {
+                    // 只在拒绝数为2的幂时打印，避免过载时刷屏
+                    log.warn("Request rejected, concurrency limit reached (inFlight: {}, limit: {}, rejected: {})",
+                            current, max, rejected);
+                }
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * 请求处理完成，耗时作为样本交给并发上限算法
+     * @param latencyNanos 请求从接收到响应的耗时（纳秒）
+     */
+    public void release(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        limit.onSample(latencyNanos, current);
+    }
+    
+    /**
+     * 请求没有真正执行就结束（如解码失败、被线程池拒绝），不产生耗时样本
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+    
+    /**
+     * 获取正在处理的请求数
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    /**
+     * 获取当前的并发上限
+     */
+    public int getLimit() {
+        return limit.getLimit();
+    }
+    
+    /**
+     * 获取被拒绝的请求数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+}
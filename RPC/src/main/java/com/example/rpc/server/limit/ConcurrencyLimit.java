@@ -0,0 +1,20 @@
+package com.example.rpc.server.limit;
+
+/**
+ * 并发上限算法，决定服务端同时处理的请求数上限
+ */
+public interface ConcurrencyLimit {
+    
+    /**
+     * 获取当前的并发上限
+     */
+    int getLimit();
+    
+    /**
+     * 每个请求处理完成后回调，自适应算法据此调整上限
+     * @param latencyNanos 请求从接收到响应的耗时（纳秒），包含排队时间
+     * @param inFlight 该请求完成前正在处理的请求数
+     */
+    default void onSample(long latencyNanos, int inFlight) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.rpc.server.limit;
+
+/**
+ * 固定并发上限
+ */
+public class FixedConcurrencyLimit implements ConcurrencyLimit {
+    
+    private final int limit;
+    
+    /**
+     * @param limit 并发上限，不大于0时不限制
+     */
+    public FixedConcurrencyLimit(int limit) {
+        this.limit = limit > 0 ? limit : Integer.MAX_VALUE;
+    }
+    
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+}
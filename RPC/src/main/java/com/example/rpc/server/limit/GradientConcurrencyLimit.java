@@ -0,0 +1,112 @@
+package com.example.rpc.server.limit;
+
+/**
+ * 基于耗时梯度的自适应并发上限
+ * 每个窗口统计请求的平均耗时（短期耗时），并维护一个缓慢变化的长期耗时：
+ * 短期耗时明显高于长期耗时说明请求开始排队，上限按两者的比例收缩；耗时平稳时每个窗口增加约sqrt(上限)，探测更高的并发。
+ * 实际并发不到上限一半时不再增加，避免空闲时上限无限增长
+ *
+ * 样本在请求完成时加锁累加，每个窗口只做一次计算
+ */
+public class GradientConcurrencyLimit implements ConcurrencyLimit {
+    
+    private static final int DEFAULT_INITIAL_LIMIT = 64;
+    private static final int DEFAULT_MIN_LIMIT = 8;
+    private static final int DEFAULT_WINDOW_SAMPLES = 100;
+    
+    /**
+     * 短期耗时不超过长期耗时的该倍数时认为没有排队，避免耗时抖动导致上限来回变化
+     */
+    private static final double RTT_TOLERANCE = 1.5;
+    
+    /**
+     * 每个窗口上限最多收缩到原来的比例
+     */
+    private static final double MIN_GRADIENT = 0.5;
+    
+    /**
+     * 新上限的平滑系数
+     */
+    private static final double SMOOTHING = 0.2;
+    
+    /**
+     * 长期耗时的指数移动平均系数，约等于最近20个窗口
+     */
+    private static final double LONG_RTT_WEIGHT = 0.05;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final int windowSamples;
+    
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRttNanos;
+    
+    private long windowLatencySum;
+    private int windowCount;
+    private int windowMaxInFlight;
+    
+    /**
+     * @param maxLimit 并发上限的最大值
+     */
+    public GradientConcurrencyLimit(int maxLimit) {
+        this(Math.min(DEFAULT_INITIAL_LIMIT, maxLimit), Math.min(DEFAULT_MIN_LIMIT, maxLimit), maxLimit,
+                DEFAULT_WINDOW_SAMPLES);
+    }
+    
+    /**
+     * @param initialLimit 初始上限
+     * @param minLimit 上限的最小值
+     * @param maxLimit 上限的最大值
+     * @param windowSamples 每个窗口的样本数
+     */
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, int windowSamples) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.windowSamples = Math.max(1, windowSamples);
+        this.estimatedLimit = Math.max(this.minLimit, Math.min(initialLimit, this.maxLimit));
+        this.limit = (int) estimatedLimit;
+    }
+    
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+    
+    @Override
+    public synchronized void onSample(long latencyNanos, int inFlight) {
+        windowLatencySum += latencyNanos;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+        if (++windowCount < windowSamples) {
+            return;
+        }
+        double shortRttNanos = (double) windowLatencySum / windowCount;
+        int maxInFlight = windowMaxInFlight;
+        windowLatencySum = 0;
+        windowCount = 0;
+        windowMaxInFlight = 0;
+        if (shortRttNanos <= 0) {
+            return;
+        }
+        
+        if (longRttNanos == 0) {
+            longRttNanos = shortRttNanos;
+            return;
+        }
+        longRttNanos = longRttNanos * (1 - LONG_RTT_WEIGHT) + shortRttNanos * LONG_RTT_WEIGHT;
+        if (longRttNanos > shortRttNanos * 2) {
+            // 负载下降后让长期耗时尽快回落，否则之后耗时的上升要很久才会被发现
+            longRttNanos *= 0.95;
+        }
+        
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, RTT_TOLERANCE * longRttNanos / shortRttNanos));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        if (newLimit > estimatedLimit && maxInFlight < estimatedLimit / 2) {
+            // 实际并发远低于上限，无法判断更高的并发是否可行
+            return;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit,
+                estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -73,10 +73,9 @@ public class SpiLoader<T> {
     private void load() {
         try {
             String resourcePath = RpcConstant.SPI_CONFIG_DIR + "/" + type.getName();
-            Enumeration<URL> urls = ResourceUtil.getResources(resourcePath);
+            List<URL> urls = ResourceUtil.getResources(resourcePath);
             
-            while (urls.hasMoreElements()) {
-                URL url = urls.nextElement();
+            for (URL url : urls) {
                 try (BufferedReader reader = new BufferedReader(
                         new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
                     reader.lines()
@@ -137,6 +136,21 @@ public class SpiLoader<T> {
         return instance;
     }
     
+    /**
+     * 根据键创建一个新的实例，用于注册中心等持有连接或状态、不能在调用方之间共享的实现
+     */
+    public T newInstance(String key) {
+        Class<? extends T> implementationClass = classMap.get(key);
+        if (implementationClass == null) {
+            throw new IllegalArgumentException("No SPI implementation found for key: " + key);
+        }
+        try {
+            return implementationClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new RpcException("Failed to create SPI implementation: " + implementationClass.getName(), e);
+        }
+    }
+    
     /**
      * 获取所有键
      */
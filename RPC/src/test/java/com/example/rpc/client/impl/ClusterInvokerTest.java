@@ -0,0 +1,206 @@
+package com.example.rpc.client.impl;
+
+import com.example.rpc.config.RpcProperties;
+import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.exception.ServerOverloadedException;
+import com.example.rpc.loadbalance.RoundRobinLoadBalancer;
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.model.RpcResponse;
+import com.example.rpc.test.ServiceInstances;
+import com.example.rpc.registry.LocalRegistry;
+import io.netty.util.HashedWheelTimer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 集群调用器测试
+ */
+public class ClusterInvokerTest {
+    
+    private static final String SERVICE_NAME = "com.example.rpc.client.impl.ClusterInvokerTest$DemoService";
+    
+    private final LocalRegistry registry = new LocalRegistry();
+    private final HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS);
+    
+    /**
+     * 发送过请求的地址，按发送顺序记录
+     */
+    private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+    
+    @AfterEach
+    public void tearDown() {
+        registry.close();
+        timer.stop();
+    }
+    
+    @Test
+    public void testFailOverToAnotherInstance() throws Exception {
+        registry.register(ServiceInstances.instance(SERVICE_NAME, 8081)).join();
+        registry.register(ServiceInstances.instance(SERVICE_NAME, 8082)).join();
+        ClusterInvoker invoker = invoker(RpcConstant.TOLERANCE_STRATEGY_FAIL_OVER, 2, Collections.singleton("127.0.0.1:8081"));
+        
+        for (int i = 0; i < 4; i++) {
+            sent.clear();
+            RpcResponse response = invoker.invoke(request(), 5000).get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals(RpcConstant.RESPONSE_STATUS_SUCCESS, response.getStatus());
+            Assertions.assertEquals("127.0.0.1:8082", sent.get(sent.size() - 1));
+            // 失败的实例最多尝试一次
+            Assertions.assertTrue(sent.size() <= 2);
+        }
+    }
+    
+    @Test
+    public void testFailFastDoesNotRetry() throws Exception {
+        registry.register(ServiceInstances.instance(SERVICE_NAME, 8081)).join();
+        ClusterInvoker invoker = invoker(RpcConstant.TOLERANCE_STRATEGY_FAIL_FAST, 2, Collections.singleton("127.0.0.1:8081"));
+        
+        RpcResponse response = invoker.invoke(request(), 5000).get(5, TimeUnit.SECONDS);
+        Assertions.assertNotEquals(RpcConstant.RESPONSE_STATUS_SUCCESS, response.getStatus());
+        Assertions.assertEquals(1, sent.size());
+    }
+    
+    @Test
+    public void testRetrySameInstanceAfterDelayThenTolerate() throws Exception {
+        registry.register(ServiceInstances.instance(SERVICE_NAME, 8081)).join();
+        ClusterInvoker invoker = invoker(RpcConstant.TOLERANCE_STRATEGY_FAIL_OVER, 2, Collections.singleton("127.0.0.1:8081"));
+        
+        RpcResponse response = invoker.invoke(request(), 5000).get(5, TimeUnit.SECONDS);
+        Assertions.assertNotEquals(RpcConstant.RESPONSE_STATUS_SUCCESS, response.getStatus());
+        Assertions.assertTrue(response.getMessage().contains("Connection refused"));
+        // 首次调用加两次重试
+        Assertions.assertEquals(3, sent.size());
+    }
+    
+    @Test
+    public void testServiceNotFoundIsNotRetried() throws Exception {
+        ClusterInvoker invoker = invoker(RpcConstant.TOLERANCE_STRATEGY_FAIL_OVER, 2, Collections.emptySet());
+        
+        RpcResponse response = invoker.invoke(request(), 5000).get(5, TimeUnit.SECONDS);
+        Assertions.assertTrue(response.getMessage().contains("Service not found"));
+        Assertions.assertTrue(sent.isEmpty());
+    }
+    
+    @Test
+    public void testDeadlineStopsRetries() throws Exception {
+        registry.register(ServiceInstances.instance(SERVICE_NAME, 8081)).join();
+        RpcProperties properties = properties(RpcConstant.TOLERANCE_STRATEGY_FAIL_OVER, 2);
+        properties.setRetryInterval(1000);
+        ClusterInvoker invoker = invoker(properties, Collections.singleton("127.0.0.1:8081"));
+        
+        // 等待重试会超出200ms的时间预算，只尝试一次
+        long start = System.nanoTime();
+        RpcResponse response = invoker.invoke(request(), 200).get(5, TimeUnit.SECONDS);
+        Assertions.assertNotEquals(RpcConstant.RESPONSE_STATUS_SUCCESS, response.getStatus());
+        Assertions.assertEquals(1, sent.size());
+        Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500);
+    }
+    
+    @Test
+    public void testRetryBudgetStopsRetriesDuringOutage() throws Exception {
+        registry.register(ServiceInstances.instance(SERVICE_NAME, 8081)).join();
+        registry.register(ServiceInstances.instance(SERVICE_NAME, 8082)).join();
+        Set<String> dead = new HashSet<>(Arrays.asList("127.0.0.1:8081", "127.0.0.1:8082"));
+        RpcProperties properties = properties(RpcConstant.TOLERANCE_STRATEGY_FAIL_OVER, 1);
+        properties.setRetryBudgetMaxTokens(4);
+        ClusterInvoker invoker = invoker(properties, dead);
+        
+        for (int i = 0; i < 10; i++) {
+            invoker.invoke(request(), 5000).get(5, TimeUnit.SECONDS);
+        }
+        // 令牌桶容量为4，失败两次后令牌降到一半，之后的调用不再重试
+        Assertions.assertTrue(sent.size() < 13, "sent " + sent.size());
+    }
+    
+    @Test
+    public void testOpenCircuitBreakerEjectsInstance() throws Exception {
+        registry.register(ServiceInstances.instance(SERVICE_NAME, 8091)).join();
+        registry.register(ServiceInstances.instance(SERVICE_NAME, 8092)).join();
+        ClusterInvoker invoker = invoker(RpcConstant.TOLERANCE_STRATEGY_CIRCUIT_BREAKER, 1,
+                Collections.singleton("127.0.0.1:8091"));
+        
+        for (int i = 0; i < 60; i++) {
+            invoker.invoke(request(), 5000).get(5, TimeUnit.SECONDS);
+        }
+        // 熔断器打开后失败的实例不再参与选择
+        sent.clear();
+        for (int i = 0; i < 20; i++) {
+            RpcResponse response = invoker.invoke(request(), 5000).get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals(RpcConstant.RESPONSE_STATUS_SUCCESS, response.getStatus());
+        }
+        Assertions.assertEquals(20, sent.size());
+        Assertions.assertFalse(sent.contains("127.0.0.1:8091"));
+    }
+    
+    @Test
+    public void testOverloadedRejectionFailsOverEvenWithFailFast() throws Exception {
+        registry.register(ServiceInstances.instance(SERVICE_NAME, 8081)).join();
+        registry.register(ServiceInstances.instance(SERVICE_NAME, 8082)).join();
+        ClusterInvoker invoker = new ClusterInvoker(properties(RpcConstant.TOLERANCE_STRATEGY_FAIL_FAST, 1),
+                registry, new RoundRobinLoadBalancer(), timer, (request, serviceInfo, timeoutMs) -> {
+                    String address = serviceInfo.getAddress();
+                    sent.add(address);
+                    CompletableFuture<RpcResponse> future = new CompletableFuture<>();
+                    if (address.equals("127.0.0.1:8081")) {
+                        future.completeExceptionally(new ServerOverloadedException("Server overloaded"));
+                    } else {
+                        future.complete(RpcResponse.success(request.getRequestId(), address));
+                    }
+                    return future;
+                });
+        
+        // 过载拒绝的请求没有执行过，failFast也会换到另一个实例
+        for (int i = 0; i < 4; i++) {
+            RpcResponse response = invoker.invoke(request(), 5000).get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals(RpcConstant.RESPONSE_STATUS_SUCCESS, response.getStatus());
+            Assertions.assertEquals("127.0.0.1:8082", response.getData());
+        }
+    }
+    
+    private ClusterInvoker invoker(String toleranceStrategy, int maxRetryCount, Set<String> deadAddresses) {
+        return invoker(properties(toleranceStrategy, maxRetryCount), deadAddresses);
+    }
+    
+    private RpcProperties properties(String toleranceStrategy, int maxRetryCount) {
+        RpcProperties properties = new RpcProperties();
+        properties.setToleranceStrategy(toleranceStrategy);
+        properties.setMaxRetryCount(maxRetryCount);
+        properties.setRetryInterval(20);
+        return properties;
+    }
+    
+    private ClusterInvoker invoker(RpcProperties properties, Set<String> deadAddresses) {
+        return new ClusterInvoker(properties, registry, new RoundRobinLoadBalancer(), timer,
+                (request, serviceInfo, timeoutMs) -> {
+                    String address = serviceInfo.getAddress();
+                    sent.add(address);
+                    CompletableFuture<RpcResponse> future = new CompletableFuture<>();
+                    if (deadAddresses.contains(address)) {
+                        future.completeExceptionally(new ConnectException("Connection refused: " + address));
+                    } else {
+                        future.complete(RpcResponse.success(request.getRequestId(), address));
+                    }
+                    return future;
+                });
+    }
+    
+    private RpcRequest request() {
+        return RpcRequest.builder()
+                .requestId("1")
+                .serviceName(SERVICE_NAME)
+                .methodName("echo")
+                .group("default")
+                .version("1.0")
+                .build();
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.rpc.client.impl;
+
+import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.model.RpcMessage;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetClient;
+import io.vertx.core.net.NetServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 客户端连接池测试
+ */
+public class RpcConnectionPoolTest {
+    
+    private Vertx vertx;
+    private NetClient netClient;
+    private NetServer server;
+    private RpcConnectionPool pool;
+    
+    private final AtomicInteger accepted = new AtomicInteger();
+    private final List<RpcConnection> closedConnections = new CopyOnWriteArrayList<>();
+    
+    @BeforeEach
+    public void setUp() throws Exception {
+        vertx = Vertx.vertx();
+        netClient = vertx.createNetClient();
+        server = listen(0);
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+        vertx.close();
+    }
+    
+    @Test
+    public void testAcquireRoundRobinsOverSlots() throws Exception {
+        pool = newPool(2, 0);
+        
+        Set<RpcConnection> connections = new HashSet<>();
+        RpcConnection[] sequence = new RpcConnection[4];
+        for (int i = 0; i < sequence.length; i++) {
+            sequence[i] = acquire();
+            connections.add(sequence[i]);
+        }
+        
+        Assertions.assertEquals(2, connections.size());
+        Assertions.assertNotSame(sequence[0], sequence[1]);
+        Assertions.assertSame(sequence[0], sequence[2]);
+        Assertions.assertSame(sequence[1], sequence[3]);
+        waitUntil(() -> accepted.get() == 2, 5000);
+    }
+    
+    @Test
+    public void testReconnectAfterConnectFailure() throws Exception {
+        int port = server.actualPort();
+        server.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        pool = newPool(1, 0);
+        
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class,
+                () -> pool.acquire("127.0.0.1", port).get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause().getMessage().contains("Failed to connect"));
+        
+        // 失败的槽位被清空，服务端恢复后重新建立连接
+        server = listen(port);
+        RpcConnection connection = pool.acquire("127.0.0.1", port).get(5, TimeUnit.SECONDS);
+        Assertions.assertTrue(connection.isActive());
+    }
+    
+    @Test
+    public void testIdleConnectionIsEvicted() throws Exception {
+        pool = newPool(1, 200);
+        RpcConnection first = acquire();
+        
+        // 空闲检查周期最短1秒
+        waitUntil(() -> !first.isActive(), 5000);
+        
+        RpcConnection second = acquire();
+        Assertions.assertNotSame(first, second);
+        Assertions.assertTrue(second.isActive());
+    }
+    
+    @Test
+    public void testBusyConnectionIsNotEvicted() throws Exception {
+        pool = newPool(1, 200);
+        RpcConnection connection = acquire();
+        Assertions.assertTrue(connection.write(1L, Buffer.buffer()));
+        
+        Thread.sleep(1500);
+        
+        Assertions.assertTrue(connection.isActive());
+        Assertions.assertSame(connection, acquire());
+    }
+    
+    @Test
+    public void testCloseNotifiesListenerWithPendingRequests() throws Exception {
+        pool = newPool(1, 0);
+        RpcConnection connection = acquire();
+        Assertions.assertTrue(connection.write(1L, Buffer.buffer()));
+        Assertions.assertTrue(connection.write(2L, Buffer.buffer()));
+        
+        pool.close();
+        
+        waitUntil(() -> !closedConnections.isEmpty(), 5000);
+        Assertions.assertSame(connection, closedConnections.get(0));
+        Assertions.assertEquals(2, connection.getPendingRequests().size());
+    }
+    
+    @Test
+    public void testWriteOnClosedConnectionFailsFast() throws Exception {
+        pool = newPool(1, 0);
+        RpcConnection connection = acquire();
+        connection.close();
+        
+        Assertions.assertFalse(connection.write(1L, Buffer.buffer()));
+        Assertions.assertTrue(connection.getPendingRequests().isEmpty());
+        
+        // 已关闭的连接不会再被分配出去
+        RpcConnection next = acquire();
+        Assertions.assertNotSame(connection, next);
+        Assertions.assertTrue(next.write(2L, Buffer.buffer()));
+    }
+    
+    private RpcConnectionPool newPool(int maxConnectionsPerHost, long idleTimeout) {
+        return new RpcConnectionPool(vertx, netClient, maxConnectionsPerHost, idleTimeout,
+                RpcConstant.DEFAULT_BATCH_MAX_BYTES, RpcConstant.DEFAULT_BATCH_DELAY_MS,
+                new RpcConnectionPool.ConnectionListener() {
+                    @Override
+                    public void onFrame(RpcConnection connection, RpcMessage<Buffer> frame) {
+                    }
+                    
+                    @Override
+                    public void onClose(RpcConnection connection) {
+                        closedConnections.add(connection);
+                    }
+                });
+    }
+    
+    private RpcConnection acquire() throws Exception {
+        return pool.acquire("127.0.0.1", server.actualPort()).get(5, TimeUnit.SECONDS);
+    }
+    
+    private NetServer listen(int port) throws Exception {
+        // 只接收连接、从不响应的服务端
+        CompletableFuture<NetServer> listening = vertx.createNetServer()
+                .connectHandler(socket -> {
+                    accepted.incrementAndGet();
+                    socket.handler(buffer -> { });
+                })
+                .listen(port)
+                .toCompletionStage().toCompletableFuture();
+        return listening.get(5, TimeUnit.SECONDS);
+    }
+    
+    private static void waitUntil(BooleanSupplier condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Assertions.assertTrue(condition.getAsBoolean(), "condition not met within " + timeoutMs + "ms");
+    }
+}
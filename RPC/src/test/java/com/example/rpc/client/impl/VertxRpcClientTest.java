@@ -0,0 +1,89 @@
+package com.example.rpc.client.impl;
+
+import com.example.rpc.config.RpcProperties;
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.model.RpcResponse;
+import io.vertx.core.Vertx;
+import io.vertx.core.net.NetServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Vertx客户端测试
+ */
+public class VertxRpcClientTest {
+    
+    private Vertx vertx;
+    private NetServer server;
+    private VertxRpcClient client;
+    
+    @BeforeEach
+    public void setUp() throws Exception {
+        // 只接收请求、从不响应的服务端
+        vertx = Vertx.vertx();
+        server = vertx.createNetServer().connectHandler(socket -> socket.handler(buffer -> { }));
+        server.listen(0).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        
+        RpcProperties properties = new RpcProperties();
+        properties.setTimeout(5000);
+        client = new VertxRpcClient(properties, null);
+        client.init();
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        client.close();
+        vertx.close();
+    }
+    
+    @Test
+    public void testRequestTimeoutOverridesClientTimeout() {
+        RpcRequest request = RpcRequest.builder()
+                .serviceName("com.example.rpc.test.TestService")
+                .methodName("sayHello")
+                .parameterTypes(new Class[]{String.class})
+                .parameters(new Object[]{"World"})
+                .timeout(200)
+                .build();
+        
+        long start = System.currentTimeMillis();
+        CompletableFuture<RpcResponse> future = client.sendRequest("127.0.0.1", server.actualPort(), request);
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class,
+                () -> future.get(3, TimeUnit.SECONDS));
+        long elapsed = System.currentTimeMillis() - start;
+        
+        Assertions.assertTrue(e.getCause() instanceof TimeoutException);
+        Assertions.assertTrue(elapsed >= 200 && elapsed < 3000, "elapsed: " + elapsed);
+    }
+    
+    @Test
+    public void testPendingRequestFailsWhenConnectionCloses() throws Exception {
+        // 收到请求后直接断开连接的服务端
+        NetServer closingServer = vertx.createNetServer().connectHandler(socket -> socket.handler(buffer -> socket.close()));
+        closingServer.listen(0).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        
+        RpcRequest request = RpcRequest.builder()
+                .serviceName("com.example.rpc.test.TestService")
+                .methodName("sayHello")
+                .parameterTypes(new Class[]{String.class})
+                .parameters(new Object[]{"World"})
+                .build();
+        
+        long start = System.currentTimeMillis();
+        CompletableFuture<RpcResponse> future = client.sendRequest("127.0.0.1", closingServer.actualPort(), request);
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class,
+                () -> future.get(3, TimeUnit.SECONDS));
+        long elapsed = System.currentTimeMillis() - start;
+        
+        Assertions.assertFalse(e.getCause() instanceof TimeoutException);
+        Assertions.assertTrue(e.getCause().getMessage().contains("Connection closed"), e.getCause().getMessage());
+        Assertions.assertTrue(elapsed < 3000, "elapsed: " + elapsed);
+    }
+}
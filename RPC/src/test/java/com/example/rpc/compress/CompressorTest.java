@@ -0,0 +1,54 @@
+package com.example.rpc.compress;
+
+import com.example.rpc.constant.RpcConstant;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 压缩器测试
+ */
+public class CompressorTest {
+    
+    @Test
+    public void testRoundTrip() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            text.append("{\"id\":").append(i).append(",\"name\":\"Product ").append(i).append("\"},");
+        }
+        byte[] original = text.toString().getBytes(StandardCharsets.UTF_8);
+        
+        for (String name : new String[]{RpcConstant.COMPRESSOR_DEFLATE, RpcConstant.COMPRESSOR_ZSTD}) {
+            Compressor compressor = CompressorFactory.getCompressor(name);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (OutputStream out = compressor.compress(compressed)) {
+                out.write(original);
+            }
+            Assertions.assertTrue(compressed.size() < original.length / 4, name);
+            
+            ByteArrayOutputStream restored = new ByteArrayOutputStream();
+            try (InputStream in = compressor.decompress(new ByteArrayInputStream(compressed.toByteArray()))) {
+                byte[] chunk = new byte[4096];
+                int n;
+                while ((n = in.read(chunk)) > 0) {
+                    restored.write(chunk, 0, n);
+                }
+            }
+            Assertions.assertArrayEquals(original, restored.toByteArray(), name);
+            Assertions.assertSame(compressor, CompressorFactory.getCompressorByType(compressor.getType()));
+        }
+    }
+    
+    @Test
+    public void testGetCompressor() {
+        Assertions.assertNull(CompressorFactory.getCompressor(RpcConstant.COMPRESSOR_NONE));
+        Assertions.assertNull(CompressorFactory.getCompressor(null));
+        Assertions.assertNull(CompressorFactory.getCompressorByType((byte) 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CompressorFactory.getCompressor("lzma"));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.rpc.fault.retry;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 重试策略测试
+ */
+public class RetryStrategyTest {
+    
+    @Test
+    public void testRetryBudget() {
+        RetryBudget budget = new RetryBudget(4, 0.5);
+        Assertions.assertTrue(budget.canRetry());
+        budget.onFailure();
+        Assertions.assertTrue(budget.canRetry());
+        budget.onFailure();
+        Assertions.assertFalse(budget.canRetry());
+        
+        // 成功调用逐步归还令牌，令牌数不超过容量
+        budget.onSuccess();
+        Assertions.assertTrue(budget.canRetry());
+        for (int i = 0; i < 10; i++) {
+            budget.onSuccess();
+        }
+        Assertions.assertEquals(4.0, budget.getTokens(), 0.001);
+    }
+    
+    @Test
+    public void testJitterStaysWithinBounds() {
+        ExponentialBackoffRetryStrategy strategy = new ExponentialBackoffRetryStrategy(5, 100, 2.0, 1000);
+        for (int i = 0; i < 100; i++) {
+            long delay = strategy.getRetryDelay(3, 100);
+            Assertions.assertTrue(delay >= 200 && delay <= 400, "delay " + delay);
+            Assertions.assertTrue(strategy.getRetryDelay(10, 100) <= 1000);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.rpc.fault.tolerance;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 熔断器测试
+ */
+public class CircuitBreakerTest {
+    
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+    
+    @Test
+    public void testOpensWhenFailureRateExceedsThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker(10000, 10, 10, 50, 100, 100, 5000);
+        for (int i = 0; i < 5; i++) {
+            breaker.record(breaker.acquirePermit(), FAST, true);
+        }
+        for (int i = 0; i < 4; i++) {
+            breaker.record(breaker.acquirePermit(), FAST, false);
+        }
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        
+        breaker.record(breaker.acquirePermit(), FAST, false);
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertTrue(breaker.isOpen());
+        Assertions.assertEquals(CircuitBreaker.NO_PERMIT, breaker.acquirePermit());
+    }
+    
+    @Test
+    public void testMinimumCallsGuard() {
+        CircuitBreaker breaker = new CircuitBreaker(10000, 10, 10, 50, 100, 100, 5000);
+        for (int i = 0; i < 9; i++) {
+            breaker.record(breaker.acquirePermit(), FAST, false);
+        }
+        // 调用数不足时不计算失败率
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        Assertions.assertFalse(breaker.isOpen());
+    }
+    
+    @Test
+    public void testOpensWhenSlowCallRateExceedsThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker(10000, 10, 4, 50, 75, 100, 5000);
+        breaker.record(breaker.acquirePermit(), FAST, true);
+        breaker.record(breaker.acquirePermit(), SLOW, true);
+        breaker.record(breaker.acquirePermit(), SLOW, true);
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        
+        breaker.record(breaker.acquirePermit(), SLOW, true);
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+    
+    @Test
+    public void testHalfOpenProbeSuccessCloses() throws Exception {
+        CircuitBreaker breaker = open(new CircuitBreaker(10000, 10, 2, 50, 100, 100, 50));
+        Thread.sleep(80);
+        
+        // 到期后只放行一个探测请求
+        Assertions.assertFalse(breaker.isOpen());
+        long probe = breaker.acquirePermit();
+        Assertions.assertNotEquals(CircuitBreaker.NO_PERMIT, probe);
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        Assertions.assertTrue(breaker.isOpen());
+        Assertions.assertEquals(CircuitBreaker.NO_PERMIT, breaker.acquirePermit());
+        
+        breaker.record(probe, FAST, true);
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        Assertions.assertFalse(breaker.isOpen());
+        // 关闭时清空统计，之前的失败不再计入
+        breaker.record(breaker.acquirePermit(), FAST, false);
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+    
+    @Test
+    public void testHalfOpenProbeFailureReopens() throws Exception {
+        CircuitBreaker breaker = open(new CircuitBreaker(10000, 10, 2, 50, 100, 100, 50));
+        Thread.sleep(80);
+        long probe = breaker.acquirePermit();
+        
+        breaker.record(probe, FAST, false);
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertEquals(CircuitBreaker.NO_PERMIT, breaker.acquirePermit());
+    }
+    
+    @Test
+    public void testIsOpenDoesNotConsumeProbe() throws Exception {
+        CircuitBreaker breaker = open(new CircuitBreaker(10000, 10, 2, 50, 100, 100, 50));
+        Thread.sleep(80);
+        
+        // 过滤候选实例时的检查不改变状态，探测机会留给最终选中的请求
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertFalse(breaker.isOpen());
+        }
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertNotEquals(CircuitBreaker.NO_PERMIT, breaker.acquirePermit());
+    }
+    
+    @Test
+    public void testStaleResultsAreIgnored() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(10000, 10, 2, 50, 100, 100, 50);
+        long beforeOpen = breaker.acquirePermit();
+        open(breaker);
+        Thread.sleep(80);
+        long probe = breaker.acquirePermit();
+        
+        // 打开前发出的请求在半开状态下才返回，不能代替探测请求关闭熔断器
+        breaker.record(beforeOpen, FAST, true);
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        
+        // 探测请求超时后放行新的探测，旧探测迟到的失败不会重新打开熔断器
+        Thread.sleep(80);
+        long nextProbe = breaker.acquirePermit();
+        Assertions.assertNotEquals(CircuitBreaker.NO_PERMIT, nextProbe);
+        breaker.record(probe, FAST, false);
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.record(nextProbe, FAST, true);
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+    
+    @Test
+    public void testStrategyTracksBreakerPerAddress() {
+        CircuitBreakerToleranceStrategy strategy = new CircuitBreakerToleranceStrategy(10000, 10, 2, 50, 100, 100, 5000);
+        Exception error = new RuntimeException("Connection refused");
+        strategy.onResult("127.0.0.1:8081", strategy.acquire("127.0.0.1:8081"), FAST, error);
+        strategy.onResult("127.0.0.1:8081", strategy.acquire("127.0.0.1:8081"), FAST, error);
+        strategy.onResult("127.0.0.1:8082", strategy.acquire("127.0.0.1:8082"), FAST, null);
+        strategy.onResult("127.0.0.1:8082", strategy.acquire("127.0.0.1:8082"), FAST, null);
+        
+        Assertions.assertFalse(strategy.isAvailable("127.0.0.1:8081"));
+        Assertions.assertTrue(strategy.isAvailable("127.0.0.1:8082"));
+        Assertions.assertTrue(strategy.isAvailable("127.0.0.1:8083"));
+        Assertions.assertEquals(ToleranceStrategy.NO_PERMIT, strategy.acquire("127.0.0.1:8081"));
+    }
+    
+    private CircuitBreaker open(CircuitBreaker breaker) {
+        breaker.record(breaker.acquirePermit(), FAST, false);
+        breaker.record(breaker.acquirePermit(), FAST, false);
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        return breaker;
+    }
+}
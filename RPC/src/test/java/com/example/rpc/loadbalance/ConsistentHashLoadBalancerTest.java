@@ -0,0 +1,90 @@
+package com.example.rpc.loadbalance;
+
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.model.ServiceRegistryInfo;
+import com.example.rpc.test.ServiceInstances;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一致性哈希负载均衡器测试
+ */
+public class ConsistentHashLoadBalancerTest {
+    
+    private final ConsistentHashLoadBalancer loadBalancer = new ConsistentHashLoadBalancer();
+    
+    @Test
+    public void testSameKeySameInstance() {
+        List<ServiceRegistryInfo> services = ServiceInstances.instances("demo", 8081, 8082, 8083);
+        ServiceRegistryInfo first = loadBalancer.select(services, "user-42");
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertSame(first, loadBalancer.select(services, "user-42"));
+        }
+        // 内容相同的新列表选择同一个实例
+        Assertions.assertEquals(first, loadBalancer.select(ServiceInstances.instances("demo", 8081, 8082, 8083), "user-42"));
+    }
+    
+    @Test
+    public void testOnlyKeysOfRemovedInstanceMove() {
+        List<ServiceRegistryInfo> services = ServiceInstances.instances("demo", 8081, 8082, 8083, 8084);
+        List<ServiceRegistryInfo> shrunk = ServiceInstances.instances("demo", 8081, 8082, 8083);
+        for (int i = 0; i < 1000; i++) {
+            String key = "key-" + i;
+            ServiceRegistryInfo before = loadBalancer.select(services, key);
+            ServiceRegistryInfo after = loadBalancer.select(shrunk, key);
+            if (before.getPort() != 8084) {
+                Assertions.assertEquals(before, after);
+            }
+        }
+    }
+    
+    @Test
+    public void testKeysSpreadAcrossInstances() {
+        List<ServiceRegistryInfo> services = ServiceInstances.instances("demo", 8081, 8082, 8083, 8084);
+        Map<Integer, Integer> counts = new HashMap<>();
+        int total = 10000;
+        for (int i = 0; i < total; i++) {
+            counts.merge(loadBalancer.select(services, "key-" + i).getPort(), 1, Integer::sum);
+        }
+        Assertions.assertEquals(4, counts.size());
+        for (int count : counts.values()) {
+            // 每个实例的份额应在平均值的一半到两倍之间
+            Assertions.assertTrue(count > total / 8 && count < total / 2, "unbalanced: " + counts);
+        }
+    }
+    
+    @Test
+    public void testSelectByRequestHashKey() {
+        List<ServiceRegistryInfo> services = ServiceInstances.instances("demo", 8081, 8082, 8083);
+        RpcRequest request = RpcRequest.builder()
+                .serviceName("demo")
+                .methodName("getUser")
+                .hashKey("user-42")
+                .build();
+        Assertions.assertSame(loadBalancer.select(services, "user-42"), loadBalancer.select(services, request));
+        
+        // 没有哈希键时同一方法的调用路由到同一实例
+        RpcRequest noKey = RpcRequest.builder().serviceName("demo").methodName("getUser").build();
+        Assertions.assertSame(loadBalancer.select(services, noKey), loadBalancer.select(services, noKey));
+    }
+    
+    @Test
+    public void testExcludedInstanceIsSkippedClockwise() {
+        List<ServiceRegistryInfo> services = ServiceInstances.instances("demo", 8081, 8082, 8083, 8084);
+        List<ServiceRegistryInfo> shrunk = ServiceInstances.instances("demo", 8081, 8082, 8083);
+        for (int i = 0; i < 1000; i++) {
+            RpcRequest request = RpcRequest.builder().serviceName("demo").methodName("getUser").hashKey("key-" + i).build();
+            // 跳过被排除实例的结果与去掉该实例后的哈希环相同，其余键的路由不变
+            ServiceRegistryInfo selected = loadBalancer.select(services, request, s -> s.getPort() == 8084);
+            Assertions.assertEquals(loadBalancer.select(shrunk, request), selected);
+        }
+        
+        RpcRequest request = RpcRequest.builder().serviceName("demo").methodName("getUser").hashKey("key").build();
+        Assertions.assertNull(loadBalancer.select(services, request, s -> true));
+        Assertions.assertNull(loadBalancer.select(ServiceInstances.instances("demo", 8081), request, s -> true));
+    }
+}
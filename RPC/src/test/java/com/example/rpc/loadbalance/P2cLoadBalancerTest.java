@@ -0,0 +1,127 @@
+package com.example.rpc.loadbalance;
+
+import com.example.rpc.model.ServiceRegistryInfo;
+import com.example.rpc.test.ServiceInstances;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * P2C负载均衡器测试
+ */
+public class P2cLoadBalancerTest {
+    
+    private static final long MS = 1_000_000L;
+    
+    private final P2cLoadBalancer loadBalancer = new P2cLoadBalancer();
+    
+    @Test
+    public void testAvoidSlowInstance() {
+        ServiceRegistryInfo fast = ServiceInstances.builder("demo", 8081).host("p2c-slow").build();
+        ServiceRegistryInfo slow = ServiceInstances.builder("demo", 8082).host("p2c-slow").build();
+        InvocationStats.of(fast.getAddress()).record(MS, System.nanoTime(), true);
+        InvocationStats.of(slow.getAddress()).record(200 * MS, System.nanoTime(), true);
+        
+        // 只有两个实例时每次都会比较这两个实例
+        List<ServiceRegistryInfo> services = Arrays.asList(fast, slow);
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertSame(fast, loadBalancer.select(services, "1"));
+        }
+    }
+    
+    @Test
+    public void testAvoidInstanceWithPendingRequests() {
+        ServiceRegistryInfo idle = ServiceInstances.builder("demo", 8081).host("p2c-active").build();
+        ServiceRegistryInfo busy = ServiceInstances.builder("demo", 8082).host("p2c-active").build();
+        InvocationStats.of(idle.getAddress()).record(10 * MS, System.nanoTime(), true);
+        InvocationStats busyStats = InvocationStats.of(busy.getAddress());
+        busyStats.record(10 * MS, System.nanoTime(), true);
+        long start = busyStats.begin();
+        busyStats.begin();
+        
+        List<ServiceRegistryInfo> services = Arrays.asList(idle, busy);
+        Assertions.assertSame(idle, loadBalancer.select(services, "1"));
+        
+        busyStats.end(start, true);
+        Assertions.assertEquals(1, busyStats.getActive());
+    }
+    
+    @Test
+    public void testWeightScalesCost() {
+        ServiceRegistryInfo light = ServiceInstances.builder("demo", 8081).host("p2c-weight").build();
+        ServiceRegistryInfo heavy = ServiceInstances.builder("demo", 8082).host("p2c-weight").weight(400).build();
+        InvocationStats.of(light.getAddress()).record(10 * MS, System.nanoTime(), true);
+        InvocationStats.of(heavy.getAddress()).record(20 * MS, System.nanoTime(), true);
+        
+        // 权重是4倍，响应时间只慢2倍，仍然优先选择权重大的实例
+        Assertions.assertTrue(loadBalancer.cost(heavy, Arrays.asList(light, heavy)) < loadBalancer.cost(light, Arrays.asList(light, heavy)));
+        Assertions.assertSame(heavy, loadBalancer.select(Arrays.asList(light, heavy), "1"));
+    }
+    
+    @Test
+    public void testEwmaReactsToPeakAndDecays() {
+        InvocationStats stats = InvocationStats.of("p2c-ewma:8081");
+        long now = System.nanoTime();
+        stats.record(10 * MS, now, true);
+        Assertions.assertEquals(10 * MS, stats.getEwmaNanos(), 1);
+        
+        // 变慢的样本立即生效
+        stats.record(100 * MS, now + MS, true);
+        Assertions.assertEquals(100 * MS, stats.getEwmaNanos(), 1);
+        
+        // 恢复后按时间衰减，经过多个衰减周期后接近新的响应时间
+        stats.record(10 * MS, now + MS + 5 * InvocationStats.DECAY_NANOS, true);
+        Assertions.assertTrue(stats.getEwmaNanos() < 11 * MS);
+    }
+    
+    @Test
+    public void testFailureIsPenalized() {
+        InvocationStats stats = InvocationStats.of("p2c-failure:8081");
+        stats.record(MS, System.nanoTime(), false);
+        Assertions.assertEquals(InvocationStats.FAILURE_PENALTY_NANOS, stats.getEwmaNanos(), 1);
+    }
+    
+    @Test
+    public void testNewInstanceUsesMeanLatencyOfPeers() {
+        ServiceRegistryInfo warm = ServiceInstances.builder("demo", 8081).host("p2c-cold").build();
+        ServiceRegistryInfo slow = ServiceInstances.builder("demo", 8082).host("p2c-cold").build();
+        ServiceRegistryInfo cold = ServiceInstances.builder("demo", 8083).host("p2c-cold").build();
+        InvocationStats.of(warm.getAddress()).record(10 * MS, System.nanoTime(), true);
+        InvocationStats.of(slow.getAddress()).record(30 * MS, System.nanoTime(), true);
+        
+        // 没有样本的新实例按平均响应时间计算，不会在每次比较中胜出
+        List<ServiceRegistryInfo> services = Arrays.asList(warm, slow, cold);
+        Assertions.assertEquals(20 * MS / 100, loadBalancer.cost(cold, services), 1);
+        Assertions.assertTrue(loadBalancer.cost(warm, services) < loadBalancer.cost(cold, services));
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertNotSame(slow, loadBalancer.select(services, "1"));
+        }
+    }
+    
+    @Test
+    public void testIdleStatsExpire() {
+        InvocationStats idle = InvocationStats.of("p2c-expire:8081");
+        InvocationStats busy = InvocationStats.of("p2c-expire:8082");
+        idle.end(idle.begin(), true);
+        busy.begin();
+        
+        InvocationStats.expire(System.nanoTime() + InvocationStats.EXPIRE_NANOS + 1);
+        
+        // 有未完成请求的统计保留，空闲超时的统计被清理
+        Assertions.assertNull(InvocationStats.peek("p2c-expire:8081"));
+        Assertions.assertSame(busy, InvocationStats.peek("p2c-expire:8082"));
+    }
+    
+    @Test
+    public void testSelectFromManyInstances() {
+        List<ServiceRegistryInfo> services = Arrays.asList(ServiceInstances.builder("demo", 8081).host("p2c-many").build(),
+                ServiceInstances.builder("demo", 8082).host("p2c-many").build(),
+                ServiceInstances.builder("demo", 8083).host("p2c-many").build());
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertTrue(services.contains(loadBalancer.select(services, "1")));
+        }
+        Assertions.assertNull(loadBalancer.select(Arrays.asList(), "1"));
+    }
+}
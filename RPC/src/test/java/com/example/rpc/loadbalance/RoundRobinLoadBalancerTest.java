@@ -0,0 +1,111 @@
+package com.example.rpc.loadbalance;
+
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.model.ServiceRegistryInfo;
+import com.example.rpc.test.ServiceInstances;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 平滑加权轮询负载均衡器测试
+ */
+public class RoundRobinLoadBalancerTest {
+    
+    @Test
+    public void testSmoothWeightedSequence() {
+        List<ServiceRegistryInfo> services = Arrays.asList(ServiceInstances.instance("demo", 8081, 5),
+                ServiceInstances.instance("demo", 8082, 1), ServiceInstances.instance("demo", 8083, 1));
+        RoundRobinLoadBalancer.WeightedSequence sequence = new RoundRobinLoadBalancer.WeightedSequence(services);
+        Assertions.assertEquals(7, sequence.length());
+        
+        // 与nginx的平滑加权轮询一致：a a b a c a a，权重大的实例不会连续占满
+        StringBuilder order = new StringBuilder();
+        for (int i = 0; i < 14; i++) {
+            order.append((char) ('a' + sequence.next().getPort() - 8081));
+        }
+        String rounds = order.toString();
+        Assertions.assertTrue((rounds + rounds).contains("aabacaa"), rounds);
+    }
+    
+    @Test
+    public void testTrafficFollowsWeight() {
+        RoundRobinLoadBalancer loadBalancer = new RoundRobinLoadBalancer();
+        List<ServiceRegistryInfo> services = Arrays.asList(ServiceInstances.instance("demo", 8081, 300),
+                ServiceInstances.instance("demo", 8082, 100));
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 400; i++) {
+            counts.merge(loadBalancer.select(services, "1").getPort(), 1, Integer::sum);
+        }
+        Assertions.assertEquals(300, counts.get(8081).intValue());
+        Assertions.assertEquals(100, counts.get(8082).intValue());
+    }
+    
+    @Test
+    public void testZeroWeightExcluded() {
+        RoundRobinLoadBalancer loadBalancer = new RoundRobinLoadBalancer();
+        List<ServiceRegistryInfo> services = Arrays.asList(ServiceInstances.instance("demo", 8081, 100),
+                ServiceInstances.instance("demo", 8082, 0));
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals(8081, loadBalancer.select(services, "1").getPort());
+        }
+        
+        // 全部为0时按相同权重轮询
+        List<ServiceRegistryInfo> allZero = Arrays.asList(ServiceInstances.instance("zero", 8081, 0),
+                ServiceInstances.instance("zero", 8082, 0));
+        Assertions.assertNotEquals(loadBalancer.select(allZero, "1").getPort(), loadBalancer.select(allZero, "1").getPort());
+    }
+    
+    @Test
+    public void testLargeWeightsAreScaled() {
+        List<ServiceRegistryInfo> services = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            services.add(ServiceInstances.instance("demo", 8081 + i, 1000 + i));
+        }
+        RoundRobinLoadBalancer.WeightedSequence sequence = new RoundRobinLoadBalancer.WeightedSequence(services);
+        Assertions.assertTrue(sequence.length() <= RoundRobinLoadBalancer.MAX_SEQUENCE_LENGTH);
+    }
+    
+    @Test
+    public void testServicesRotateIndependently() {
+        RoundRobinLoadBalancer loadBalancer = new RoundRobinLoadBalancer();
+        List<ServiceRegistryInfo> a = Arrays.asList(ServiceInstances.instance("a", 8081, 100),
+                ServiceInstances.instance("a", 8082, 100));
+        List<ServiceRegistryInfo> b = Arrays.asList(ServiceInstances.instance("b", 9081, 100),
+                ServiceInstances.instance("b", 9082, 100));
+        
+        // 交替调用两个服务时，每个服务仍然在自己的实例间轮换
+        int previousA = -1;
+        for (int i = 0; i < 10; i++) {
+            int portA = loadBalancer.select(a, "1").getPort();
+            loadBalancer.select(b, "1");
+            Assertions.assertNotEquals(previousA, portA);
+            previousA = portA;
+        }
+    }
+    
+    @Test
+    public void testExclusionKeepsRotation() {
+        RoundRobinLoadBalancer loadBalancer = new RoundRobinLoadBalancer();
+        List<ServiceRegistryInfo> services = Arrays.asList(ServiceInstances.instance("skip", 8081, 100),
+                ServiceInstances.instance("skip", 8082, 100), ServiceInstances.instance("skip", 8083, 100));
+        RpcRequest request = RpcRequest.builder().serviceName("skip").methodName("echo").build();
+        
+        // 排除实例时不重新生成序列，交替的普通调用仍然均匀地轮换所有实例
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 15; i++) {
+            Assertions.assertNotEquals(8082, loadBalancer.select(services, request, s -> s.getPort() == 8082).getPort());
+            counts.merge(loadBalancer.select(services, "1").getPort(), 1, Integer::sum);
+        }
+        Assertions.assertEquals(5, counts.get(8081).intValue());
+        Assertions.assertEquals(5, counts.get(8082).intValue());
+        Assertions.assertEquals(5, counts.get(8083).intValue());
+        
+        Assertions.assertNull(loadBalancer.select(services, request, s -> true));
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.rpc.protocol;
+
+import com.example.rpc.compress.Compressor;
+import com.example.rpc.compress.CompressorFactory;
+import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.model.RpcMessage;
+import com.example.rpc.model.RpcMessageHeader;
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.model.RpcResponse;
+import com.example.rpc.serializer.SerializerFactory;
+import io.vertx.core.buffer.Buffer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 协议编解码和帧解析测试
+ */
+public class RpcMessageCodecTest {
+    
+    private static final byte JSON_TYPE = SerializerFactory.getSerializer(RpcConstant.SERIALIZER_JSON).getType();
+    
+    @Test
+    public void testEncodeAndDecode() throws Exception {
+        RpcRequest request = buildRequest("sayHello", "World");
+        Buffer buffer = encodeRequest(42L, request);
+        
+        RpcMessageHeader header = RpcMessageCodec.decodeHeader(buffer);
+        Assertions.assertEquals(RpcConstant.MAGIC_NUMBER, header.getMagicNumber());
+        Assertions.assertEquals(RpcConstant.MESSAGE_TYPE_REQUEST, header.getMessageType());
+        Assertions.assertEquals(RpcConstant.MESSAGE_STATUS_OK, header.getStatusCode());
+        Assertions.assertEquals(42L, header.getRequestId());
+        Assertions.assertEquals(buffer.length() - RpcConstant.HEADER_LENGTH, header.getBodyLength());
+        
+        RpcRequest decoded = RpcMessageCodec.decodeBody(header,
+                buffer.slice(RpcConstant.HEADER_LENGTH, buffer.length()), RpcRequest.class);
+        Assertions.assertEquals(request.getServiceName(), decoded.getServiceName());
+        Assertions.assertEquals(request.getMethodName(), decoded.getMethodName());
+    }
+    
+    @Test
+    public void testEncodeLargeBodyBackFillsLength() throws Exception {
+        String argument = new String(new char[200 * 1024]).replace('\0', 'x');
+        for (String name : new String[]{RpcConstant.SERIALIZER_JSON, RpcConstant.SERIALIZER_KRYO}) {
+            byte type = SerializerFactory.getSerializer(name).getType();
+            RpcMessageHeader header = RpcMessageCodec.buildHeader(RpcConstant.MESSAGE_TYPE_REQUEST,
+                    type, RpcConstant.MESSAGE_STATUS_OK, 7L);
+            Buffer buffer = RpcMessageCodec.encode(RpcMessageCodec.buildMessage(header, buildRequest("big", argument)));
+            
+            RpcMessageHeader decodedHeader = RpcMessageCodec.decodeHeader(buffer);
+            Assertions.assertEquals(buffer.length() - RpcConstant.HEADER_LENGTH, decodedHeader.getBodyLength());
+            RpcRequest decoded = RpcMessageCodec.decodeBody(decodedHeader,
+                    buffer.slice(RpcConstant.HEADER_LENGTH, buffer.length()), RpcRequest.class);
+            Assertions.assertEquals(argument, decoded.getParameters()[0]);
+        }
+    }
+    
+    @Test
+    public void testCompressedBody() throws Exception {
+        Compressor compressor = CompressorFactory.getCompressor(RpcConstant.COMPRESSOR_ZSTD);
+        String argument = new String(new char[64 * 1024]).replace('\0', 'x');
+        RpcMessageHeader header = RpcMessageCodec.buildHeader(RpcConstant.MESSAGE_TYPE_REQUEST,
+                JSON_TYPE, RpcConstant.MESSAGE_STATUS_OK, 5L);
+        Buffer buffer = RpcMessageCodec.encode(RpcMessageCodec.buildMessage(header, buildRequest("big", argument)),
+                compressor, 1024);
+        
+        RpcMessageHeader decodedHeader = RpcMessageCodec.decodeHeader(buffer);
+        Assertions.assertTrue(decodedHeader.isCompressed());
+        Assertions.assertEquals(compressor.getType(), decodedHeader.getCompressionType());
+        Assertions.assertEquals(buffer.length() - RpcConstant.HEADER_LENGTH, decodedHeader.getBodyLength());
+        Assertions.assertTrue(buffer.length() < argument.length() / 10);
+        RpcRequest decoded = RpcMessageCodec.decodeBody(decodedHeader,
+                buffer.slice(RpcConstant.HEADER_LENGTH, buffer.length()), RpcRequest.class);
+        Assertions.assertEquals(argument, decoded.getParameters()[0]);
+        
+        // 低于阈值的消息不压缩，但仍带上压缩器类型，供服务端选择响应的压缩方式
+        Buffer small = RpcMessageCodec.encode(RpcMessageCodec.buildMessage(header, buildRequest("small", "a")),
+                compressor, 1024);
+        RpcMessageHeader smallHeader = RpcMessageCodec.decodeHeader(small);
+        Assertions.assertFalse(smallHeader.isCompressed());
+        Assertions.assertEquals(compressor.getType(), smallHeader.getCompressionType());
+        
+        // 压缩后没有变小时发送原始数据
+        byte[] random = new byte[4096];
+        new Random(1).nextBytes(random);
+        RpcMessageHeader kryoHeader = RpcMessageCodec.buildHeader(RpcConstant.MESSAGE_TYPE_RESPONSE,
+                SerializerFactory.getSerializer(RpcConstant.SERIALIZER_KRYO).getType(), RpcConstant.MESSAGE_STATUS_OK, 6L);
+        Buffer uncompressed = RpcMessageCodec.encode(RpcMessageCodec.buildMessage(kryoHeader, random), compressor, 0);
+        RpcMessageHeader uncompressedHeader = RpcMessageCodec.decodeHeader(uncompressed);
+        Assertions.assertFalse(uncompressedHeader.isCompressed());
+        Assertions.assertArrayEquals(random, RpcMessageCodec.decodeBody(uncompressedHeader,
+                uncompressed.slice(RpcConstant.HEADER_LENGTH, uncompressed.length()), byte[].class));
+    }
+    
+    @Test
+    public void testDecodeWithDeclaredTypes() throws Exception {
+        Type[] argumentTypes = Holder.class.getMethod("accept", List.class, Map.class).getGenericParameterTypes();
+        RpcRequest request = RpcRequest.builder()
+                .serviceName("com.example.rpc.test.TestService")
+                .methodName("accept")
+                .methodId(1)
+                .parameters(new Object[]{Arrays.asList(new Holder("a")), Collections.singletonMap("k", new Holder("b"))})
+                .version("1.0")
+                .group("default")
+                .build();
+        Buffer buffer = encodeRequest(3L, request);
+        
+        // 解析器看到的请求已经包含服务名和方法ID
+        List<RpcRequest> resolved = new ArrayList<>();
+        RpcRequest decoded = RpcMessageCodec.decodeRequest(RpcMessageCodec.decodeHeader(buffer),
+                buffer.slice(RpcConstant.HEADER_LENGTH, buffer.length()), r -> {
+                    resolved.add(r);
+                    return argumentTypes;
+                });
+        Assertions.assertEquals("com.example.rpc.test.TestService", resolved.get(0).getServiceName());
+        Assertions.assertEquals(1, resolved.get(0).getMethodId());
+        Assertions.assertEquals("a", ((List<?>) decoded.getParameters()[0]).stream()
+                .map(h -> ((Holder) h).getValue()).findFirst().orElse(null));
+        Assertions.assertEquals("b", ((Holder) ((Map<?, ?>) decoded.getParameters()[1]).get("k")).getValue());
+        
+        RpcMessageHeader header = RpcMessageCodec.buildHeader(RpcConstant.MESSAGE_TYPE_RESPONSE,
+                JSON_TYPE, RpcConstant.MESSAGE_STATUS_OK, 3L);
+        Buffer responseBuffer = RpcMessageCodec.encode(RpcMessageCodec.buildMessage(header,
+                RpcResponse.success("3", Arrays.asList(new Holder("c")))));
+        RpcResponse<?> response = RpcMessageCodec.decodeResponse(RpcMessageCodec.decodeHeader(responseBuffer),
+                responseBuffer.slice(RpcConstant.HEADER_LENGTH, responseBuffer.length()), argumentTypes[0]);
+        Assertions.assertEquals("c", ((Holder) ((List<?>) response.getData()).get(0)).getValue());
+    }
+    
+    @Test
+    public void testFrameParserHandlesCoalescedAndSplitBuffers() throws Exception {
+        // 两个请求拼接在一起，再按很小的块拆分，模拟TCP粘包和半包
+        Buffer stream = Buffer.buffer()
+                .appendBuffer(encodeRequest(1L, buildRequest("first", "a")))
+                .appendBuffer(encodeRequest(2L, buildRequest("second", "b")));
+        
+        List<RpcMessage<Buffer>> frames = new ArrayList<>();
+        RpcFrameParser parser = new RpcFrameParser(frames::add, Assertions::fail);
+        for (int i = 0; i < stream.length(); i += 7) {
+            parser.handle(stream.getBuffer(i, Math.min(i + 7, stream.length())));
+        }
+        
+        Assertions.assertEquals(2, frames.size());
+        Assertions.assertEquals(1L, frames.get(0).getHeader().getRequestId());
+        Assertions.assertEquals(2L, frames.get(1).getHeader().getRequestId());
+        
+        RpcRequest second = RpcMessageCodec.decodeBody(frames.get(1).getHeader(),
+                frames.get(1).getBody(), RpcRequest.class);
+        Assertions.assertEquals("second", second.getMethodName());
+    }
+    
+    @Test
+    public void testFrameParserRejectsInvalidMagicNumber() {
+        List<Throwable> errors = new ArrayList<>();
+        RpcFrameParser parser = new RpcFrameParser(frame -> Assertions.fail("Unexpected frame"), errors::add);
+        parser.handle(Buffer.buffer(new byte[RpcConstant.HEADER_LENGTH]));
+        Assertions.assertEquals(1, errors.size());
+    }
+    
+    @Test
+    public void testFrameParserRejectsOtherProtocolVersion() throws Exception {
+        // 版本1的对端魔数相同，但协议头更短，不能按本版本的格式继续解析
+        Buffer frame = encodeRequest(1L, buildRequest("old", "a"));
+        frame.setByte(4, (byte) 1);
+        
+        List<Throwable> errors = new ArrayList<>();
+        RpcFrameParser parser = new RpcFrameParser(f -> Assertions.fail("Unexpected frame"), errors::add);
+        parser.handle(frame);
+        Assertions.assertEquals(1, errors.size());
+        Assertions.assertTrue(errors.get(0).getMessage().contains("Unsupported protocol version: 1"));
+    }
+    
+    private Buffer encodeRequest(long requestId, RpcRequest request) throws Exception {
+        RpcMessageHeader header = RpcMessageCodec.buildHeader(RpcConstant.MESSAGE_TYPE_REQUEST,
+                JSON_TYPE, RpcConstant.MESSAGE_STATUS_OK, requestId);
+        return RpcMessageCodec.encode(RpcMessageCodec.buildMessage(header, request));
+    }
+    
+    private RpcRequest buildRequest(String methodName, String argument) {
+        return RpcRequest.builder()
+                .serviceName("com.example.rpc.test.TestService")
+                .methodName(methodName)
+                .parameterTypes(new Class[]{String.class})
+                .parameters(new Object[]{argument})
+                .version("1.0")
+                .group("default")
+                .build();
+    }
+    
+    public static class Holder {
+        private String value;
+        
+        public Holder() {
+        }
+        
+        Holder(String value) {
+            this.value = value;
+        }
+        
+        public String getValue() {
+            return value;
+        }
+        
+        public void setValue(String value) {
+            this.value = value;
+        }
+        
+        public void accept(List<Holder> list, Map<String, Holder> map) {
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.rpc.protocol;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetServer;
+import io.vertx.core.net.NetSocket;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 连接写合并器测试
+ */
+public class RpcWriteBatcherTest {
+    
+    private static final int MESSAGE_COUNT = 100;
+    private static final int MESSAGE_SIZE = 32;
+    
+    private Vertx vertx;
+    private NetServer server;
+    private final AtomicInteger receivedBytes = new AtomicInteger();
+    private final CompletableFuture<Void> allReceived = new CompletableFuture<>();
+    
+    @BeforeEach
+    public void setUp() throws Exception {
+        vertx = Vertx.vertx();
+        server = vertx.createNetServer().connectHandler(socket -> socket.handler(buffer -> {
+            if (receivedBytes.addAndGet(buffer.length()) >= MESSAGE_COUNT * MESSAGE_SIZE) {
+                allReceived.complete(null);
+            }
+        }));
+        server.listen(0).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        vertx.close();
+    }
+    
+    @Test
+    public void testWritesInSameTickAreCoalesced() throws Exception {
+        RpcWriteBatcher writer = writeAll(64 * 1024);
+        
+        allReceived.get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(MESSAGE_COUNT, writer.getMessageCount());
+        Assertions.assertEquals(1, writer.getFlushCount());
+    }
+    
+    @Test
+    public void testFlushWhenMaxBytesReached() throws Exception {
+        // 每积攒10个消息写出一次
+        RpcWriteBatcher writer = writeAll(MESSAGE_SIZE * 10);
+        
+        allReceived.get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(MESSAGE_COUNT / 10, writer.getFlushCount());
+    }
+    
+    @Test
+    public void testBatchingDisabled() throws Exception {
+        RpcWriteBatcher writer = writeAll(0);
+        
+        allReceived.get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(MESSAGE_COUNT, writer.getFlushCount());
+    }
+    
+    /**
+     * 在连接所属的事件循环上连续写出所有消息
+     */
+    private RpcWriteBatcher writeAll(int maxBytes) throws Exception {
+        CompletableFuture<RpcWriteBatcher> result = new CompletableFuture<>();
+        vertx.createNetClient().connect(server.actualPort(), "127.0.0.1", ar -> {
+            NetSocket socket = ar.result();
+            RpcWriteBatcher writer = new RpcWriteBatcher(vertx.getOrCreateContext(), socket, maxBytes, 0);
+            for (int i = 0; i < MESSAGE_COUNT; i++) {
+                writer.write(Buffer.buffer(new byte[MESSAGE_SIZE]));
+            }
+            result.complete(writer);
+        });
+        return result.get(5, TimeUnit.SECONDS);
+    }
+}
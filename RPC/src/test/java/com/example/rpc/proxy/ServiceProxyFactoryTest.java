@@ -0,0 +1,150 @@
+package com.example.rpc.proxy;
+
+import com.example.rpc.client.RpcClient;
+import com.example.rpc.exception.RpcException;
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.model.RpcResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 服务代理工厂测试
+ */
+public class ServiceProxyFactoryTest {
+    
+    private final PendingRpcClient client = new PendingRpcClient();
+    private final ServiceProxyFactory factory = new ServiceProxyFactory(client);
+    private final GreetingService proxy = factory.createProxy(GreetingService.class, "1.0", "default");
+    
+    @Test
+    public void testAsyncMethodDoesNotBlock() throws Exception {
+        CompletableFuture<String> future = proxy.greetAsync("World");
+        
+        // 响应到达前立即返回未完成的future
+        Assertions.assertFalse(future.isDone());
+        Assertions.assertEquals("greetAsync", client.lastRequest.getMethodName());
+        
+        client.pending.complete(RpcResponse.success(client.lastRequest.getRequestId(), "Hello, World"));
+        Assertions.assertEquals("Hello, World", future.get(1, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    public void testAsyncMethodFailsWithRpcException() {
+        CompletableFuture<String> future = proxy.greetAsync("World");
+        client.pending.complete(RpcResponse.failure(client.lastRequest.getRequestId(), "boom"));
+        
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class,
+                () -> future.get(1, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause() instanceof RpcException);
+        Assertions.assertEquals("boom", e.getCause().getMessage());
+    }
+    
+    @Test
+    public void testAsyncTransportFailureIsWrappedInRpcException() {
+        CompletableFuture<String> future = proxy.greetAsync("World");
+        client.pending.completeExceptionally(new TimeoutException("Request timeout after 1000ms"));
+        
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class,
+                () -> future.get(1, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause() instanceof RpcException);
+        Assertions.assertTrue(e.getCause().getCause() instanceof TimeoutException);
+    }
+    
+    @Test
+    public void testAsyncResultCompletesOnCallbackExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "rpc-callback"));
+        try {
+            ServiceProxyFactory callbackFactory = new ServiceProxyFactory(client, executor);
+            GreetingService callbackProxy = callbackFactory.createProxy(GreetingService.class, "1.0", "default");
+            CompletableFuture<String> thread = callbackProxy.greetAsync("World")
+                    .thenApply(value -> Thread.currentThread().getName());
+            
+            client.pending.complete(RpcResponse.success(client.lastRequest.getRequestId(), "Hello, World"));
+            Assertions.assertEquals("rpc-callback", thread.get(1, TimeUnit.SECONDS));
+            
+            // 单次调用也可以指定执行器
+            CompletableFuture<String> direct = callbackFactory.<String>invokeAsync(null, callbackProxy,
+                    GreetingService.class.getMethod("greet", String.class), "World")
+                    .thenApply(value -> Thread.currentThread().getName());
+            client.pending.complete(RpcResponse.success(client.lastRequest.getRequestId(), "Hello, World"));
+            Assertions.assertEquals(Thread.currentThread().getName(), direct.get(1, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void testInvokeAsyncOnSyncMethod() throws Exception {
+        CompletableFuture<String> future = factory.invokeAsync(proxy,
+                GreetingService.class.getMethod("greet", String.class), "World");
+        
+        Assertions.assertFalse(future.isDone());
+        client.pending.complete(RpcResponse.success(client.lastRequest.getRequestId(), "Hello, World"));
+        Assertions.assertEquals("Hello, World", future.get(1, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    public void testSyncMethodWaitsForResponse() {
+        client.autoReply = "Hello, World";
+        Assertions.assertEquals("Hello, World", proxy.greet("World"));
+    }
+    
+    public interface GreetingService {
+        String greet(String name);
+        
+        CompletableFuture<String> greetAsync(String name);
+    }
+    
+    /**
+     * 记录请求、由测试决定何时返回响应的客户端
+     */
+    private static class PendingRpcClient implements RpcClient {
+        private RpcRequest lastRequest;
+        private CompletableFuture<RpcResponse> pending;
+        private Object autoReply;
+        
+        @Override
+        public void init() {
+        }
+        
+        @Override
+        public CompletableFuture<RpcResponse> sendRequest(RpcRequest request) {
+            lastRequest = request;
+            pending = new CompletableFuture<>();
+            if (autoReply != null) {
+                pending.complete(RpcResponse.success(request.getRequestId(), autoReply));
+            }
+            return pending;
+        }
+        
+        @Override
+        public CompletableFuture<RpcResponse> sendRequest(String host, int port, RpcRequest request) {
+            return sendRequest(request);
+        }
+        
+        @Override
+        public void close() {
+        }
+        
+        @Override
+        public void setTimeout(long timeout) {
+        }
+        
+        @Override
+        public long getTimeout() {
+            return 1000;
+        }
+        
+        @Override
+        public boolean isInitialized() {
+            return true;
+        }
+    }
+}
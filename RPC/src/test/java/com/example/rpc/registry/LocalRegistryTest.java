@@ -0,0 +1,77 @@
+package com.example.rpc.registry;
+
+import com.example.rpc.model.ServiceRegistryInfo;
+import com.example.rpc.test.ServiceInstances;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 本地注册中心测试
+ */
+public class LocalRegistryTest {
+    
+    private static final String SERVICE_NAME = "com.example.rpc.registry.LocalRegistryTest$DemoService";
+    
+    private final LocalRegistry provider = new LocalRegistry();
+    private final LocalRegistry consumer = new LocalRegistry();
+    
+    @AfterEach
+    public void tearDown() {
+        provider.close();
+        consumer.close();
+    }
+    
+    @Test
+    public void testRegisterAndDiscoverAcrossInstances() {
+        provider.register(ServiceInstances.instance(SERVICE_NAME, 8081)).join();
+        provider.register(ServiceInstances.instance(SERVICE_NAME, 8082)).join();
+        
+        List<ServiceRegistryInfo> services = consumer.discover(SERVICE_NAME, "default", "1.0").join();
+        Assertions.assertEquals(2, services.size());
+        
+        provider.unregister(ServiceInstances.instance(SERVICE_NAME, 8081)).join();
+        services = consumer.discover(SERVICE_NAME, "default", "1.0").join();
+        Assertions.assertEquals(1, services.size());
+        Assertions.assertEquals(8082, services.get(0).getPort());
+    }
+    
+    @Test
+    public void testSubscribeReceivesChanges() {
+        List<Integer> sizes = new ArrayList<>();
+        consumer.subscribe(SERVICE_NAME, "default", "1.0", (serviceKey, services) -> sizes.add(services.size()));
+        
+        provider.register(ServiceInstances.instance(SERVICE_NAME, 8081)).join();
+        provider.register(ServiceInstances.instance(SERVICE_NAME, 8082)).join();
+        provider.unregister(ServiceInstances.instance(SERVICE_NAME, 8081)).join();
+        
+        Assertions.assertEquals(Arrays.asList(1, 2, 1), sizes);
+    }
+    
+    @Test
+    public void testFactoryCreatesIndependentInstances() {
+        ServiceRegistry first = RegistryFactory.createRegistry("local", null);
+        ServiceRegistry second = RegistryFactory.createRegistry("local", null);
+        Assertions.assertNotSame(first, second);
+        
+        // 关闭一个实例只注销它自己注册的服务
+        second.register(ServiceInstances.instance(SERVICE_NAME, 8081)).join();
+        first.close();
+        Assertions.assertEquals(1, consumer.discover(SERVICE_NAME, "default", "1.0").join().size());
+        
+        second.close();
+        Assertions.assertTrue(consumer.discover(SERVICE_NAME, "default", "1.0").join().isEmpty());
+    }
+    
+    @Test
+    public void testCloseUnregistersOwnServices() {
+        provider.register(ServiceInstances.instance(SERVICE_NAME, 8081)).join();
+        provider.close();
+        
+        Assertions.assertTrue(consumer.discover(SERVICE_NAME, "default", "1.0").join().isEmpty());
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.rpc.registry;
+
+import com.example.rpc.model.ServiceRegistryInfo;
+import com.example.rpc.test.ServiceInstances;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 服务目录测试
+ */
+public class ServiceDirectoryTest {
+    
+    private static final String KEY_A = "/rpc/demo:default:1.0/127.0.0.1:8081";
+    private static final String KEY_B = "/rpc/demo:default:1.0/127.0.0.1:8082";
+    
+    @Test
+    public void testApplyEventsAfterReset() {
+        ServiceDirectory directory = new ServiceDirectory("demo:default:1.0");
+        directory.reset(Collections.singletonMap(KEY_A, ServiceInstances.instance("demo", 8081)), 10);
+        Assertions.assertEquals(1, directory.getInstances().size());
+        
+        Assertions.assertTrue(directory.put(KEY_B, ServiceInstances.instance("demo", 8082), 11));
+        Assertions.assertEquals(2, directory.getInstances().size());
+        
+        Assertions.assertTrue(directory.remove(KEY_A, 12));
+        List<ServiceRegistryInfo> instances = directory.getInstances();
+        Assertions.assertEquals(1, instances.size());
+        Assertions.assertEquals(8082, instances.get(0).getPort());
+        Assertions.assertEquals(12, directory.getRevision());
+    }
+    
+    @Test
+    public void testIgnoreEventsAlreadyInSnapshot() {
+        ServiceDirectory directory = new ServiceDirectory("demo:default:1.0");
+        directory.reset(Collections.singletonMap(KEY_A, ServiceInstances.instance("demo", 8081)), 10);
+        
+        // 修订号不大于快照修订号的事件已经包含在全量数据中
+        Assertions.assertFalse(directory.put(KEY_B, ServiceInstances.instance("demo", 8082), 10));
+        Assertions.assertFalse(directory.remove(KEY_A, 9));
+        Assertions.assertEquals(1, directory.getInstances().size());
+    }
+    
+    @Test
+    public void testSnapshotIsImmutableAndFiltersUnhealthy() {
+        Map<String, ServiceRegistryInfo> instances = new HashMap<>();
+        instances.put(KEY_A, ServiceInstances.instance("demo", 8081));
+        instances.put(KEY_B, ServiceInstances.builder("demo", 8082).healthy(false).build());
+        ServiceDirectory directory = new ServiceDirectory("demo:default:1.0");
+        directory.reset(instances, 1);
+        
+        List<ServiceRegistryInfo> snapshot = directory.getInstances();
+        Assertions.assertEquals(1, snapshot.size());
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> snapshot.add(ServiceInstances.instance("demo", 8083)));
+        // 同一快照复用同一个已完成的future
+        Assertions.assertSame(directory.getInstancesFuture(), directory.getInstancesFuture());
+        Assertions.assertSame(snapshot, directory.getInstancesFuture().join());
+        
+        // 变更后旧快照不受影响
+        directory.remove(KEY_A, 2);
+        Assertions.assertEquals(1, snapshot.size());
+        Assertions.assertTrue(directory.getInstances().isEmpty());
+    }
+}
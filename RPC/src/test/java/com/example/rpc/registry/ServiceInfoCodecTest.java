@@ -0,0 +1,77 @@
+package com.example.rpc.registry;
+
+import com.example.rpc.exception.RpcException;
+import com.example.rpc.model.ServiceRegistryInfo;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 服务信息编解码器测试
+ */
+public class ServiceInfoCodecTest {
+    
+    @Test
+    public void testRoundTrip() {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("zone", "cn-east-1");
+        metadata.put("tags", "a,b");
+        ServiceRegistryInfo info = sample(metadata);
+        
+        ServiceRegistryInfo decoded = ServiceInfoCodec.decode(ServiceInfoCodec.encode(info));
+        
+        Assertions.assertEquals(info, decoded);
+        Assertions.assertEquals("127.0.0.1:8080", decoded.getAddress());
+    }
+    
+    @Test
+    public void testRoundTripWithNulls() {
+        ServiceRegistryInfo info = new ServiceRegistryInfo();
+        info.setServiceName("com.example.DemoService");
+        info.setGroup(null);
+        info.setVersion(null);
+        
+        Assertions.assertEquals(info, ServiceInfoCodec.decode(ServiceInfoCodec.encode(info)));
+    }
+    
+    @Test
+    public void testDecodeLegacyText() {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("zone", "cn-east-1");
+        ServiceRegistryInfo info = sample(metadata);
+        
+        // 旧版本直接写入toString()的文本
+        byte[] legacy = info.toString().getBytes(StandardCharsets.UTF_8);
+        ServiceRegistryInfo decoded = ServiceInfoCodec.decode(legacy);
+        
+        Assertions.assertEquals(info, decoded);
+        Assertions.assertTrue(ServiceInfoCodec.encode(info).length < legacy.length);
+    }
+    
+    @Test
+    public void testRejectUnknownData() {
+        Assertions.assertThrows(RpcException.class,
+                () -> ServiceInfoCodec.decode("garbage".getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertThrows(RpcException.class,
+                () -> ServiceInfoCodec.decode(new byte[]{(byte) 0xB7, 99}));
+    }
+    
+    private static ServiceRegistryInfo sample(Map<String, String> metadata) {
+        return ServiceRegistryInfo.builder()
+                .serviceName("com.example.DemoService")
+                .group("default")
+                .version("1.0")
+                .implClassName("com.example.DemoServiceImpl")
+                .host("127.0.0.1")
+                .port(8080)
+                .weight(100)
+                .healthy(true)
+                .metadata(metadata)
+                .createTime(1700000000000L)
+                .lastHeartbeatTime(1700000005000L)
+                .build();
+    }
+}
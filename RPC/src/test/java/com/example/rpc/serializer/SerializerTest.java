@@ -4,9 +4,13 @@ import com.example.rpc.constant.RpcConstant;
 import com.example.rpc.model.RpcRequest;
 import com.example.rpc.model.RpcResponse;
 import com.example.rpc.serializer.impl.JsonSerializer;
+import com.example.rpc.serializer.impl.KryoSerializer;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
 
 import static org.junit.Assert.*;
@@ -21,7 +25,7 @@ public class SerializerTest {
      * 测试JSON序列化器
      */
     @Test
-    public void testJsonSerializer() {
+    public void testJsonSerializer() throws IOException {
         Serializer serializer = new JsonSerializer();
         assertEquals(0x01, serializer.getType());
         assertEquals(RpcConstant.SERIALIZER_JSON, serializer.getName());
@@ -73,6 +77,77 @@ public class SerializerTest {
         log.info("JSON serializer test passed successfully!");
     }
     
+    /**
+     * 测试Kryo序列化器
+     */
+    @Test
+    public void testKryoSerializer() {
+        KryoSerializer serializer = new KryoSerializer();
+        assertEquals(0x03, serializer.getType());
+        assertEquals(RpcConstant.SERIALIZER_KRYO, serializer.getName());
+        
+        RpcRequest request = RpcRequest.builder()
+                .requestId("123456")
+                .serviceName("com.example.rpc.test.TestService")
+                .methodName("testMethod")
+                .parameterTypes(new Class[]{String.class, Integer.class})
+                .parameters(new Object[]{"test", 123})
+                .version("1.0")
+                .group("default")
+                .build();
+        
+        byte[] requestBytes = serializer.serialize(request);
+        RpcRequest deserializedRequest = serializer.deserialize(requestBytes, RpcRequest.class);
+        assertEquals(request.getRequestId(), deserializedRequest.getRequestId());
+        assertEquals(request.getServiceName(), deserializedRequest.getServiceName());
+        assertEquals(request.getMethodName(), deserializedRequest.getMethodName());
+        assertArrayEquals(request.getParameterTypes(), deserializedRequest.getParameterTypes());
+        assertArrayEquals(request.getParameters(), deserializedRequest.getParameters());
+        
+        // Kryo输出应明显小于JSON
+        assertTrue(requestBytes.length < new JsonSerializer().serialize(request).length);
+        
+        RpcResponse<String> response = RpcResponse.success("123456", "Success Result");
+        RpcResponse<?> deserializedResponse = serializer.deserialize(serializer.serialize(response), RpcResponse.class);
+        assertEquals(response.getRequestId(), deserializedResponse.getRequestId());
+        assertEquals(response.getStatus(), deserializedResponse.getStatus());
+        assertEquals(response.getData(), deserializedResponse.getData());
+        
+        // 多线程并发使用同一个序列化器实例
+        Arrays.asList(1, 2, 3, 4).parallelStream().forEach(i -> {
+            RpcRequest copy = serializer.deserialize(serializer.serialize(request), RpcRequest.class);
+            assertEquals(request.getMethodName(), copy.getMethodName());
+        });
+        
+        log.info("Kryo serializer test passed successfully!");
+    }
+    
+    /**
+     * 测试流式序列化，结果与字节数组版本一致
+     */
+    @Test
+    public void testStreamSerialization() throws IOException {
+        RpcRequest request = RpcRequest.builder()
+                .requestId("123456")
+                .serviceName("com.example.rpc.test.TestService")
+                .methodName("testMethod")
+                .parameterTypes(new Class[]{String.class})
+                .parameters(new Object[]{new String(new char[20000]).replace('\0', 'x')})
+                .version("1.0")
+                .group("default")
+                .build();
+        
+        for (Serializer serializer : Arrays.asList(new JsonSerializer(), new KryoSerializer(), new HessianSerializer())) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            serializer.serialize(request, out);
+            assertArrayEquals(serializer.getName(), serializer.serialize(request), out.toByteArray());
+            
+            RpcRequest deserialized = serializer.deserialize(new ByteArrayInputStream(out.toByteArray()), RpcRequest.class);
+            assertEquals(request.getMethodName(), deserialized.getMethodName());
+            assertArrayEquals(request.getParameters(), deserialized.getParameters());
+        }
+    }
+    
     /**
      * 测试序列化器工厂
      */
@@ -89,7 +164,7 @@ public class SerializerTest {
         assertEquals(jsonSerializer.getName(), defaultSerializer.getName());
         
         // 测试根据类型获取序列化器
-        Serializer typeSerializer = SerializerFactory.getSerializer(defaultSerializer.getType());
+        Serializer typeSerializer = SerializerFactory.getSerializerByType(defaultSerializer.getType());
         assertNotNull(typeSerializer);
         assertEquals(defaultSerializer.getName(), typeSerializer.getName());
         
@@ -0,0 +1,72 @@
+package com.example.rpc.server;
+
+import com.example.rpc.constant.RpcConstant;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 请求分发器测试
+ */
+public class RequestDispatcherTest {
+    
+    @Test
+    public void testEventLoopRunsInline() {
+        RequestDispatcher dispatcher = new RequestDispatcher(RpcConstant.DISPATCH_MODE_WORKER_POOL, 1, 1);
+        AtomicReference<Thread> executedOn = new AtomicReference<>();
+        try {
+            Assertions.assertTrue(dispatcher.dispatch(RpcConstant.DISPATCH_MODE_EVENT_LOOP,
+                    () -> executedOn.set(Thread.currentThread())));
+            Assertions.assertSame(Thread.currentThread(), executedOn.get());
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+    
+    @Test
+    public void testRejectWhenWorkerPoolIsFull() throws InterruptedException {
+        RequestDispatcher dispatcher = new RequestDispatcher(RpcConstant.DISPATCH_MODE_WORKER_POOL, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // 占住唯一的工作线程
+            Assertions.assertTrue(dispatcher.dispatch(null, () -> {
+                started.countDown();
+                awaitQuietly(release);
+            }));
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+            // 填满队列
+            Assertions.assertTrue(dispatcher.dispatch(null, () -> { }));
+            // 线程和队列都满了，请求被拒绝
+            Assertions.assertFalse(dispatcher.dispatch(null, () -> { }));
+            Assertions.assertEquals(1, dispatcher.getRejectedCount());
+        } finally {
+            release.countDown();
+            dispatcher.shutdown();
+        }
+    }
+    
+    @Test
+    public void testVirtualThreadMode() throws InterruptedException {
+        RequestDispatcher dispatcher = new RequestDispatcher(RpcConstant.DISPATCH_MODE_VIRTUAL_THREAD, 1, 1);
+        CountDownLatch done = new CountDownLatch(1);
+        try {
+            // 不支持虚拟线程的JVM上退化为工作线程池，两种情况下任务都应被执行
+            Assertions.assertTrue(dispatcher.dispatch(null, done::countDown));
+            Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+    
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
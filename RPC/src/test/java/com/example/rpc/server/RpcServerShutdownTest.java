@@ -0,0 +1,135 @@
+package com.example.rpc.server;
+
+import com.example.rpc.client.impl.VertxRpcClient;
+import com.example.rpc.config.RpcProperties;
+import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.model.RpcResponse;
+import com.example.rpc.registry.LocalRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务器优雅关闭测试
+ */
+public class RpcServerShutdownTest {
+    
+    private static final int PORT = 8895;
+    
+    private final LocalRegistry registry = new LocalRegistry();
+    private VertxRpcClient client;
+    
+    @BeforeEach
+    public void setUp() {
+        client = new VertxRpcClient(new RpcProperties(), registry);
+        client.init();
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        client.close();
+        registry.close();
+    }
+    
+    @Test
+    public void testShutdownWaitsForInFlightRequests() throws Exception {
+        VertxRpcServer server = new VertxRpcServer(properties(), registry, serviceMap());
+        server.start();
+        
+        List<CompletableFuture<RpcResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(client.sendRequest("127.0.0.1", PORT, request("call-" + i)));
+        }
+        // 等请求都到达服务端后再关闭
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getAdmissionController().getInFlight() < 5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        server.shutdown();
+        
+        Assertions.assertFalse(server.isRunning());
+        for (int i = 0; i < futures.size(); i++) {
+            RpcResponse response = futures.get(i).get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals("call-" + i, response.getData());
+        }
+        ExecutionException error = Assertions.assertThrows(ExecutionException.class,
+                () -> client.sendRequest("127.0.0.1", PORT, request("late")).get(5, TimeUnit.SECONDS));
+        Assertions.assertNotNull(error.getCause());
+    }
+    
+    @Test
+    public void testDeregisterBeforeDraining() throws Exception {
+        RpcProperties properties = properties();
+        properties.setShutdownDeregisterDelay(300);
+        RpcServerImpl server = new RpcServerImpl(properties, registry, serviceMap());
+        server.start();
+        server.registerService(SlowService.class.getName(), RpcConstant.DEFAULT_GROUP, RpcConstant.DEFAULT_VERSION, 100);
+        Assertions.assertEquals(1, discover().size());
+        
+        CompletableFuture<Void> shutdown = CompletableFuture.runAsync(server::shutdown);
+        Thread.sleep(100);
+        // 注销后的等待期内服务器仍在处理请求，但已经不能被发现
+        Assertions.assertTrue(discover().isEmpty());
+        Assertions.assertTrue(server.isRunning());
+        Assertions.assertEquals("during-delay",
+                client.sendRequest("127.0.0.1", PORT, request("during-delay")).get(5, TimeUnit.SECONDS).getData());
+        
+        shutdown.get(10, TimeUnit.SECONDS);
+        Assertions.assertFalse(server.isRunning());
+    }
+    
+    private List<?> discover() throws Exception {
+        return registry.discover(SlowService.class.getName(), RpcConstant.DEFAULT_GROUP, RpcConstant.DEFAULT_VERSION)
+                .get(5, TimeUnit.SECONDS);
+    }
+    
+    private RpcProperties properties() {
+        RpcProperties properties = new RpcProperties();
+        properties.setServerPort(PORT);
+        return properties;
+    }
+    
+    private Map<String, Object> serviceMap() {
+        Map<String, Object> serviceMap = new ConcurrentHashMap<>();
+        serviceMap.put(SlowService.class.getName() + ":" + RpcConstant.DEFAULT_GROUP + ":" + RpcConstant.DEFAULT_VERSION,
+                new SlowServiceImpl());
+        return serviceMap;
+    }
+    
+    private RpcRequest request(String argument) {
+        return RpcRequest.builder()
+                .serviceName(SlowService.class.getName())
+                .methodName("echo")
+                .parameterTypes(new Class[]{String.class})
+                .parameters(new Object[]{argument})
+                .version(RpcConstant.DEFAULT_VERSION)
+                .group(RpcConstant.DEFAULT_GROUP)
+                .build();
+    }
+    
+    public interface SlowService {
+        String echo(String value);
+    }
+    
+    public static class SlowServiceImpl implements SlowService {
+        @Override
+        public String echo(String value) {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.rpc.server;
+
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.protocol.MethodSignature;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * 服务调用器测试
+ */
+public class ServiceInvokerTest {
+    
+    private final ServiceInvoker invoker = ServiceInvoker.compile(CalculatorService.class, new CalculatorServiceImpl());
+    
+    @Test
+    public void testInvokeByMethodId() throws Throwable {
+        Method method = CalculatorService.class.getMethod("add", int.class, int.class);
+        int methodId = MethodSignature.assignIds(CalculatorService.class.getMethods()).get(method);
+        
+        // 只携带方法ID，不携带方法名和参数类型
+        RpcRequest request = RpcRequest.builder()
+                .methodId(methodId)
+                .parameters(new Object[]{1, 2})
+                .build();
+        
+        Assertions.assertEquals(3, invoker.find(request).invoke(request.getParameters()));
+    }
+    
+    @Test
+    public void testInvokeBySignatureWithOverloads() throws Throwable {
+        RpcRequest intRequest = RpcRequest.builder()
+                .methodName("add")
+                .parameterTypes(new Class[]{int.class, int.class})
+                .parameters(new Object[]{1, 2})
+                .build();
+        RpcRequest stringRequest = RpcRequest.builder()
+                .methodName("add")
+                .parameterTypes(new Class[]{String.class, String.class})
+                .parameters(new Object[]{"1", "2"})
+                .build();
+        
+        Assertions.assertEquals(3, invoker.find(intRequest).invoke(intRequest.getParameters()));
+        Assertions.assertEquals("12", invoker.find(stringRequest).invoke(stringRequest.getParameters()));
+    }
+    
+    @Test
+    public void testUnknownMethodIdFallsBackToSignature() throws Throwable {
+        RpcRequest request = RpcRequest.builder()
+                .methodId(12345)
+                .methodName("reset")
+                .parameters(null)
+                .build();
+        
+        ServiceInvoker.MethodInvoker methodInvoker = invoker.find(request);
+        Assertions.assertNotNull(methodInvoker);
+        Assertions.assertNull(methodInvoker.invoke(null));
+    }
+    
+    @Test
+    public void testUnknownMethodIdFallsBackToNameAndArity() throws Throwable {
+        // 客户端接口版本不同，方法ID在服务端不存在，请求中也没有参数类型
+        RpcRequest request = RpcRequest.builder()
+                .methodId(12345)
+                .methodName("divide")
+                .parameters(new Object[]{6, 3})
+                .build();
+        
+        ServiceInvoker.MethodInvoker methodInvoker = invoker.find(request);
+        Assertions.assertNotNull(methodInvoker);
+        Assertions.assertEquals(2, methodInvoker.invoke(request.getParameters()));
+    }
+    
+    @Test
+    public void testUnknownMethodIdWithAmbiguousOverloadsIsNotResolved() {
+        RpcRequest request = RpcRequest.builder()
+                .methodId(12345)
+                .methodName("add")
+                .parameters(new Object[]{1, 2})
+                .build();
+        
+        Assertions.assertNull(invoker.find(request));
+    }
+    
+    @Test
+    public void testMethodNotFound() {
+        RpcRequest request = RpcRequest.builder()
+                .methodName("subtract")
+                .parameterTypes(new Class[]{int.class, int.class})
+                .build();
+        
+        Assertions.assertNull(invoker.find(request));
+    }
+    
+    @Test
+    public void testServiceExceptionIsNotWrapped() {
+        RpcRequest request = RpcRequest.builder()
+                .methodName("divide")
+                .parameterTypes(new Class[]{int.class, int.class})
+                .parameters(new Object[]{1, 0})
+                .build();
+        
+        ServiceInvoker.MethodInvoker methodInvoker = invoker.find(request);
+        Assertions.assertThrows(ArithmeticException.class, () -> methodInvoker.invoke(request.getParameters()));
+    }
+    
+    @Test
+    public void testAssignIdsIsStable() {
+        Map<Method, Integer> first = MethodSignature.assignIds(CalculatorService.class.getMethods());
+        Map<Method, Integer> second = MethodSignature.assignIds(CalculatorService.class.getMethods());
+        Assertions.assertEquals(first, second);
+        Assertions.assertEquals(4, first.size());
+    }
+    
+    /**
+     * 测试服务接口，包含重载方法
+     */
+    interface CalculatorService {
+        int add(int a, int b);
+        
+        String add(String a, String b);
+        
+        int divide(int a, int b);
+        
+        void reset();
+    }
+    
+    /**
+     * 测试服务实现，接口非public时也能编译调用器
+     */
+    static class CalculatorServiceImpl implements CalculatorService {
+        @Override
+        public int add(int a, int b) {
+            return a + b;
+        }
+        
+        @Override
+        public String add(String a, String b) {
+            return a + b;
+        }
+        
+        @Override
+        public int divide(int a, int b) {
+            return a / b;
+        }
+        
+        @Override
+        public void reset() {
+        }
+    }
+}
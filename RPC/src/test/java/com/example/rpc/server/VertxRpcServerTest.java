@@ -0,0 +1,283 @@
+package com.example.rpc.server;
+
+import com.example.rpc.annotation.NonBlocking;
+import com.example.rpc.client.impl.VertxRpcClient;
+import com.example.rpc.config.RpcProperties;
+import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.exception.ServerOverloadedException;
+import com.example.rpc.model.RpcMessageHeader;
+import com.example.rpc.model.RpcRequest;
+import com.example.rpc.model.RpcResponse;
+import com.example.rpc.protocol.RpcFrameParser;
+import com.example.rpc.protocol.RpcMessageCodec;
+import com.example.rpc.registry.LocalRegistry;
+import com.example.rpc.serializer.SerializerFactory;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetSocket;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 服务器请求解码和分发位置测试
+ */
+public class VertxRpcServerTest {
+    
+    private static final int PORT = 8896;
+    
+    /**
+     * GateService的调用在这里等待，由测试控制何时完成
+     */
+    private static final Semaphore GATE = new Semaphore(0);
+    private static final AtomicInteger ENTERED = new AtomicInteger();
+    
+    private final LocalRegistry registry = new LocalRegistry();
+    private VertxRpcClient client;
+    private VertxRpcServer server;
+    
+    @BeforeEach
+    public void setUp() {
+        GATE.drainPermits();
+        ENTERED.set(0);
+        client = new VertxRpcClient(new RpcProperties(), registry);
+        client.init();
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        GATE.release(1000);
+        client.close();
+        if (server != null && server.isRunning()) {
+            server.shutdown();
+        }
+        registry.close();
+    }
+    
+    @Test
+    public void testNonBlockingServicesAreHandledOnEventLoop() throws Exception {
+        Map<String, Object> serviceMap = new ConcurrentHashMap<>();
+        serviceMap.put(serviceKey(NonBlockingService.class), new NonBlockingServiceImpl());
+        server = new VertxRpcServer(properties(), registry, serviceMap);
+        server.start();
+        
+        Assertions.assertEquals(RpcConstant.DISPATCH_MODE_EVENT_LOOP, server.getDecodeMode());
+        Assertions.assertTrue(call(NonBlockingService.class).startsWith("vert.x-eventloop"));
+    }
+    
+    @Test
+    public void testBlockingServiceMovesDecodingOffEventLoop() throws Exception {
+        Map<String, Object> serviceMap = new ConcurrentHashMap<>();
+        serviceMap.put(serviceKey(NonBlockingService.class), new NonBlockingServiceImpl());
+        serviceMap.put(serviceKey(BlockingService.class), new BlockingServiceImpl());
+        server = new VertxRpcServer(properties(), registry, serviceMap);
+        server.start();
+        
+        // 有阻塞服务时无法在解码前区分服务，解码和@NonBlocking方法都在工作线程上执行，不再切回事件循环
+        Assertions.assertEquals(RpcConstant.DISPATCH_MODE_WORKER_POOL, server.getDecodeMode());
+        Assertions.assertTrue(call(NonBlockingService.class).startsWith("rpc-worker-"));
+        Assertions.assertTrue(call(BlockingService.class).startsWith("rpc-worker-"));
+    }
+    
+    @Test
+    public void testDecodeModeFollowsServiceRegistration() {
+        Map<String, Object> serviceMap = new ConcurrentHashMap<>();
+        serviceMap.put(serviceKey(NonBlockingService.class), new NonBlockingServiceImpl());
+        server = new VertxRpcServer(properties(), registry, serviceMap);
+        server.start();
+        Assertions.assertEquals(RpcConstant.DISPATCH_MODE_EVENT_LOOP, server.getDecodeMode());
+        
+        serviceMap.put(serviceKey(BlockingService.class), new BlockingServiceImpl());
+        server.registerService(BlockingService.class.getName(), RpcConstant.DEFAULT_GROUP, RpcConstant.DEFAULT_VERSION, 100);
+        Assertions.assertEquals(RpcConstant.DISPATCH_MODE_WORKER_POOL, server.getDecodeMode());
+        
+        server.unregisterService(BlockingService.class.getName(), RpcConstant.DEFAULT_GROUP, RpcConstant.DEFAULT_VERSION);
+        Assertions.assertEquals(RpcConstant.DISPATCH_MODE_EVENT_LOOP, server.getDecodeMode());
+    }
+    
+    @Test
+    public void testOtherProtocolVersionClosesConnection() throws Exception {
+        Map<String, Object> serviceMap = new ConcurrentHashMap<>();
+        serviceMap.put(serviceKey(NonBlockingService.class), new NonBlockingServiceImpl());
+        server = new VertxRpcServer(properties(), registry, serviceMap);
+        server.start();
+        
+        Vertx vertx = Vertx.vertx();
+        try {
+            NetSocket socket = vertx.createNetClient().connect(PORT, "127.0.0.1")
+                    .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            CompletableFuture<Void> closed = new CompletableFuture<>();
+            socket.closeHandler(v -> closed.complete(null));
+            
+            // 魔数相同、版本为1的协议头，服务端应直接关闭连接，而不是按错误的位置读取数据长度后等待
+            Buffer header = Buffer.buffer(new byte[RpcConstant.HEADER_LENGTH]);
+            header.setInt(0, RpcConstant.MAGIC_NUMBER);
+            header.setByte(4, (byte) 1);
+            socket.write(header);
+            
+            closed.get(5, TimeUnit.SECONDS);
+        } finally {
+            vertx.close();
+        }
+    }
+    
+    @Test
+    public void testRequestOverLimitIsRejectedAsOverloaded() throws Exception {
+        RpcProperties properties = properties();
+        properties.setMaxInFlightRequests(1);
+        server = new VertxRpcServer(properties, registry, gateServiceMap());
+        server.start();
+        
+        CompletableFuture<RpcResponse> first = client.sendRequest("127.0.0.1", PORT, gateRequest());
+        waitUntil(() -> ENTERED.get() == 1);
+        
+        // 超过并发上限的请求不解码、不执行，直接返回过载状态
+        ExecutionException error = Assertions.assertThrows(ExecutionException.class,
+                () -> client.sendRequest("127.0.0.1", PORT, gateRequest()).get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(error.getCause() instanceof ServerOverloadedException, String.valueOf(error.getCause()));
+        Assertions.assertEquals(1, ENTERED.get());
+        Assertions.assertEquals(1, server.getAdmissionController().getRejectedCount());
+        
+        GATE.release(1);
+        Assertions.assertEquals("ok", first.get(5, TimeUnit.SECONDS).getData());
+    }
+    
+    @Test
+    public void testConnectionPausesAtLimitAndResumes() throws Exception {
+        RpcProperties properties = properties();
+        properties.setMaxInFlightPerConnection(2);
+        server = new VertxRpcServer(properties, registry, gateServiceMap());
+        server.start();
+        
+        Vertx vertx = Vertx.vertx();
+        try {
+            NetSocket socket = vertx.createNetClient().connect(PORT, "127.0.0.1")
+                    .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            List<RpcMessageHeader> responses = new CopyOnWriteArrayList<>();
+            socket.handler(new RpcFrameParser(frame -> responses.add(frame.getHeader()), Assertions::fail));
+            
+            // 5个请求在同一个Buffer中到达，暂停后同一批数据中剩余的请求也不能被处理
+            Buffer batch = Buffer.buffer();
+            for (long id = 1; id <= 5; id++) {
+                batch.appendBuffer(encode(id, gateRequest()));
+            }
+            socket.write(batch);
+            waitUntil(() -> ENTERED.get() == 2);
+            Thread.sleep(300);
+            Assertions.assertEquals(2, ENTERED.get());
+            Assertions.assertEquals(2, server.getAdmissionController().getInFlight());
+            
+            // 请求完成后恢复读取，剩余的请求继续处理
+            GATE.release(5);
+            waitUntil(() -> responses.size() == 5);
+            for (RpcMessageHeader header : responses) {
+                Assertions.assertEquals(RpcConstant.MESSAGE_STATUS_OK, header.getStatusCode());
+            }
+            Assertions.assertEquals(5, ENTERED.get());
+        } finally {
+            vertx.close();
+        }
+    }
+    
+    private Map<String, Object> gateServiceMap() {
+        Map<String, Object> serviceMap = new ConcurrentHashMap<>();
+        serviceMap.put(serviceKey(GateService.class), new GateServiceImpl());
+        return serviceMap;
+    }
+    
+    private RpcRequest gateRequest() {
+        return RpcRequest.builder()
+                .serviceName(GateService.class.getName())
+                .methodName("pass")
+                .parameterTypes(new Class[0])
+                .parameters(new Object[0])
+                .version(RpcConstant.DEFAULT_VERSION)
+                .group(RpcConstant.DEFAULT_GROUP)
+                .build();
+    }
+    
+    private static Buffer encode(long requestId, RpcRequest request) throws Exception {
+        byte serializerType = SerializerFactory.getSerializer(new RpcProperties().getSerializer()).getType();
+        RpcMessageHeader header = RpcMessageCodec.buildHeader(RpcConstant.MESSAGE_TYPE_REQUEST,
+                serializerType, RpcConstant.MESSAGE_STATUS_OK, requestId);
+        return RpcMessageCodec.encode(RpcMessageCodec.buildMessage(header, request));
+    }
+    
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertTrue(condition.getAsBoolean(), "condition not met within 5000ms");
+    }
+    
+    private String call(Class<?> serviceInterface) throws Exception {
+        RpcRequest request = RpcRequest.builder()
+                .serviceName(serviceInterface.getName())
+                .methodName("threadName")
+                .parameterTypes(new Class[0])
+                .parameters(new Object[0])
+                .version(RpcConstant.DEFAULT_VERSION)
+                .group(RpcConstant.DEFAULT_GROUP)
+                .build();
+        return (String) client.sendRequest("127.0.0.1", PORT, request).get(5, TimeUnit.SECONDS).getData();
+    }
+    
+    private static String serviceKey(Class<?> serviceInterface) {
+        return serviceInterface.getName() + ":" + RpcConstant.DEFAULT_GROUP + ":" + RpcConstant.DEFAULT_VERSION;
+    }
+    
+    private RpcProperties properties() {
+        RpcProperties properties = new RpcProperties();
+        properties.setServerPort(PORT);
+        return properties;
+    }
+    
+    public interface NonBlockingService {
+        String threadName();
+    }
+    
+    @NonBlocking
+    public static class NonBlockingServiceImpl implements NonBlockingService {
+        @Override
+        public String threadName() {
+            return Thread.currentThread().getName();
+        }
+    }
+    
+    public interface BlockingService {
+        String threadName();
+    }
+    
+    public static class BlockingServiceImpl implements BlockingService {
+        @Override
+        public String threadName() {
+            return Thread.currentThread().getName();
+        }
+    }
+    
+    public interface GateService {
+        String pass();
+    }
+    
+    public static class GateServiceImpl implements GateService {
+        @Override
+        public String pass() {
+            ENTERED.incrementAndGet();
+            GATE.acquireUninterruptibly();
+            return "ok";
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.rpc.server.limit;
+
+import com.example.rpc.constant.RpcConstant;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 准入控制和自适应并发上限测试
+ */
+public class AdmissionControllerTest {
+    
+    private static final long BASE_LATENCY = TimeUnit.MILLISECONDS.toNanos(10);
+    
+    @Test
+    public void testFixedLimitRejectsBeyondLimit() {
+        AdmissionController controller = new AdmissionController(RpcConstant.ADMISSION_LIMIT_FIXED, 2);
+        Assertions.assertTrue(controller.tryAcquire());
+        Assertions.assertTrue(controller.tryAcquire());
+        Assertions.assertFalse(controller.tryAcquire());
+        Assertions.assertEquals(1, controller.getRejectedCount());
+        
+        controller.release(BASE_LATENCY);
+        Assertions.assertEquals(1, controller.getInFlight());
+        Assertions.assertTrue(controller.tryAcquire());
+    }
+    
+    @Test
+    public void testZeroLimitMeansUnlimited() {
+        AdmissionController controller = new AdmissionController(RpcConstant.ADMISSION_LIMIT_FIXED, 0);
+        for (int i = 0; i < 10000; i++) {
+            Assertions.assertTrue(controller.tryAcquire());
+        }
+        Assertions.assertEquals(0, controller.getRejectedCount());
+    }
+    
+    @Test
+    public void testGradientLimitGrowsWhileLatencyIsStable() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 4, 200, 10);
+        // 并发跑满上限且耗时不变，上限逐步上升
+        for (int i = 0; i < 500; i++) {
+            limit.onSample(BASE_LATENCY, limit.getLimit());
+        }
+        Assertions.assertTrue(limit.getLimit() > 40, "limit " + limit.getLimit());
+        Assertions.assertTrue(limit.getLimit() <= 200);
+    }
+    
+    @Test
+    public void testGradientLimitShrinksWhenLatencyRises() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(100, 4, 200, 10);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(BASE_LATENCY, limit.getLimit());
+        }
+        int before = limit.getLimit();
+        // 耗时升到原来的4倍，说明请求在排队
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(BASE_LATENCY * 4, limit.getLimit());
+        }
+        Assertions.assertTrue(limit.getLimit() < before * 3 / 4, "limit " + before + " -> " + limit.getLimit());
+        Assertions.assertTrue(limit.getLimit() >= 4);
+    }
+    
+    @Test
+    public void testGradientLimitDoesNotGrowWhenUnderused() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 4, 200, 10);
+        for (int i = 0; i < 500; i++) {
+            limit.onSample(BASE_LATENCY, 2);
+        }
+        Assertions.assertEquals(20, limit.getLimit());
+    }
+}
@@ -3,13 +3,19 @@ package com.example.rpc.test;
 import com.example.rpc.annotation.RpcService;
 import com.example.rpc.client.RpcClient;
 import com.example.rpc.client.RpcClientFactory;
+import com.example.rpc.client.impl.VertxRpcClient;
 import com.example.rpc.config.RpcProperties;
+import com.example.rpc.constant.RpcConstant;
 import com.example.rpc.model.RpcRequest;
 import com.example.rpc.model.RpcResponse;
+import com.example.rpc.proxy.ServiceProxyFactory;
 import com.example.rpc.registry.RegistryFactory;
 import com.example.rpc.registry.ServiceRegistry;
 import com.example.rpc.server.RpcServer;
 import com.example.rpc.server.RpcServerImpl;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.*;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -20,6 +26,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
@@ -35,6 +44,7 @@ public class RpcIntegrationTest {
 
     private static final int TEST_PORT = 8888;
     private static final String TEST_SERVICE_KEY = "com.example.rpc.test.TestService:default:1.0";
+    private static final String ORDER_SERVICE_KEY = OrderService.class.getName() + ":default:1.0";
     
     private RpcServer server;
     private RpcClient client;
@@ -43,11 +53,12 @@ public class RpcIntegrationTest {
     @BeforeEach
     public void setUp() {
         // 创建服务注册表
-        registry = RegistryFactory.createRegistry("etcd", "http://localhost:2379");
+        registry = RegistryFactory.createRegistry(RpcConstant.REGISTRY_TYPE_LOCAL, null);
         
         // 创建服务映射并添加测试服务
         ConcurrentHashMap<String, Object> serviceMap = new ConcurrentHashMap<>();
         serviceMap.put(TEST_SERVICE_KEY, new TestServiceImpl());
+        serviceMap.put(ORDER_SERVICE_KEY, new OrderServiceImpl());
         
         // 创建并启动服务器
         server = new RpcServerImpl(TEST_PORT, registry, serviceMap);
@@ -94,6 +105,55 @@ public class RpcIntegrationTest {
         Assertions.assertEquals("test-request-123", response.getRequestId(), "Request ID should be preserved");
     }
     
+    @Test
+    public void testRpcCallThroughRegistry() throws ExecutionException, InterruptedException, TimeoutException {
+        // 把服务注册到本地注册中心
+        server.registerService("com.example.rpc.test.TestService", "default", "1.0", 100);
+        
+        // 客户端通过注册中心发现服务并由负载均衡器选择实例
+        RpcClient discoveryClient = new VertxRpcClient(new RpcProperties(), registry);
+        discoveryClient.init();
+        try {
+            RpcRequest request = RpcRequest.builder()
+                    .serviceName("com.example.rpc.test.TestService")
+                    .methodName("sayHello")
+                    .parameterTypes(new Class[]{String.class})
+                    .parameters(new Object[]{"Registry"})
+                    .group("default")
+                    .version("1.0")
+                    .build();
+            
+            RpcResponse response = discoveryClient.sendRequest(request).get(5, TimeUnit.SECONDS);
+            
+            Assertions.assertEquals(200, response.getStatus(), "Response status should be 200 (success)");
+            Assertions.assertEquals("Hello, Registry", response.getData(), "Response data should match expected result");
+        } finally {
+            discoveryClient.close();
+        }
+    }
+    
+    @Test
+    public void testProxyCallWithGenericParametersAndReturnValue() throws Exception {
+        server.registerService(OrderService.class.getName(), "default", "1.0", 100);
+        
+        RpcClient discoveryClient = new VertxRpcClient(new RpcProperties(), registry);
+        discoveryClient.init();
+        try {
+            OrderService orderService = new ServiceProxyFactory(discoveryClient)
+                    .createProxy(OrderService.class, "1.0", "default");
+            
+            // 参数和返回值都按方法声明的类型反序列化，而不是JSONObject
+            Item merged = orderService.merge(Arrays.asList(new Item("apple", 2), new Item("apple", 3)));
+            Assertions.assertEquals(new Item("apple", 5), merged);
+            
+            List<Item> parts = orderService.split(new Item("pear", 6), 3).get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals(3, parts.size());
+            Assertions.assertEquals(new Item("pear", 2), parts.get(0));
+        } finally {
+            discoveryClient.close();
+        }
+    }
+    
     @Test
     public void testRpcCallWithInvalidService() throws ExecutionException, InterruptedException {
         // 创建请求，使用不存在的服务
@@ -128,6 +188,43 @@ public class RpcIntegrationTest {
         String sayHello(String name);
     }
     
+    /**
+     * 参数和返回值带泛型的测试服务接口
+     */
+    public interface OrderService {
+        Item merge(List<Item> items);
+        
+        CompletableFuture<List<Item>> split(Item item, int parts);
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private String name;
+        private int quantity;
+    }
+    
+    public static class OrderServiceImpl implements OrderService {
+        @Override
+        public Item merge(List<Item> items) {
+            int quantity = 0;
+            for (Item item : items) {
+                quantity += item.getQuantity();
+            }
+            return new Item(items.get(0).getName(), quantity);
+        }
+        
+        @Override
+        public CompletableFuture<List<Item>> split(Item item, int parts) {
+            List<Item> result = new ArrayList<>();
+            for (int i = 0; i < parts; i++) {
+                result.add(new Item(item.getName(), item.getQuantity() / parts));
+            }
+            return CompletableFuture.completedFuture(result);
+        }
+    }
+    
     /**
      * 测试服务实现
      */
@@ -0,0 +1,49 @@
+package com.example.rpc.test;
+
+import com.example.rpc.constant.RpcConstant;
+import com.example.rpc.model.ServiceRegistryInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 测试用的服务实例
+ * 默认分组和版本、地址为127.0.0.1、权重100、健康，需要其他属性时在builder上修改
+ */
+public final class ServiceInstances {
+    
+    public static final String HOST = "127.0.0.1";
+    
+    private ServiceInstances() {
+    }
+    
+    /**
+     * 已填好默认属性的构建器
+     */
+    public static ServiceRegistryInfo.ServiceRegistryInfoBuilder builder(String serviceName, int port) {
+        return ServiceRegistryInfo.builder()
+                .serviceName(serviceName)
+                .group(RpcConstant.DEFAULT_GROUP)
+                .version(RpcConstant.DEFAULT_VERSION)
+                .host(HOST)
+                .port(port)
+                .weight(100)
+                .healthy(true);
+    }
+    
+    public static ServiceRegistryInfo instance(String serviceName, int port) {
+        return builder(serviceName, port).build();
+    }
+    
+    public static ServiceRegistryInfo instance(String serviceName, int port, int weight) {
+        return builder(serviceName, port).weight(weight).build();
+    }
+    
+    public static List<ServiceRegistryInfo> instances(String serviceName, int... ports) {
+        List<ServiceRegistryInfo> services = new ArrayList<>(ports.length);
+        for (int port : ports) {
+            services.add(instance(serviceName, port));
+        }
+        return services;
+    }
+}